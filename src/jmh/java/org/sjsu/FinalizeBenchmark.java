@@ -0,0 +1,85 @@
+package org.sjsu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to finalize one route's response time stats and the APM output, from 10^3 to 10^7 samples,
+ * exact or with {@code --approximate 0.01}.
+ * <p>
+ * Exact percentiles and medians are selected in place, which leaves the samples partly ordered, so each
+ * invocation starts from a fresh copy of the unordered samples; copying is not part of the measured time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Thread)
+public class FinalizeBenchmark {
+
+    // Spread over the metrics of the sample input, like a real apm.json
+    private static final String[] METRICS = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent",
+            "network_bytes_in", "network_bytes_out"};
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int samples;
+
+    @Param({"exact", "approximate"})
+    public String mode;
+
+    private AggregatorConfig config;
+    private RequestRouteStats routeSamples;
+    private ApmAggregator apmSamples;
+    private RequestRouteStats route;
+    private ApmAggregator apm;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        config = "exact".equals(mode) ? AggregatorConfig.exact() : AggregatorConfig.approximate(0.01);
+        routeSamples = new RequestRouteStats(config);
+        apmSamples = new ApmAggregator(config);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < samples; i++) {
+            // Long-tailed, like real response times
+            int responseTime = (int) Math.min(60_000, -Math.log(1 - random.nextDouble()) * 120);
+            routeSamples.addResponseTime(responseTime);
+            routeSamples.addStatusCode(random.nextInt(10) == 0 ? 500 : 200);
+            apmSamples.addApmMetric(METRICS[i % METRICS.length], random.nextDouble() * 100);
+        }
+    }
+
+    // Level.Invocation adds timer overhead to calls in the microsecond range, so the smallest sizes are only
+    // comparable with each other, e.g. exact against approximate
+    @Setup(Level.Invocation)
+    public void copy() {
+        route = new RequestRouteStats(config);
+        route.merge(routeSamples);
+        apm = new ApmAggregator(config);
+        apm.merge(apmSamples);
+    }
+
+    @Benchmark
+    public Map<String, Object> routeResponseTimeStats() {
+        return route.getResponseTimeStats();
+    }
+
+    @Benchmark
+    public String apmJson() {
+        return apm.getApmJson();
+    }
+}
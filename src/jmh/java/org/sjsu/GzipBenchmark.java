@@ -0,0 +1,129 @@
+package org.sjsu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Lines/sec reading a gzip-rotated log of {@value #LINES} {@link LogGenerator} lines in {@value #MEMBERS}
+ * concatenated members: decompressing it to disk first and reading the copy (the old workflow), streaming
+ * decompression, and {@code --parallel} decompression of the members. One operation is one line.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(GzipBenchmark.LINES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class GzipBenchmark {
+
+    static final int LINES = 1_000_000;
+    static final int MEMBERS = 8;
+
+    @Param({"decompress-then-read", "streaming", "parallel"})
+    public String mode;
+
+    private Path compressed;
+    private Path decompressed;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        Path plain = Files.createTempFile("gzip-benchmark", ".log");
+        compressed = Files.createTempFile("gzip-benchmark", ".log.gz");
+        decompressed = Files.createTempFile("gzip-benchmark", ".copy.log");
+        try {
+            new LogGenerator(42).withMalformedFraction(0.01).writeLines(plain, LINES);
+            // Concatenated members, as produced by appending several rotations to one archive
+            try (BufferedReader reader = Files.newBufferedReader(plain, Charset.defaultCharset());
+                 OutputStream out = Files.newOutputStream(compressed)) {
+                for (int member = 0; member < MEMBERS; member++) {
+                    GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(out), 64 * 1024);
+                    try (Writer writer = new OutputStreamWriter(gzip, Charset.defaultCharset())) {
+                        String line;
+                        for (int i = 0; i < LINES / MEMBERS && (line = reader.readLine()) != null; i++) {
+                            writer.write(line);
+                            writer.write('\n');
+                        }
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(plain);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(compressed);
+        Files.deleteIfExists(decompressed);
+    }
+
+    @Benchmark
+    public AggregatorSet read() throws IOException {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.approximate(QuantileSketch.DEFAULT_RELATIVE_ERROR));
+        switch (mode) {
+            case "decompress-then-read":
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed), 64 * 1024)) {
+                    Files.copy(in, decompressed, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Main.processSequential(decompressed.toString(), aggregators.buildDispatcher(Diagnostics.silent()),
+                        Diagnostics.silent());
+                break;
+            case "streaming":
+                // CompressedInput decompresses gzip files on the fly
+                Main.processSequential(compressed.toString(), aggregators.buildDispatcher(Diagnostics.silent()),
+                        Diagnostics.silent());
+                break;
+            default:
+                new ParallelGzipProcessor(Runtime.getRuntime().availableProcessors())
+                        .withDiagnostics(Diagnostics.silent())
+                        .process(compressed, aggregators);
+                break;
+        }
+        return aggregators;
+    }
+
+    // Lets each GZIPOutputStream finish its member without closing the shared file
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
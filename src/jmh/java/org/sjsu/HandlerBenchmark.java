@@ -0,0 +1,89 @@
+package org.sjsu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per {@link LogHandler#handle} call of each handler, on a line it accepts ("hit") and on one it passes
+ * on ("miss"). The handlers have no next handler, so a miss measures only the handler's own check.
+ * <p>
+ * The aggregators keep sketches, so memory stays flat however many lines a run feeds them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandlerBenchmark {
+
+    private static final String APM_LINE =
+            "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94";
+    private static final String APPLICATION_LINE =
+            "timestamp=2024-11-24T10:03:45Z level=ERROR message=\"Authentication failed\" user_id=102 host=webserver1";
+    private static final String REQUEST_LINE = "timestamp=2024-11-24T10:01:55Z request_method=GET "
+            + "request_url=\"/api/retry\" response_status=202 response_time_ms=216 host=webserver3";
+    // No handler accepts it
+    private static final String EVENT_LINE =
+            "timestamp=2024-11-24T10:03:10Z event=DEPLOYMENT_START app=\"user-service\" version=\"1.0.1\" host=deploy-server";
+
+    // The chain and the dispatcher route all three line types
+    @Param({"apm", "application", "request", "chain", "dispatcher"})
+    public String handler;
+
+    @Param({"hit", "miss"})
+    public String line;
+
+    private LogHandler logHandler;
+    private String logLine;
+
+    @Setup
+    public void setUp() {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.approximate(QuantileSketch.DEFAULT_RELATIVE_ERROR));
+        switch (handler) {
+            case "apm":
+                ApmLogHandler apm = new ApmLogHandler(aggregators.getApmAggregator());
+                apm.setDiagnostics(Diagnostics.silent());
+                logHandler = apm;
+                logLine = "hit".equals(line) ? APM_LINE : REQUEST_LINE;
+                break;
+            case "application":
+                logHandler = new ApplicationLogHandler(aggregators.getApplicationAggregator());
+                logLine = "hit".equals(line) ? APPLICATION_LINE : APM_LINE;
+                break;
+            case "request":
+                RequestLogHandler request = new RequestLogHandler(aggregators.getRequestAggregator());
+                request.setDiagnostics(Diagnostics.silent());
+                logHandler = request;
+                logLine = "hit".equals(line) ? REQUEST_LINE : APPLICATION_LINE;
+                break;
+            case "chain":
+                logHandler = aggregators.buildChain(Diagnostics.silent());
+                logLine = "hit".equals(line) ? REQUEST_LINE : EVENT_LINE; // The last handler in the chain
+                break;
+            default:
+                logHandler = aggregators.buildDispatcher(Diagnostics.silent());
+                logLine = "hit".equals(line) ? REQUEST_LINE : EVENT_LINE;
+                break;
+        }
+        if (logHandler.handle(logLine) != "hit".equals(line)) {
+            throw new IllegalStateException(handler + " did not treat the line as a " + line);
+        }
+    }
+
+    @Benchmark
+    public boolean handle() {
+        return logHandler.handle(logLine);
+    }
+}
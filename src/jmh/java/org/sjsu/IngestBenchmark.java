@@ -0,0 +1,86 @@
+package org.sjsu;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * End-to-end lines/sec: reads a {@link LogGenerator} file of {@value #LINES} lines, 1% of them malformed,
+ * into fresh aggregators the way {@code Main} does in each mode, through the default dispatcher or the {@code --chain}
+ * handler chain. One operation is one line, so the scores are lines per second.
+ * Writing the output files is not included, see {@link FinalizeBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(IngestBenchmark.LINES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    static final int LINES = 1_000_000;
+
+    @Param({"sequential", "parallel", "pipeline"})
+    public String mode;
+
+    @Param({"exact", "approximate"})
+    public String config;
+
+    @Param({"chain", "dispatch"})
+    public String handler;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = Files.createTempFile("ingest-benchmark", ".log");
+        new LogGenerator(42).withMalformedFraction(0.01).writeLines(file, LINES);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public AggregatorSet ingest() throws IOException {
+        AggregatorSet aggregators = new AggregatorSet("exact".equals(this.config)
+                ? AggregatorConfig.exact() : AggregatorConfig.approximate(QuantileSketch.DEFAULT_RELATIVE_ERROR));
+        BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory = "chain".equals(this.handler)
+                ? AggregatorSet::buildChain : AggregatorSet::buildDispatcher;
+        int threads = Runtime.getRuntime().availableProcessors();
+        switch (mode) {
+            case "sequential":
+                Main.processSequential(file.toString(), handlerFactory.apply(aggregators, Diagnostics.silent()),
+                        Diagnostics.silent());
+                break;
+            case "parallel":
+                new ParallelFileProcessor(threads).withHandlerFactory(handlerFactory)
+                        .withDiagnostics(Diagnostics.silent()).process(file, aggregators);
+                break;
+            default:
+                new PipelineProcessor(threads).withHandlerFactory(handlerFactory)
+                        .withDiagnostics(Diagnostics.silent()).process(file, aggregators);
+                break;
+        }
+        return aggregators;
+    }
+}
@@ -0,0 +1,196 @@
+package org.sjsu;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable settings shared by the aggregators of one run.
+ * Every shard of a parallel run must use the same configuration so the shards can be merged.
+ */
+public class AggregatorConfig {
+
+    public static final double[] DEFAULT_PERCENTILES = {50, 90, 95, 99};
+    public static final AggregatorConfig DEFAULT = new AggregatorConfig(0.0, 0, 0, List.of(), 0,
+            RouteNormalizer.RAW, 0, RouteTable.Eviction.OVERFLOW, DEFAULT_PERCENTILES.clone());
+
+    // 0 keeps every sample (exact percentiles); otherwise the relative error of the quantile sketches
+    private final double relativeError;
+    // 0 for whole-file totals only; otherwise the length of each time window, see TimeWindows
+    private final long windowSeconds;
+    private final int windowCount;
+    // Empty for whole-file totals only; otherwise the keys of a DimensionBreakdown, e.g. host
+    private final List<String> dimensions;
+    private final int maxGroups;
+    // How request URLs become routes, and how many routes the RouteTable keeps (0 for no limit)
+    private final RouteNormalizer routeNormalizer;
+    private final int maxRoutes;
+    private final RouteTable.Eviction routeEviction;
+    // The response time percentiles reported per route, and their JSON keys, e.g. 99.9_percentile
+    private final double[] percentiles;
+    private final String[] percentileKeys;
+
+    private AggregatorConfig(double relativeError, long windowSeconds, int windowCount,
+                             List<String> dimensions, int maxGroups,
+                             RouteNormalizer routeNormalizer, int maxRoutes, RouteTable.Eviction routeEviction,
+                             double[] percentiles) {
+        this.relativeError = relativeError;
+        this.windowSeconds = windowSeconds;
+        this.windowCount = windowCount;
+        this.dimensions = dimensions;
+        this.maxGroups = maxGroups;
+        this.routeNormalizer = routeNormalizer;
+        this.maxRoutes = maxRoutes;
+        this.routeEviction = routeEviction;
+        this.percentiles = percentiles;
+        this.percentileKeys = new String[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            percentileKeys[i] = BigDecimal.valueOf(percentiles[i]).stripTrailingZeros().toPlainString() + "_percentile";
+        }
+    }
+
+    public static AggregatorConfig exact() {
+        return DEFAULT;
+    }
+
+    // Percentiles come from fixed-size sketches whose estimates are within relativeError of the true value
+    public static AggregatorConfig approximate(double relativeError) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("relative error must be between 0 and 1 (exclusive): " + relativeError);
+        }
+        return DEFAULT.withRelativeError(relativeError);
+    }
+
+    // Same settings with exact percentiles (0) or sketches of the given relative error, e.g. as stored in a checkpoint
+    AggregatorConfig withRelativeError(double relativeError) {
+        return new AggregatorConfig(relativeError, windowSeconds, windowCount, dimensions, maxGroups,
+                routeNormalizer, maxRoutes, routeEviction, percentiles);
+    }
+
+    // Same percentiles, plus stats per time window of windowSeconds; only the newest windowCount windows are kept
+    public AggregatorConfig withWindows(long windowSeconds, int windowCount) {
+        if (windowSeconds <= 0 || windowCount <= 0) {
+            throw new IllegalArgumentException("window length and count must be positive");
+        }
+        return new AggregatorConfig(relativeError, windowSeconds, windowCount, dimensions, maxGroups,
+                routeNormalizer, maxRoutes, routeEviction, percentiles);
+    }
+
+    /**
+     * Same settings, plus stats per combination of the values of the given keys, e.g. {@code host}.
+     * At most maxGroups combinations get their own stats; later ones share an overflow group.
+     */
+    public AggregatorConfig withDimensions(List<String> dimensions, int maxGroups) {
+        if (dimensions.isEmpty() || dimensions.size() > DimensionBreakdown.MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("between 1 and " + DimensionBreakdown.MAX_DIMENSIONS
+                    + " dimensions are supported: " + dimensions);
+        }
+        if (maxGroups <= 0 || maxGroups > DimensionBreakdown.MAX_GROUPS) {
+            throw new IllegalArgumentException("maxGroups must be between 1 and " + DimensionBreakdown.MAX_GROUPS
+                    + ": " + maxGroups);
+        }
+        return new AggregatorConfig(relativeError, windowSeconds, windowCount, List.copyOf(dimensions), maxGroups,
+                routeNormalizer, maxRoutes, routeEviction, percentiles);
+    }
+
+    /**
+     * Same settings, with request URLs turned into routes by normalizer and at most maxRoutes routes
+     * (0 for no limit) kept according to eviction, see {@link RouteTable}.
+     */
+    public AggregatorConfig withRoutes(RouteNormalizer normalizer, int maxRoutes, RouteTable.Eviction eviction) {
+        if (maxRoutes < 0) {
+            throw new IllegalArgumentException("maxRoutes must not be negative: " + maxRoutes);
+        }
+        return new AggregatorConfig(relativeError, windowSeconds, windowCount, dimensions, maxGroups,
+                normalizer, maxRoutes, eviction, percentiles);
+    }
+
+    // Same settings, reporting these response time percentiles (each in (0, 100], no duplicates) for every route
+    public AggregatorConfig withPercentiles(double... percentiles) {
+        if (percentiles.length == 0) {
+            throw new IllegalArgumentException("at least one percentile is needed");
+        }
+        double[] sorted = percentiles.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            if (!(sorted[i] > 0 && sorted[i] <= 100)) {
+                throw new IllegalArgumentException("percentiles must be in (0, 100]: " + sorted[i]);
+            }
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("duplicate percentile: " + sorted[i]);
+            }
+        }
+        return new AggregatorConfig(relativeError, windowSeconds, windowCount, dimensions, maxGroups,
+                routeNormalizer, maxRoutes, routeEviction, percentiles.clone());
+    }
+
+    // The configuration of a single window's or group's aggregators: the same percentiles and routes, no breakdowns
+    public AggregatorConfig withoutBreakdowns() {
+        return hasWindows() || hasDimensions()
+                ? new AggregatorConfig(relativeError, 0, 0, List.of(), 0, routeNormalizer, maxRoutes, routeEviction,
+                        percentiles)
+                : this;
+    }
+
+    public boolean isApproximate() {
+        return relativeError > 0;
+    }
+
+    public double getRelativeError() {
+        return relativeError;
+    }
+
+    public boolean hasWindows() {
+        return windowSeconds > 0;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    public boolean hasDimensions() {
+        return !dimensions.isEmpty();
+    }
+
+    public List<String> getDimensions() {
+        return dimensions;
+    }
+
+    public int getMaxGroups() {
+        return maxGroups;
+    }
+
+    public RouteNormalizer getRouteNormalizer() {
+        return routeNormalizer;
+    }
+
+    public int getMaxRoutes() {
+        return maxRoutes;
+    }
+
+    public RouteTable.Eviction getRouteEviction() {
+        return routeEviction;
+    }
+
+    public double[] getPercentiles() {
+        return percentiles.clone();
+    }
+
+    // Shared, not copied: callers must not modify them
+    double[] percentileValues() {
+        return percentiles;
+    }
+
+    String[] percentileKeys() {
+        return percentileKeys;
+    }
+
+    // A new, empty sketch for one route or metric in approximate mode
+    QuantileSketch newSketch() {
+        return new QuantileSketch(relativeError);
+    }
+}
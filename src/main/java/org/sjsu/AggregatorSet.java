@@ -0,0 +1,193 @@
+package org.sjsu;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Groups one instance of each aggregator together with the handlers that feed them.
+ * Parallel ingestion gives every worker its own set (a shard) and merges them once parsing is done,
+ * see {@link MergeableAggregator}.
+ * When the configuration asks for time windows or dimensions, the lines are also aggregated per window
+ * ({@link TimeWindows}) or per group of dimension values ({@link DimensionBreakdown}).
+ */
+public class AggregatorSet implements MergeableAggregator<AggregatorSet> {
+    private final ApmAggregator apmAggregator;
+    private final ApplicationAggregator applicationAggregator;
+    private final RequestAggregator requestAggregator;
+    private final TimeWindows timeWindows; // null without time windows
+    private final DimensionBreakdown breakdown; // null without dimensions
+    private final AggregatorConfig config;
+
+    public AggregatorSet() {
+        this(AggregatorConfig.DEFAULT);
+    }
+
+    public AggregatorSet(AggregatorConfig config) {
+        this.config = config;
+        this.apmAggregator = new ApmAggregator(config);
+        this.applicationAggregator = new ApplicationAggregator();
+        this.requestAggregator = new RequestAggregator(config);
+        this.timeWindows = config.hasWindows() ? new TimeWindows(config) : null;
+        this.breakdown = config.hasDimensions() ? new DimensionBreakdown(config) : null;
+    }
+
+    // An empty set with the same configuration, for a worker to fill and merge back later
+    public AggregatorSet newShard() {
+        return new AggregatorSet(config);
+    }
+
+    public AggregatorConfig getConfig() {
+        return config;
+    }
+
+    public ApmAggregator getApmAggregator() {
+        return apmAggregator;
+    }
+
+    public ApplicationAggregator getApplicationAggregator() {
+        return applicationAggregator;
+    }
+
+    public RequestAggregator getRequestAggregator() {
+        return requestAggregator;
+    }
+
+    // The totals in Prometheus format; time windows and dimension groups are not included
+    void writePrometheus(PrometheusOutput out) {
+        apmAggregator.writePrometheus(out);
+        applicationAggregator.writePrometheus(out);
+        requestAggregator.writePrometheus(out);
+    }
+
+    // The per-window stats, or null if the configuration has no time windows
+    public TimeWindows getTimeWindows() {
+        return timeWindows;
+    }
+
+    // The per-group stats, or null if the configuration has no dimensions
+    public DimensionBreakdown getBreakdown() {
+        return breakdown;
+    }
+
+    // Builds the Chain of Responsibility: ApmLogHandler -> ApplicationLogHandler -> RequestLogHandler
+    public LogHandler buildChain() {
+        return buildChain(Diagnostics.console());
+    }
+
+    // Same chain, reporting malformed lines to diagnostics
+    public LogHandler buildChain(Diagnostics diagnostics) {
+        LogHandler apmHandler = newApmHandler(diagnostics);
+        LogHandler appHandler = new ApplicationLogHandler(applicationAggregator);
+        LogHandler reqHandler = newRequestHandler(diagnostics);
+
+        apmHandler.setNext(appHandler);
+        appHandler.setNext(reqHandler);
+        reqHandler.setNext(null);
+
+        List<FieldLogHandler> listeners = newListeners();
+        return listeners.isEmpty() ? apmHandler : new ListeningChain(apmHandler, reqHandler, listeners);
+    }
+
+    // Builds a dispatcher that sends each line straight to the handler its keys select
+    public LogDispatcher buildDispatcher() {
+        return buildDispatcher(Diagnostics.console());
+    }
+
+    // Same dispatcher, reporting malformed lines to diagnostics
+    public LogDispatcher buildDispatcher(Diagnostics diagnostics) {
+        LogDispatcher dispatcher = new LogDispatcher()
+                .register("metric", newApmHandler(diagnostics))
+                .register("level", new ApplicationLogHandler(applicationAggregator))
+                .register("request_url", newRequestHandler(diagnostics));
+        for (FieldLogHandler listener : newListeners()) {
+            dispatcher.addListener(listener);
+        }
+        return dispatcher;
+    }
+
+    // Handlers that aggregate each accepted line a second time, per time window or dimension group
+    private List<FieldLogHandler> newListeners() {
+        List<FieldLogHandler> listeners = new ArrayList<>(2);
+        if (timeWindows != null) {
+            listeners.add(timeWindows.newHandler());
+        }
+        if (breakdown != null) {
+            listeners.add(breakdown.newHandler());
+        }
+        return listeners;
+    }
+
+    private ApmLogHandler newApmHandler(Diagnostics diagnostics) {
+        ApmLogHandler handler = new ApmLogHandler(apmAggregator);
+        handler.setDiagnostics(diagnostics);
+        return handler;
+    }
+
+    private RequestLogHandler newRequestHandler(Diagnostics diagnostics) {
+        RequestLogHandler handler = new RequestLogHandler(requestAggregator);
+        handler.setDiagnostics(diagnostics);
+        return handler;
+    }
+
+    // Binary state of all three aggregators, see Checkpoint; time windows and dimension groups are not part of it
+    public void writeState(DataOutput out) throws IOException {
+        apmAggregator.writeState(out);
+        applicationAggregator.writeState(out);
+        requestAggregator.writeState(out);
+    }
+
+    // Merges state written by writeState into this set; the writer must have used the same configuration
+    public void readState(DataInput in) throws IOException {
+        apmAggregator.readState(in);
+        applicationAggregator.readState(in);
+        requestAggregator.readState(in);
+    }
+
+    // Folds another set's data into this one
+    @Override
+    public void merge(AggregatorSet other) {
+        this.apmAggregator.merge(other.apmAggregator);
+        this.applicationAggregator.merge(other.applicationAggregator);
+        this.requestAggregator.merge(other.requestAggregator);
+        if (this.timeWindows != null) {
+            this.timeWindows.merge(other.timeWindows);
+        }
+        if (this.breakdown != null) {
+            this.breakdown.merge(other.breakdown);
+        }
+    }
+
+    // The chain, then the listeners for each line the chain accepted; the line is tokenized again for them
+    private static class ListeningChain implements LogHandler {
+        private final LogHandler first;
+        private final LogHandler last;
+        private final List<FieldLogHandler> listeners;
+        private final LogLineTokenizer tokenizer = new LogLineTokenizer();
+
+        ListeningChain(LogHandler first, LogHandler last, List<FieldLogHandler> listeners) {
+            this.first = first;
+            this.last = last;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void setNext(LogHandler nextHandler) {
+            last.setNext(nextHandler);
+        }
+
+        @Override
+        public boolean handle(String logLine) {
+            if (!first.handle(logLine)) {
+                return false;
+            }
+            tokenizer.reset(logLine);
+            for (FieldLogHandler listener : listeners) {
+                listener.handleFields(tokenizer);
+            }
+            return true;
+        }
+    }
+}
@@ -1,59 +1,103 @@
 package org.sjsu;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
-public class ApmAggregator {
-    private final Map<String, List<Double>> apmMetrics;
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create(); // Pretty printing version
+public class ApmAggregator implements MergeableAggregator<ApmAggregator> {
+    private final Map<String, ApmMetricStats> apmMetrics;
+    private final AggregatorConfig config;
 
     public ApmAggregator(){
-        this.apmMetrics = new HashMap<>();
+        this(AggregatorConfig.DEFAULT);
+    }
 
+    public ApmAggregator(AggregatorConfig config) {
+        this.apmMetrics = new HashMap<>();
+        this.config = config;
     }
+
     // Methods for Handlers to Add Data
     public void addApmMetric(String metricName, double value) {
-        this.apmMetrics.computeIfAbsent(metricName, k -> new ArrayList<>()).add(value);
+        this.apmMetrics.computeIfAbsent(metricName, k -> new ApmMetricStats(config)).add(value);
+    }
+
+    // Combines the running stats collected by another aggregator (e.g. a parallel worker's shard)
+    @Override
+    public void merge(ApmAggregator other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        for (Map.Entry<String, ApmMetricStats> entry : other.apmMetrics.entrySet()) {
+            this.apmMetrics.computeIfAbsent(entry.getKey(), k -> new ApmMetricStats(config)).merge(entry.getValue());
+        }
+    }
+
+    // Binary state for checkpoints: the number of metrics, then each name and its stats
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(apmMetrics.size());
+        for (Map.Entry<String, ApmMetricStats> entry : apmMetrics.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeState(out);
+        }
     }
 
+    // Merges state written by writeState into this aggregator
+    void readState(DataInput in) throws IOException {
+        int metrics = in.readInt();
+        for (int i = 0; i < metrics; i++) {
+            apmMetrics.computeIfAbsent(in.readUTF(), k -> new ApmMetricStats(config)).readState(in);
+        }
+    }
 
     // --- Methods for Final Aggregation & JSON Generation ---
 
     public String getApmJson() {
-        Map<String, Map<String, Object>> apmResults = new HashMap<>();
-        for (Map.Entry<String, List<Double>> entry : apmMetrics.entrySet()) {
-            String metricName = entry.getKey();
-            List<Double> values = entry.getValue();
-            if (values == null || values.isEmpty()) {
-                continue;
-            }
-
-            Collections.sort(values);
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("minimum", values.get(0));
-            stats.put("max", values.get(values.size() - 1));
-
-            double sum = 0;
-            for (double v : values) {
-                sum += v;
-            }
-            // Use Double division for average
-            stats.put("average", values.isEmpty() ? 0.0 : sum / values.size());
-
-            double median;
-            int size = values.size();
-            if (size % 2 == 0) {
-                median = (values.get(size / 2 - 1) + values.get(size / 2)) / 2.0;
-            } else {
-                median = values.get(size / 2);
-            }
-            stats.put("median", median);
-
-            apmResults.put(metricName, stats);
-        }
-        return gson.toJson(apmResults);
+        return JsonOutput.toJson(this::writeApmJson);
+    }
+
+    // Streams apm.json, finalizing a chunk of metrics at a time
+    void writeApmJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        JsonOutput.writeSorted(out, apmMetrics, metric -> metric.getCount() > 0 ? metricResults(metric) : null);
+        out.endObject();
+    }
+
+    // Writes the running counters of every metric; the median is left out as it would need a pass over the samples
+    void writePrometheus(PrometheusOutput out) {
+        Map<String, ApmMetricStats> metrics = new TreeMap<>(apmMetrics);
+        metrics.values().removeIf(metric -> metric.getCount() == 0);
+        out.family("apm_values_total", "counter", "APM metric values read.");
+        metrics.forEach((name, metric) -> out.sample("apm_values_total", metric.getCount(), "metric", name));
+        out.family("apm_value_minimum", "gauge", "Lowest value of each APM metric.");
+        metrics.forEach((name, metric) -> out.sample("apm_value_minimum", metric.getMin(), "metric", name));
+        out.family("apm_value_max", "gauge", "Highest value of each APM metric.");
+        metrics.forEach((name, metric) -> out.sample("apm_value_max", metric.getMax(), "metric", name));
+        out.family("apm_value_average", "gauge", "Average value of each APM metric.");
+        metrics.forEach((name, metric) -> out.sample("apm_value_average", metric.getAverage(), "metric", name));
+    }
+
+    // The content of apm.json, also used for each time window
+    Map<String, Map<String, Object>> getApmResults() {
+        // Every metric selects its median over its own samples, so they are finalized in parallel, on the
+        // ForkJoinPool running the caller or the common pool. TreeMap keeps the key order independent of that
+        return new ArrayList<>(apmMetrics.entrySet()).parallelStream()
+                .filter(entry -> entry.getValue().getCount() > 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> metricResults(entry.getValue()),
+                        (a, b) -> a, TreeMap::new));
+    }
+
+    private static Map<String, Object> metricResults(ApmMetricStats metric) {
+        // Minimum, max and average are kept up to date on insert; only the median needs the samples
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("minimum", metric.getMin());
+        stats.put("max", metric.getMax());
+        stats.put("average", metric.getAverage());
+        stats.put("median", metric.getMedian());
+        return stats;
     }
 }
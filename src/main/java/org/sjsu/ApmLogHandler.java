@@ -1,22 +1,25 @@
 package org.sjsu;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class ApmLogHandler implements LogHandler {
+public class ApmLogHandler implements LogHandler, FieldLogHandler {
 
     private LogHandler nextHandler;
     private final ApmAggregator apmAggregator; // Store its specific aggregator
 
-    private static final Pattern APM_PATTERN = Pattern.compile(
-            ".*?\\bmetric=([^\\s]+).*?\\bvalue=(\\d+(\\.\\d+)?)\\b.*"
-    );
+    private final LogLineTokenizer tokenizer = new LogLineTokenizer(); // Reused for every line
+    // Canonical metric names, so a known name is neither copied out of the line nor re-hashed by the aggregator
+    private final SymbolTable metricNames = new SymbolTable(SymbolTable.DEFAULT_CACHE_LIMIT);
+    private Diagnostics diagnostics = Diagnostics.console();
 
     // Constructor to inject the ApmAggregator
     public ApmLogHandler(ApmAggregator apmAggregator) {
         this.apmAggregator = apmAggregator;
     }
 
+    // Where values that cannot be parsed are reported
+    public void setDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
     @Override
     public void setNext(LogHandler nextHandler) {
         this.nextHandler = nextHandler;
@@ -24,23 +27,32 @@ public class ApmLogHandler implements LogHandler {
 
     @Override
     public boolean handle(String logLine) { // Signature changed
-        Matcher matcher = APM_PATTERN.matcher(logLine);
-
-        if (matcher.matches()) {
-            String metricName = matcher.group(1);
-            String valueString = matcher.group(2);
-            try {
-                double value = Double.parseDouble(valueString);
-                this.apmAggregator.addApmMetric(metricName, value);
-                return true; // Line handled by this handler
-            } catch (NumberFormatException e) {
-                System.err.println("APM Handler: Could not parse value '" + valueString + "' in line: " + logLine);
-                // Return false as it wasn't successfully handled for aggregation
-                return false;
-            }
+        if (handleFields(tokenizer.reset(logLine))) {
+            return true; // Line handled by this handler
         } else if (nextHandler != null) {
             return nextHandler.handle(logLine);
         }
         return false; // Not handled by this handler or any subsequent one in its path
     }
+
+    @Override
+    public boolean handleFields(LogLineTokenizer fields) {
+        int metricField = fields.indexOf("metric");
+        int valueField = fields.indexOf("value");
+
+        // Needs a non-empty metric name and a value of the form 123 or 123.45
+        if (metricField < 0 || fields.valueLength(metricField) == 0
+                || valueField < 0 || !fields.isDecimal(valueField)) {
+            return false;
+        }
+        try {
+            double value = fields.parseDouble(valueField);
+            this.apmAggregator.addApmMetric(fields.value(metricField, metricNames), value);
+            return true;
+        } catch (NumberFormatException e) {
+            diagnostics.malformed("APM", "Could not parse value '" + fields.value(valueField) + "'", fields.line().toString());
+            // Return false as it wasn't successfully handled for aggregation
+            return false;
+        }
+    }
 }
\ No newline at end of file
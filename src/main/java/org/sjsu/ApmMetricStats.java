@@ -0,0 +1,142 @@
+package org.sjsu;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running statistics for one APM metric.
+ * Minimum, max and average come from running counters and need no stored samples. The median comes from
+ * a {@code double[]} with O(n) selection in exact mode, or from a fixed-size {@link QuantileSketch}
+ * in approximate mode.
+ */
+public class ApmMetricStats implements MergeableAggregator<ApmMetricStats> {
+
+    private final DoubleArrayBuffer samples;  // exact mode only
+    private final QuantileSketch sketch;      // approximate mode only
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    // Neumaier-compensated sum keeps the average accurate however values are ordered or merged
+    private double sum;
+    private double sumCompensation;
+
+    public ApmMetricStats(AggregatorConfig config) {
+        this.sketch = config.isApproximate() ? config.newSketch() : null;
+        this.samples = config.isApproximate() ? null : new DoubleArrayBuffer();
+    }
+
+    public void add(double value) {
+        if (sketch != null) {
+            sketch.add(value); // Rejects negative values
+        } else {
+            samples.add(value);
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        addToSum(value);
+    }
+
+    @Override
+    public void merge(ApmMetricStats other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        if ((this.sketch == null) != (other.sketch == null)) {
+            throw new IllegalArgumentException("Cannot merge exact and approximate metric stats");
+        }
+        if (sketch != null) {
+            sketch.merge(other.sketch);
+        } else {
+            samples.addAll(other.samples);
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        addToSum(other.sum);
+        addToSum(other.sumCompensation);
+    }
+
+    // Binary state for checkpoints; readState merges it into this instance, so both must use the same mode
+    void writeState(DataOutput out) throws IOException {
+        out.writeBoolean(sketch != null);
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeDouble(sum);
+        out.writeDouble(sumCompensation);
+        if (sketch != null) {
+            sketch.writeState(out);
+        } else {
+            samples.writeState(out);
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        boolean approximate = in.readBoolean();
+        if (approximate != (sketch != null)) {
+            throw new IOException("Stored metric stats are " + (approximate ? "approximate" : "exact")
+                    + " but the aggregator is not");
+        }
+        count += in.readLong();
+        min = Math.min(min, in.readDouble());
+        max = Math.max(max, in.readDouble());
+        addToSum(in.readDouble());
+        addToSum(in.readDouble());
+        if (sketch != null) {
+            try {
+                sketch.merge(QuantileSketch.readState(in));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        } else {
+            samples.readState(in);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0.0 : (sum + sumCompensation) / count;
+    }
+
+    public double getMedian() {
+        if (count == 0) {
+            return 0.0;
+        }
+        if (sketch != null) {
+            return Math.max(min, Math.min(max, sketch.quantile(0.5)));
+        }
+        double[] values = samples.array();
+        int size = samples.size();
+        int upper = size / 2;
+        double upperMiddle = Selection.select(values, 0, size, upper);
+        if (size % 2 != 0) {
+            return upperMiddle;
+        }
+        // select() left everything before 'upper' not greater than it, so the lower middle is their max
+        return (Selection.max(values, 0, upper) + upperMiddle) / 2.0;
+    }
+
+    private void addToSum(double value) {
+        double t = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            sumCompensation += (sum - t) + value;
+        } else {
+            sumCompensation += (value - t) + sum;
+        }
+        sum = t;
+    }
+}
@@ -1,14 +1,18 @@
 package org.sjsu;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
-public class ApplicationAggregator {
+public class ApplicationAggregator implements MergeableAggregator<ApplicationAggregator> {
+    // Counts of the known levels by LogLevel ordinal; any other level name goes to the map
+    private final long[] levelCounts = new long[LogLevel.COUNT];
     private final Map<String, Integer> appLogLevelCounts;
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create(); // Pretty printing version
 
     ApplicationAggregator(){
         this.appLogLevelCounts = new HashMap<>();
@@ -18,12 +22,92 @@ public class ApplicationAggregator {
 
     // Methods for Handlers to Add Data
     public void incrementLogLevelCount(String level) {
-        this.appLogLevelCounts.put(level, this.appLogLevelCounts.getOrDefault(level, 0) + 1);
+        LogLevel knownLevel = LogLevel.of(level);
+        if (knownLevel != null) {
+            incrementLogLevelCount(knownLevel);
+        } else {
+            this.appLogLevelCounts.put(level, this.appLogLevelCounts.getOrDefault(level, 0) + 1);
+        }
+    }
+
+    public void incrementLogLevelCount(LogLevel level) {
+        this.levelCounts[level.ordinal()]++;
+    }
+
+    @Override
+    public void merge(ApplicationAggregator other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        for (int i = 0; i < levelCounts.length; i++) {
+            this.levelCounts[i] += other.levelCounts[i];
+        }
+        for (Map.Entry<String, Integer> entry : other.appLogLevelCounts.entrySet()) {
+            this.appLogLevelCounts.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    // Binary state for checkpoints: the number of levels, then each level and its count.
+    // The raw long counters are written, so totals past Integer.MAX_VALUE survive a checkpoint
+    void writeState(DataOutput out) throws IOException {
+        int known = 0;
+        for (long count : levelCounts) {
+            if (count > 0) {
+                known++;
+            }
+        }
+        out.writeInt(known + appLogLevelCounts.size());
+        for (int i = 0; i < levelCounts.length; i++) {
+            if (levelCounts[i] > 0) {
+                out.writeUTF(LogLevel.ofOrdinal(i).name());
+                out.writeLong(levelCounts[i]);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : appLogLevelCounts.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    // Merges state written by writeState into this aggregator
+    void readState(DataInput in) throws IOException {
+        int levels = in.readInt();
+        for (int i = 0; i < levels; i++) {
+            String level = in.readUTF();
+            long count = in.readLong();
+            LogLevel knownLevel = LogLevel.of(level);
+            if (knownLevel != null) {
+                levelCounts[knownLevel.ordinal()] += count;
+            } else {
+                appLogLevelCounts.merge(level, (int) Math.min(count, Integer.MAX_VALUE), Integer::sum);
+            }
+        }
     }
 
     // --- Methods for Final Aggregation & JSON Generation ---
 
     public String getApplicationJson() {
-        return gson.toJson(this.appLogLevelCounts);
+        return JsonOutput.toJson(this::writeApplicationJson);
+    }
+
+    void writeApplicationJson(JsonWriter out) throws IOException {
+        JsonOutput.writeValue(out, getLevelCounts());
+    }
+
+    void writePrometheus(PrometheusOutput out) {
+        out.family("application_logs_total", "counter", "Application log lines by level.");
+        getLevelCounts().forEach((level, count) -> out.sample("application_logs_total", count, "level", level));
+    }
+
+    // The content of application.json, also used for each time window
+    Map<String, Integer> getLevelCounts() {
+        Map<String, Integer> counts = new TreeMap<>(this.appLogLevelCounts);
+        for (int i = 0; i < levelCounts.length; i++) {
+            if (levelCounts[i] > 0) {
+                // The JSON keeps int counts; saturate rather than wrap on absurdly large totals
+                counts.put(LogLevel.ofOrdinal(i).name(), (int) Math.min(levelCounts[i], Integer.MAX_VALUE));
+            }
+        }
+        return counts;
     }
 }
@@ -1,14 +1,11 @@
 package org.sjsu;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class ApplicationLogHandler implements LogHandler {
+public class ApplicationLogHandler implements LogHandler, FieldLogHandler {
 
     private LogHandler nextHandler;
     private final ApplicationAggregator applicationAggregator; // Store its specific aggregator
 
-    private static final Pattern APP_LOG_PATTERN = Pattern.compile(".*?\\blevel=([^\\s]+)\\b.*");
+    private final LogLineTokenizer tokenizer = new LogLineTokenizer(); // Reused for every line
 
     // Constructor to inject the ApplicationAggregator
     public ApplicationLogHandler(ApplicationAggregator applicationAggregator) {
@@ -22,20 +19,25 @@ public class ApplicationLogHandler implements LogHandler {
 
     @Override
     public boolean handle(String logLine) { // Signature changed
-        Matcher matcher = APP_LOG_PATTERN.matcher(logLine);
-
-        if (matcher.matches()) {
-            String level = matcher.group(1).toUpperCase();
-            if ("INFO".equals(level) || "ERROR".equals(level) || "WARNING".equals(level) || "DEBUG".equals(level) || "TRACE".equals(level)) {
-                this.applicationAggregator.incrementLogLevelCount(level);
-                return true; // Line handled by this handler
-            }
-
-        }
-
-        if (nextHandler != null) {
+        if (handleFields(tokenizer.reset(logLine))) {
+            return true; // Line handled by this handler
+        } else if (nextHandler != null) {
             return nextHandler.handle(logLine);
         }
         return false; // Not handled by this handler or any subsequent one
     }
+
+    @Override
+    public boolean handleFields(LogLineTokenizer fields) {
+        int levelField = fields.indexOf("level");
+        if (levelField < 0) {
+            return false;
+        }
+        LogLevel level = LogLevel.parse(fields, levelField); // Case-insensitive, no toUpperCase() copy
+        if (level == null) {
+            return false; // Unknown level
+        }
+        this.applicationAggregator.incrementLogLevelCount(level); // Indexes the counts by ordinal, no String lookup
+        return true;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package org.sjsu;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * How far a log file has been processed, plus the aggregated state up to that point, so a later run can
+ * parse only the lines appended since.
+ * <p>
+ * The input is identified by a CRC of its first {@value #FINGERPRINT_BYTES} bytes (or fewer, if the
+ * checkpoint was taken earlier): appending keeps them, while rotating or rewriting the file changes them.
+ * The file is binary: magic, version, offset, line count, fingerprint, relative error of the
+ * {@link AggregatorConfig}, then {@link AggregatorSet#writeState}.
+ */
+public final class Checkpoint {
+
+    static final int FINGERPRINT_BYTES = 4096;
+    private static final int MAGIC = 0x4C43_4B50; // "LCKP"
+    private static final int VERSION = 4; // 2: evicted route count, 3: response time sum, 4: long level counts
+
+    private final long offset;
+    private final long lineCount;
+    private final int fingerprintLength;
+    private final long fingerprint;
+    private final AggregatorSet aggregators;
+
+    private Checkpoint(long offset, long lineCount, int fingerprintLength, long fingerprint, AggregatorSet aggregators) {
+        this.offset = offset;
+        this.lineCount = lineCount;
+        this.fingerprintLength = fingerprintLength;
+        this.fingerprint = fingerprint;
+        this.aggregators = aggregators;
+    }
+
+    // State after processing input up to byte offset, which must be the start of a line
+    public static Checkpoint capture(Path input, long offset, long lineCount, AggregatorSet aggregators) throws IOException {
+        if (aggregators.getTimeWindows() != null || aggregators.getBreakdown() != null) {
+            throw new IllegalArgumentException("time windows and dimension groups are not part of a checkpoint");
+        }
+        int length = (int) Math.min(FINGERPRINT_BYTES, offset);
+        return new Checkpoint(offset, lineCount, length, fingerprint(input, length), aggregators);
+    }
+
+    public static Checkpoint read(Path path) throws IOException {
+        return read(path, AggregatorConfig.DEFAULT);
+    }
+
+    // The stored relative error decides the percentiles; the other settings, e.g. routes, come from settings
+    public static Checkpoint read(Path path, AggregatorConfig settings) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(path + " is not a checkpoint file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + " in " + path);
+            }
+            long offset = in.readLong();
+            long lineCount = in.readLong();
+            int fingerprintLength = in.readInt();
+            long fingerprint = in.readLong();
+            double relativeError = in.readDouble();
+            if (relativeError != 0 && !(relativeError > 0 && relativeError < 1)) {
+                throw new IOException("Corrupt checkpoint " + path);
+            }
+            AggregatorSet aggregators = new AggregatorSet(settings.withoutBreakdowns().withRelativeError(relativeError));
+            aggregators.readState(in);
+            if (offset < 0 || lineCount < 0 || fingerprintLength < 0 || fingerprintLength > FINGERPRINT_BYTES
+                    || in.read() != -1) {
+                throw new IOException("Corrupt checkpoint " + path);
+            }
+            return new Checkpoint(offset, lineCount, fingerprintLength, fingerprint, aggregators);
+        } catch (EOFException e) {
+            throw new IOException("Truncated checkpoint " + path, e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt checkpoint " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Written to a temporary file and renamed, so a crash mid-write leaves the previous checkpoint intact
+    public void write(Path path) throws IOException {
+        OutputWriter.writeAtomically(path, stream -> {
+            // Streamed: an exact-mode state can be larger than a byte array can hold
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(offset);
+            out.writeLong(lineCount);
+            out.writeInt(fingerprintLength);
+            out.writeLong(fingerprint);
+            out.writeDouble(aggregators.getConfig().getRelativeError());
+            aggregators.writeState(out);
+            out.flush();
+        });
+    }
+
+    // True if input still starts with the content this checkpoint was taken from and has not shrunk
+    public boolean matches(Path input) throws IOException {
+        return Files.size(input) >= offset && fingerprint(input, fingerprintLength) == fingerprint;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public AggregatorSet getAggregators() {
+        return aggregators;
+    }
+
+    private static long fingerprint(Path input, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until length bytes or end of file
+            }
+            buffer.flip();
+            crc.update(buffer);
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,344 @@
+package org.sjsu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The options of a run over log files, parsed and checked against each other. Parsing stops the JVM with
+ * an error message on a bad value or combination, like the rest of {@link Main}; the aggregation options
+ * are folded into {@link #config}.
+ */
+class CommandLineOptions {
+
+    static final String USAGE = "Use --file <filename.txt|directory|glob> (repeatable)\n"
+            + "   [--parallel [--threads <n>]] [--chain] [--approximate <relative-error>]\n"
+            + "   [--follow [--snapshot-interval <seconds>] [--metrics-port <port>]] [--checkpoint <file> [--resume]]\n"
+            + "   [--pipeline [--parsers <n>] [--batch-size <lines>] [--queue-capacity <batches>]]\n"
+            + "   [--window <1m|5m|1h> [--window-count <n>]] [--by <key>[,<key>...] [--max-groups <n>]]\n"
+            + "   [--normalize-routes] [--route-template <pattern>] [--max-routes <n> [--route-eviction overflow|lru|lfu]]\n"
+            + "   [--percentiles <p>[,<p>...]] [--finalize-threads <n>] [--compact] [--dump-state <file>]\n"
+            + "   [--workers <n> [--worker-heap <size>]]\n"
+            + "   [--diagnostics <file>] [--sample-limit <n>] [--console-rate <messages/sec>]\n"
+            + "or: merge " + Main.MERGE_USAGE;
+
+    final List<String> fileArguments = new ArrayList<>();
+    boolean parallel;
+    boolean chainMode;
+    boolean follow;
+    int snapshotIntervalSeconds = 10;
+    int metricsPort; // 0 for no metrics endpoint
+    String checkpointFileName;
+    boolean resume;
+    boolean pipeline;
+    int parsers = Runtime.getRuntime().availableProcessors();
+    int batchSize = PipelineProcessor.DEFAULT_BATCH_SIZE;
+    int queueCapacity = PipelineProcessor.DEFAULT_QUEUE_CAPACITY;
+    AggregatorConfig config = AggregatorConfig.DEFAULT;
+    int threads = Runtime.getRuntime().availableProcessors();
+    String diagnosticsFileName = "diagnostics.log";
+    int sampleLimit = 1000;
+    int consoleRate = 10;
+    int finalizeThreads; // 0 for the common pool
+    boolean compact;
+    String dumpStateFileName;
+    int workers; // 0 to parse in this JVM
+    String workerHeap;
+    long[] range; // Set in a worker started by --workers
+
+    // Folded into config once every flag is read
+    private long windowSeconds;
+    private int windowCount = 1440;
+    private List<String> dimensions = new ArrayList<>();
+    private int maxGroups = 1000;
+    private boolean normalizeRoutes;
+    private final List<String> routeTemplates = new ArrayList<>();
+    private int maxRoutes;
+    private RouteTable.Eviction routeEviction = RouteTable.Eviction.OVERFLOW;
+    private double[] percentiles;
+
+    private CommandLineOptions() {
+    }
+
+    static CommandLineOptions parse(String[] args) {
+        CommandLineOptions options = new CommandLineOptions();
+        options.read(args);
+        options.check();
+        options.buildConfig();
+        return options;
+    }
+
+    private void read(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if ("--file".equals(args[i]) && i + 1 < args.length) {
+                fileArguments.add(args[++i]);
+            } else if ("--parallel".equals(args[i])) {
+                parallel = true;
+            } else if ("--chain".equals(args[i])) {
+                chainMode = true;
+            } else if ("--approximate".equals(args[i]) && i + 1 < args.length) {
+                config = parseApproximate(args[++i]);
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = parsePositiveInt("--threads", args[++i]);
+            } else if ("--follow".equals(args[i])) {
+                follow = true;
+            } else if ("--snapshot-interval".equals(args[i]) && i + 1 < args.length) {
+                snapshotIntervalSeconds = parsePositiveInt("--snapshot-interval", args[++i]);
+            } else if ("--metrics-port".equals(args[i]) && i + 1 < args.length) {
+                metricsPort = parsePort("--metrics-port", args[++i]);
+            } else if ("--checkpoint".equals(args[i]) && i + 1 < args.length) {
+                checkpointFileName = args[++i];
+            } else if ("--resume".equals(args[i])) {
+                resume = true;
+            } else if ("--pipeline".equals(args[i])) {
+                pipeline = true;
+            } else if ("--parsers".equals(args[i]) && i + 1 < args.length) {
+                parsers = parsePositiveInt("--parsers", args[++i]);
+            } else if ("--batch-size".equals(args[i]) && i + 1 < args.length) {
+                batchSize = parsePositiveInt("--batch-size", args[++i]);
+            } else if ("--queue-capacity".equals(args[i]) && i + 1 < args.length) {
+                queueCapacity = parsePositiveInt("--queue-capacity", args[++i]);
+            } else if ("--window".equals(args[i]) && i + 1 < args.length) {
+                windowSeconds = parseWindow(args[++i]);
+            } else if ("--window-count".equals(args[i]) && i + 1 < args.length) {
+                windowCount = parsePositiveInt("--window-count", args[++i]);
+            } else if ("--by".equals(args[i]) && i + 1 < args.length) {
+                dimensions = parseDimensions(args[++i]);
+            } else if ("--max-groups".equals(args[i]) && i + 1 < args.length) {
+                maxGroups = parsePositiveInt("--max-groups", args[++i]);
+            } else if ("--normalize-routes".equals(args[i])) {
+                normalizeRoutes = true;
+            } else if ("--route-template".equals(args[i]) && i + 1 < args.length) {
+                routeTemplates.add(args[++i]);
+            } else if ("--max-routes".equals(args[i]) && i + 1 < args.length) {
+                maxRoutes = parsePositiveInt("--max-routes", args[++i]);
+            } else if ("--route-eviction".equals(args[i]) && i + 1 < args.length) {
+                routeEviction = parseRouteEviction(args[++i]);
+            } else if ("--percentiles".equals(args[i]) && i + 1 < args.length) {
+                percentiles = parsePercentiles(args[++i]);
+            } else if ("--dump-state".equals(args[i]) && i + 1 < args.length) {
+                dumpStateFileName = args[++i];
+            } else if ("--workers".equals(args[i]) && i + 1 < args.length) {
+                workers = parsePositiveInt("--workers", args[++i]);
+            } else if ("--worker-heap".equals(args[i]) && i + 1 < args.length) {
+                workerHeap = args[++i];
+            } else if ("--range".equals(args[i]) && i + 1 < args.length) {
+                range = parseRange(args[++i]);
+            } else if ("--compact".equals(args[i])) {
+                compact = true;
+            } else if ("--finalize-threads".equals(args[i]) && i + 1 < args.length) {
+                finalizeThreads = parsePositiveInt("--finalize-threads", args[++i]);
+            } else if ("--diagnostics".equals(args[i]) && i + 1 < args.length) {
+                diagnosticsFileName = args[++i];
+            } else if ("--sample-limit".equals(args[i]) && i + 1 < args.length) {
+                sampleLimit = parseNonNegativeInt("--sample-limit", args[++i]);
+            } else if ("--console-rate".equals(args[i]) && i + 1 < args.length) {
+                consoleRate = parseNonNegativeInt("--console-rate", args[++i]);
+            }
+        }
+    }
+
+    // Options that cannot work together
+    private void check() {
+        if (fileArguments.isEmpty()) {
+            System.err.println("Error: Input file not specified. " + USAGE);
+            System.exit(1);
+        }
+        if (resume && checkpointFileName == null) {
+            System.err.println("Error: --resume needs --checkpoint <file> to resume from");
+            System.exit(1);
+        }
+        if (pipeline && (parallel || follow || checkpointFileName != null)) {
+            System.err.println("Error: --pipeline cannot be combined with --parallel, --follow or --checkpoint");
+            System.exit(1);
+        }
+        if ((windowSeconds > 0 || !dimensions.isEmpty()) && (checkpointFileName != null || dumpStateFileName != null)) {
+            System.err.println("Error: --window and --by cannot be combined with --checkpoint or --dump-state");
+            System.exit(1);
+        }
+        if ((workers > 0 || range != null) && (follow || pipeline || checkpointFileName != null
+                || windowSeconds > 0 || !dimensions.isEmpty())) {
+            System.err.println("Error: --workers cannot be combined with --follow, --pipeline, --checkpoint, --window or --by");
+            System.exit(1);
+        }
+        if (range != null && dumpStateFileName == null) {
+            System.err.println("Error: --range is for worker processes and needs --dump-state <file>");
+            System.exit(1);
+        }
+        if (follow && (checkpointFileName != null || dumpStateFileName != null)) {
+            System.err.println("Error: --checkpoint and --dump-state cannot be combined with --follow");
+            System.exit(1);
+        }
+        if (metricsPort > 0 && !follow) {
+            System.err.println("Error: --metrics-port serves the live totals of --follow and needs it");
+            System.exit(1);
+        }
+        if (follow && parallel) {
+            System.err.println("Error: --follow reads the file as it grows and cannot be combined with --parallel");
+            System.exit(1);
+        }
+        if (!dimensions.isEmpty() && maxGroups > DimensionBreakdown.MAX_GROUPS) {
+            System.err.println("Error: --max-groups cannot be larger than " + DimensionBreakdown.MAX_GROUPS);
+            System.exit(1);
+        }
+    }
+
+    private void buildConfig() {
+        if (follow && !config.isApproximate()) {
+            // Exact percentiles go over every sample on each snapshot; sketches keep snapshots cheap
+            config = AggregatorConfig.approximate(QuantileSketch.DEFAULT_RELATIVE_ERROR);
+        }
+        if (windowSeconds > 0) {
+            config = config.withWindows(windowSeconds, windowCount);
+        }
+        if (!dimensions.isEmpty()) {
+            config = config.withDimensions(dimensions, maxGroups);
+        }
+        if (normalizeRoutes || !routeTemplates.isEmpty() || maxRoutes > 0) {
+            config = config.withRoutes(routeNormalizer(normalizeRoutes, routeTemplates), maxRoutes, routeEviction);
+        }
+        if (percentiles != null) {
+            config = config.withPercentiles(percentiles);
+        }
+    }
+
+    static int parsePositiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        System.err.println("Error: " + option + " expects a positive integer but got '" + value + "'");
+        System.exit(1);
+        return -1; // unreachable
+    }
+
+    private static int parsePort(String option, String value) {
+        int port = parsePositiveInt(option, value);
+        if (port > 65535) {
+            System.err.println("Error: " + option + " expects a port number up to 65535 but got '" + value + "'");
+            System.exit(1);
+        }
+        return port;
+    }
+
+    private static int parseNonNegativeInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        System.err.println("Error: " + option + " expects a non-negative integer but got '" + value + "'");
+        System.exit(1);
+        return -1; // unreachable
+    }
+
+    private static RouteNormalizer routeNormalizer(boolean normalizeRoutes, List<String> routeTemplates) {
+        if (routeTemplates.isEmpty()) {
+            return normalizeRoutes ? RouteNormalizer.templated() : RouteNormalizer.RAW;
+        }
+        try {
+            return RouteNormalizer.templated(routeTemplates);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: --route-template " + e.getMessage());
+            System.exit(1);
+            return null; // unreachable
+        }
+    }
+
+    private static RouteTable.Eviction parseRouteEviction(String value) {
+        try {
+            return RouteTable.Eviction.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: --route-eviction expects overflow, lru or lfu but got '" + value + "'");
+            System.exit(1);
+            return null; // unreachable
+        }
+    }
+
+    // A byte range start:end, as passed to the workers of a --workers run
+    private static long[] parseRange(String value) {
+        int colon = value.indexOf(':');
+        try {
+            long start = Long.parseLong(value.substring(0, Math.max(colon, 0)));
+            long end = Long.parseLong(value.substring(colon + 1));
+            if (colon > 0 && start >= 0 && end >= start) {
+                return new long[]{start, end};
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        System.err.println("Error: --range expects <start>:<end> byte offsets but got '" + value + "'");
+        System.exit(1);
+        return null; // unreachable
+    }
+
+    // Comma-separated percentiles such as 50,75,99.9
+    static double[] parsePercentiles(String value) {
+        String[] parts = value.split(",");
+        double[] percentiles = new double[parts.length];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                percentiles[i] = Double.parseDouble(parts[i].trim());
+            }
+            AggregatorConfig.DEFAULT.withPercentiles(percentiles); // Validates them
+            return percentiles;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: --percentiles expects comma-separated values in (0, 100] without duplicates,"
+                    + " e.g. 50,99.9, but got '" + value + "'");
+            System.exit(1);
+            return null; // unreachable
+        }
+    }
+
+    // Comma-separated keys such as host,request_method
+    private static List<String> parseDimensions(String value) {
+        List<String> keys = new ArrayList<>();
+        for (String key : value.split(",")) {
+            if (!key.trim().isEmpty() && !keys.contains(key.trim())) {
+                keys.add(key.trim());
+            }
+        }
+        if (keys.isEmpty() || keys.size() > DimensionBreakdown.MAX_DIMENSIONS) {
+            System.err.println("Error: --by expects 1 to " + DimensionBreakdown.MAX_DIMENSIONS
+                    + " comma-separated keys, e.g. host,request_method, but got '" + value + "'");
+            System.exit(1);
+        }
+        return keys;
+    }
+
+    // A window length such as 30s, 1m, 5m or 1h, in seconds
+    private static long parseWindow(String value) {
+        if (value.length() > 1) {
+            char unit = value.charAt(value.length() - 1);
+            long multiplier = unit == 's' ? 1 : unit == 'm' ? 60 : unit == 'h' ? 3_600 : 0;
+            try {
+                long amount = Long.parseLong(value.substring(0, value.length() - 1));
+                if (multiplier > 0 && amount > 0 && amount <= Integer.MAX_VALUE) {
+                    return amount * multiplier;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+        }
+        System.err.println("Error: --window expects a length such as 1m, 5m or 1h but got '" + value + "'");
+        System.exit(1);
+        return -1; // unreachable
+    }
+
+    private static AggregatorConfig parseApproximate(String value) {
+        try {
+            return AggregatorConfig.approximate(Double.parseDouble(value));
+        } catch (IllegalArgumentException e) { // Includes NumberFormatException
+            System.err.println("Error: --approximate expects a relative error between 0 and 1, e.g. 0.01, but got '" + value + "'");
+            System.exit(1);
+            return null; // unreachable
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.sjsu;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens log files that may be gzip-compressed. Compression is detected from the magic bytes rather than
+ * the file name, and compressed files are decompressed while they are read, never to disk.
+ */
+public final class CompressedInput {
+
+    static final int GZIP_MAGIC_1 = 0x1f;
+    static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+
+    private CompressedInput() {
+    }
+
+    // True if the file starts with the gzip magic bytes 1f 8b
+    public static boolean isGzip(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // keep reading until two bytes or end of file
+            }
+            return magic.position() == 2
+                    && (magic.get(0) & 0xff) == GZIP_MAGIC_1 && (magic.get(1) & 0xff) == GZIP_MAGIC_2;
+        }
+    }
+
+    // The file's (decompressed) content; GZIPInputStream reads concatenated members one after another
+    public static InputStream newInputStream(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return isGzip(file) ? new GZIPInputStream(in, INFLATE_BUFFER_SIZE) : in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public static BufferedReader newBufferedReader(Path file, Charset charset) throws IOException {
+        return new BufferedReader(new InputStreamReader(newInputStream(file), charset));
+    }
+}
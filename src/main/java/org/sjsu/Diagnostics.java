@@ -0,0 +1,405 @@
+package org.sjsu;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the lines no handler could aggregate: unmatched lines (no handler recognised them) and
+ * malformed ones (a handler recognised the line but could not parse a value). Safe to share between
+ * threads.
+ * <p>
+ * {@link #console()} prints every report straight away, like the handlers always did. A
+ * diagnostics instance created with the constructor keeps the hot path down to a few counter updates:
+ * <ul>
+ *   <li>every report is counted, malformed lines per handler;</li>
+ *   <li>the first {@code sampleLimit} reports are written to a side file;</li>
+ *   <li>at most {@code consoleMessagesPerSecond} reports are printed, the rest only counted;</li>
+ *   <li>writing and printing happen on a background thread; {@link #close()} prints a summary.</li>
+ * </ul>
+ */
+public class Diagnostics implements Closeable {
+
+    private static final Diagnostics CONSOLE = new Diagnostics(false);
+    private static final Diagnostics SILENT = new Diagnostics(true);
+    private static final int QUEUE_CAPACITY = 4096;
+    // Tells the writer thread to finish
+    private static final Report END = new Report(null, null, 0, null, null, false, false);
+
+    private final boolean synchronous;
+    private final boolean silent;
+    private final Path sampleFile;
+    private final int sampleLimit;
+    private final int consoleMessagesPerSecond;
+
+    private final LongAdder unmatched = new LongAdder();
+    private final Map<String, LongAdder> malformedByHandler = new ConcurrentHashMap<>();
+    private final AtomicLong sampleSlots = new AtomicLong();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final BlockingQueue<Report> queue;
+    private final Thread writer;
+    private volatile IOException writeFailure;
+    private volatile long sampled;
+
+    // Console rate limit, one window per second
+    private long windowStartNanos;
+    private int windowMessages;
+
+    private Diagnostics(boolean silent) {
+        this.synchronous = true;
+        this.silent = silent;
+        this.sampleFile = null;
+        this.sampleLimit = 0;
+        this.consoleMessagesPerSecond = Integer.MAX_VALUE;
+        this.queue = null;
+        this.writer = null;
+    }
+
+    /**
+     * @param sampleFile               where the sampled lines go; created on the first sample only,
+     *                                 null for no side file
+     * @param sampleLimit              how many reports to write to the side file
+     * @param consoleMessagesPerSecond how many reports to print per second
+     */
+    public Diagnostics(Path sampleFile, int sampleLimit, int consoleMessagesPerSecond) {
+        if (sampleLimit < 0 || consoleMessagesPerSecond < 0) {
+            throw new IllegalArgumentException("sampleLimit and consoleMessagesPerSecond must not be negative");
+        }
+        this.synchronous = false;
+        this.silent = false;
+        this.sampleFile = sampleFile;
+        this.sampleLimit = sampleFile == null ? 0 : sampleLimit;
+        this.consoleMessagesPerSecond = consoleMessagesPerSecond;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.writer = new Thread(this::writeReports, "diagnostics-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Prints every report as it happens, on the reporting thread, with no side file
+    public static Diagnostics console() {
+        return CONSOLE;
+    }
+
+    // Ignores every report; for handlers that see lines already reported elsewhere, e.g. per time window
+    public static Diagnostics silent() {
+        return SILENT;
+    }
+
+    // A line no handler recognised; source names the input file when several are read, otherwise null
+    public void unmatched(String source, long lineNumber, String line) {
+        if (silent) {
+            return;
+        }
+        unmatched.increment();
+        report(null, source, lineNumber, null, line);
+    }
+
+    /**
+     * Collects the reports of one chunk parsed on a worker thread, whose line numbers are only known once the
+     * chunks before it are counted; pass it to the chunk's handlers. Nothing is counted, sampled or printed
+     * until {@link Deferred#report}, so a chunk whose work is thrown away leaves no trace. Only as many lines as
+     * can still be sampled or printed are kept, so memory stays bounded on noisy input.
+     */
+    public Deferred deferred() {
+        // The console instance prints every line, so it has to keep them all
+        int limit = silent ? 0 : synchronous ? Integer.MAX_VALUE : Math.max(sampleLimit, consoleMessagesPerSecond);
+        return new Deferred(this, limit);
+    }
+
+    // A line the handler recognised but could not parse, e.g. handler "APM", problem "Could not parse value 'x'"
+    public void malformed(String handler, String problem, String line) {
+        if (silent) {
+            return;
+        }
+        malformedByHandler.computeIfAbsent(handler, k -> new LongAdder()).increment();
+        report(handler, null, 0, problem, line);
+    }
+
+    public long getUnmatchedCount() {
+        return unmatched.sum();
+    }
+
+    public long getMalformedCount(String handler) {
+        LongAdder count = malformedByHandler.get(handler);
+        return count == null ? 0 : count.sum();
+    }
+
+    public long getMalformedCount() {
+        long total = 0;
+        for (LongAdder count : malformedByHandler.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    // Reports not printed because of the console rate limit
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Writes the remaining samples and prints a summary. The shared {@link #console()} and
+     * {@link #silent()} instances have nothing to flush and stay usable.
+     */
+    @Override
+    public void close() throws IOException {
+        if (synchronous) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(END);
+                writer.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println(summary());
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+    }
+
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Diagnostics: ")
+                .append(getUnmatchedCount()).append(" unmatched line(s), ")
+                .append(getMalformedCount()).append(" malformed");
+        if (!malformedByHandler.isEmpty()) {
+            StringBuilder perHandler = new StringBuilder();
+            for (Map.Entry<String, LongAdder> entry : new TreeMap<>(malformedByHandler).entrySet()) {
+                perHandler.append(perHandler.length() == 0 ? "" : ", ").append(entry.getKey()).append(": ").append(entry.getValue().sum());
+            }
+            summary.append(" (").append(perHandler).append(')');
+        }
+        if (sampled > 0) {
+            summary.append("; ").append(sampled).append(" sampled to ").append(sampleFile);
+        }
+        if (getSuppressedCount() > 0) {
+            summary.append("; ").append(getSuppressedCount()).append(" console message(s) suppressed");
+        }
+        if (dropped.sum() > 0) {
+            summary.append("; ").append(dropped.sum()).append(" report(s) dropped while the writer was busy");
+        }
+        return summary.toString();
+    }
+
+    private void report(String handler, String source, long lineNumber, String problem, String line) {
+        if (synchronous) {
+            print(new Report(handler, source, lineNumber, problem, line, false, true));
+            return;
+        }
+        boolean sample = sampleSlots.get() < sampleLimit && sampleSlots.getAndIncrement() < sampleLimit;
+        boolean print = tryAcquireConsole();
+        if (!print) {
+            suppressed.increment();
+        }
+        // Past the sample limit and the console budget a report costs nothing but the counters
+        if ((sample || print) && !queue.offer(new Report(handler, source, lineNumber, problem, line, sample, print))) {
+            dropped.increment(); // Never block the parsing thread on diagnostics
+        }
+    }
+
+    private synchronized boolean tryAcquireConsole() {
+        long now = System.nanoTime();
+        if (now - windowStartNanos >= TimeUnit.SECONDS.toNanos(1) || windowStartNanos == 0) {
+            windowStartNanos = now;
+            windowMessages = 0;
+        }
+        if (windowMessages < consoleMessagesPerSecond) {
+            windowMessages++;
+            return true;
+        }
+        return false;
+    }
+
+    private void writeReports() {
+        BufferedWriter sampleWriter = null;
+        long written = 0;
+        try {
+            while (true) {
+                Report report = queue.take();
+                if (report == END) {
+                    break;
+                }
+                if (report.print) {
+                    print(report);
+                }
+                if (report.sample && writeFailure == null) {
+                    try {
+                        if (sampleWriter == null) {
+                            sampleWriter = Files.newBufferedWriter(sampleFile, StandardCharsets.UTF_8);
+                        }
+                        sampleWriter.write(report.sampleText());
+                        sampleWriter.newLine();
+                        sampled = ++written;
+                    } catch (IOException e) {
+                        writeFailure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (sampleWriter != null) {
+                try {
+                    sampleWriter.close();
+                } catch (IOException e) {
+                    writeFailure = e;
+                }
+            }
+        }
+    }
+
+    private static void print(Report report) {
+        PrintStream stream = report.handler == null ? System.out : System.err;
+        stream.println(report.consoleText());
+    }
+
+    /**
+     * Reports of one chunk, in the order they were made; unmatched lines are numbered from the start of the
+     * chunk. Not thread-safe: one per worker.
+     */
+    public static final class Deferred extends Diagnostics {
+        private final Diagnostics target;
+        private final int limit;
+        private long unmatchedCount;
+        private final Map<String, Long> malformedCounts = new TreeMap<>();
+        private final List<Report> reports = new ArrayList<>();
+
+        private Deferred(Diagnostics target, int limit) {
+            super(target.silent);
+            this.target = target;
+            this.limit = limit;
+        }
+
+        @Override
+        public void unmatched(String source, long lineNumber, String line) {
+            if (target.silent) {
+                return;
+            }
+            unmatchedCount++;
+            keep(new Report(null, source, lineNumber, null, line, false, false));
+        }
+
+        @Override
+        public void malformed(String handler, String problem, String line) {
+            if (target.silent) {
+                return;
+            }
+            malformedCounts.merge(handler, 1L, Long::sum);
+            keep(new Report(handler, null, 0, problem, line, false, false));
+        }
+
+        @Override
+        public long getUnmatchedCount() {
+            return unmatchedCount;
+        }
+
+        @Override
+        public long getMalformedCount(String handler) {
+            return malformedCounts.getOrDefault(handler, 0L);
+        }
+
+        @Override
+        public long getMalformedCount() {
+            long total = 0;
+            for (long count : malformedCounts.values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Adds the counts to the target, then samples and prints the kept reports; unmatched lines are numbered
+         * from linesBefore, the number of lines before the chunk. Call it once.
+         */
+        public void report(long linesBefore) {
+            if (target.silent) {
+                return;
+            }
+            target.unmatched.add(unmatchedCount);
+            for (Map.Entry<String, Long> entry : malformedCounts.entrySet()) {
+                target.malformedByHandler.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(entry.getValue());
+            }
+            for (Report report : reports) {
+                target.report(report.handler, report.source,
+                        report.handler == null ? linesBefore + report.lineNumber : 0, report.problem, report.line);
+            }
+        }
+
+        // Moves everything reported so far into a new Deferred and starts over, e.g. after each batch when one
+        // handler parses many batches
+        public Deferred drain() {
+            Deferred drained = new Deferred(target, limit);
+            drained.unmatchedCount = unmatchedCount;
+            drained.malformedCounts.putAll(malformedCounts);
+            drained.reports.addAll(reports);
+            unmatchedCount = 0;
+            malformedCounts.clear();
+            reports.clear();
+            return drained;
+        }
+
+        private void keep(Report report) {
+            if (reports.size() < limit) {
+                reports.add(report);
+            }
+        }
+    }
+
+    private static class Report {
+        private final String handler;   // null for an unmatched line
+        private final String source;
+        private final long lineNumber;
+        private final String problem;
+        private final String line;
+        private final boolean sample;
+        private final boolean print;
+
+        Report(String handler, String source, long lineNumber, String problem, String line, boolean sample, boolean print) {
+            this.handler = handler;
+            this.source = source;
+            this.lineNumber = lineNumber;
+            this.problem = problem;
+            this.line = line;
+            this.sample = sample;
+            this.print = print;
+        }
+
+        String consoleText() {
+            if (handler != null) {
+                return handler + " Handler: " + problem + " in line: " + line;
+            }
+            return "Warning: Line " + lineNumber + (source != null ? " of " + source : "")
+                    + " was not matched by any handler for aggregation: " + line;
+        }
+
+        String sampleText() {
+            if (handler != null) {
+                return "malformed\t" + handler + "\t" + problem + "\t" + line;
+            }
+            return "unmatched\t" + (source != null ? source + ":" : "") + lineNumber + "\t" + line;
+        }
+    }
+}
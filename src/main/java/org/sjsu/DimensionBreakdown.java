@@ -0,0 +1,267 @@
+package org.sjsu;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The stats of each combination of dimension values, e.g. per {@code host=} or per host and
+ * {@code request_method=}. Each dimension's values are interned into a {@link SymbolTable} and a
+ * combination is stored under one {@code long} key holding 16 bits per dimension, so a known group is
+ * found without allocating.
+ * <p>
+ * Cardinality is capped: once {@link AggregatorConfig#getMaxGroups()} groups exist, lines of any new
+ * combination go to a single {@value #OTHER} group, so a bad label cannot exhaust memory. Which
+ * combinations get their own group depends on the order they were first seen.
+ * <p>
+ * Like the aggregators it is filled by one thread and merged afterwards; the line handler comes from
+ * {@link #newHandler()}.
+ */
+public class DimensionBreakdown implements MergeableAggregator<DimensionBreakdown> {
+
+    public static final int MAX_DIMENSIONS = 4;
+    // Value ids take 16 bits, and 0xFFFF marks a line without the key
+    public static final int MAX_GROUPS = 0xFFFE;
+    public static final String OTHER = "__other__";
+    public static final String MISSING = "__missing__";
+
+    private static final int BITS_PER_DIMENSION = 16;
+    private static final int MISSING_ID = 0xFFFF;
+
+    private final AggregatorConfig groupConfig;
+    private final List<String> dimensions;
+    private final SymbolTable[] values;
+    private final int maxGroups;
+
+    // Open addressing from composite key to group index + 1, 0 for an empty slot
+    private long[] slotKeys = new long[64];
+    private int[] slotGroups = new int[64];
+    private long[] groupKeys = new long[32];
+    private final List<AggregatorSet> groups = new ArrayList<>();
+    private AggregatorSet other; // Created on the first overflow
+
+    public DimensionBreakdown(AggregatorConfig config) {
+        if (!config.hasDimensions()) {
+            throw new IllegalArgumentException("the configuration has no dimensions");
+        }
+        this.groupConfig = config.withoutBreakdowns();
+        this.dimensions = config.getDimensions();
+        this.maxGroups = config.getMaxGroups();
+        this.values = new SymbolTable[dimensions.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new SymbolTable(maxGroups);
+        }
+    }
+
+    // Feeds lines that were already aggregated into the totals to the group of their dimension values
+    public FieldLogHandler newHandler() {
+        return new GroupHandler();
+    }
+
+    public List<String> getDimensions() {
+        return dimensions;
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    // The group of these dimension values (null for a missing key), created if needed; the overflow group once full
+    public AggregatorSet groupOf(String... dimensionValues) {
+        if (dimensionValues.length != dimensions.size()) {
+            throw new IllegalArgumentException("expected values for " + dimensions);
+        }
+        long key = 0;
+        for (int i = 0; i < dimensionValues.length; i++) {
+            int id = dimensionValues[i] == null ? MISSING_ID : values[i].intern(dimensionValues[i]);
+            if (id == SymbolTable.FULL) {
+                return otherGroup();
+            }
+            key |= (long) id << (BITS_PER_DIMENSION * i);
+        }
+        int group = groupFor(key);
+        return group < 0 ? otherGroup() : groups.get(group);
+    }
+
+    // The overflow group, or null if every line had a group of its own
+    public AggregatorSet getOtherGroup() {
+        return other;
+    }
+
+    @Override
+    public void merge(DimensionBreakdown other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        for (int i = 0; i < other.groups.size(); i++) {
+            groupOf(other.symbolsOf(other.groupKeys[i])).merge(other.groups.get(i));
+        }
+        if (other.other != null) {
+            otherGroup().merge(other.other);
+        }
+    }
+
+    // --- Methods for Final Aggregation & JSON Generation ---
+
+    public String getBreakdownJson() {
+        return JsonOutput.toJson(this::writeBreakdownJson);
+    }
+
+    // Streams breakdown.json; groups are finalized in parallel a chunk at a time
+    void writeBreakdownJson(JsonWriter out) throws IOException {
+        // Sorted by value so the output does not depend on the order groups were created in
+        Integer[] order = new Integer[groups.size()];
+        String[][] groupValues = new String[groups.size()][];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            groupValues[i] = valuesOf(groupKeys[i]);
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> groupValues[i], Arrays::compare));
+
+        out.beginObject();
+        out.name("dimensions").beginArray();
+        for (String dimension : dimensions) {
+            out.value(dimension);
+        }
+        out.endArray();
+        out.name("groups").beginArray();
+        JsonOutput.writeInOrder(out, Arrays.asList(order), i -> groupResults(groupValues[i], groups.get(i)));
+        if (other != null) {
+            String[] otherValues = new String[dimensions.size()];
+            Arrays.fill(otherValues, OTHER);
+            JsonOutput.writeValue(out, groupResults(otherValues, other));
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    private Map<String, Object> groupResults(String[] groupValues, AggregatorSet group) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (int d = 0; d < groupValues.length; d++) {
+            results.put(dimensions.get(d), groupValues[d]);
+        }
+        results.put("apm", group.getApmAggregator().getApmResults());
+        results.put("application", group.getApplicationAggregator().getLevelCounts());
+        results.put("request", group.getRequestAggregator().getRequestResults());
+        return results;
+    }
+
+    // The dimension values packed into key, as shown in the output; MISSING for a missing key
+    private String[] valuesOf(long key) {
+        String[] result = symbolsOf(key);
+        for (int d = 0; d < result.length; d++) {
+            if (result[d] == null) {
+                result[d] = MISSING;
+            }
+        }
+        return result;
+    }
+
+    // The dimension values packed into key, as groupOf takes them; null for a missing key
+    private String[] symbolsOf(long key) {
+        String[] result = new String[dimensions.size()];
+        for (int d = 0; d < result.length; d++) {
+            int id = (int) (key >>> (BITS_PER_DIMENSION * d)) & 0xFFFF;
+            result[d] = id == MISSING_ID ? null : values[d].symbol(id);
+        }
+        return result;
+    }
+
+    // Index of the group with this key, created if there is room; -1 once maxGroups groups exist
+    private int groupFor(long key) {
+        int mask = slotKeys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (slotGroups[slot] != 0) {
+            if (slotKeys[slot] == key) {
+                return slotGroups[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (groups.size() == maxGroups) {
+            return -1;
+        }
+        int group = groups.size();
+        groups.add(new AggregatorSet(groupConfig));
+        if (group == groupKeys.length) {
+            groupKeys = Arrays.copyOf(groupKeys, group * 2);
+        }
+        groupKeys[group] = key;
+        slotKeys[slot] = key;
+        slotGroups[slot] = group + 1;
+        if (groups.size() * 2 > slotKeys.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    // Keeps the key table at most half full
+    private void rehash() {
+        slotKeys = new long[slotKeys.length * 2];
+        slotGroups = new int[slotKeys.length];
+        int mask = slotKeys.length - 1;
+        for (int group = 0; group < groups.size(); group++) {
+            int slot = (int) mix(groupKeys[group]) & mask;
+            while (slotGroups[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slotKeys[slot] = groupKeys[group];
+            slotGroups[slot] = group + 1;
+        }
+    }
+
+    private AggregatorSet otherGroup() {
+        if (other == null) {
+            other = new AggregatorSet(groupConfig);
+        }
+        return other;
+    }
+
+    // The packed ids are small, so spread them over the whole table
+    private static long mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return key ^ (key >>> 32);
+    }
+
+    private class GroupHandler implements FieldLogHandler {
+
+        // The dispatcher of each group, by group index, and of the overflow group
+        private final List<LogDispatcher> dispatchers = new ArrayList<>();
+        private LogDispatcher otherDispatcher;
+
+        @Override
+        public boolean handleFields(LogLineTokenizer fields) {
+            long key = 0;
+            for (int d = 0; d < values.length; d++) {
+                int field = fields.indexOf(dimensions.get(d));
+                int id = field < 0 ? MISSING_ID
+                        : values[d].intern(fields.line(), fields.valueStart(field), fields.valueEnd(field));
+                if (id == SymbolTable.FULL) {
+                    return otherDispatcher().dispatch(fields);
+                }
+                key |= (long) id << (BITS_PER_DIMENSION * d);
+            }
+            int group = groupFor(key);
+            if (group < 0) {
+                return otherDispatcher().dispatch(fields);
+            }
+            while (dispatchers.size() <= group) {
+                // Malformed lines were already reported by the whole-file handlers
+                dispatchers.add(groups.get(dispatchers.size()).buildDispatcher(Diagnostics.silent()));
+            }
+            return dispatchers.get(group).dispatch(fields);
+        }
+
+        private LogDispatcher otherDispatcher() {
+            if (otherDispatcher == null) {
+                otherDispatcher = otherGroup().buildDispatcher(Diagnostics.silent());
+            }
+            return otherDispatcher;
+        }
+    }
+}
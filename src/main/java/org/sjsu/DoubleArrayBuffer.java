@@ -0,0 +1,97 @@
+package org.sjsu;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Growable {@code double[]} used to store samples without boxing each one into a {@code Double}.
+ * Not thread-safe.
+ */
+public class DoubleArrayBuffer {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] values;
+    private int size;
+
+    public DoubleArrayBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleArrayBuffer(int initialCapacity) {
+        this.values = new double[Math.max(1, initialCapacity)];
+    }
+
+    public void add(double value) {
+        if (size == values.length) {
+            grow(size + 1);
+        }
+        values[size++] = value;
+    }
+
+    public void addAll(DoubleArrayBuffer other) {
+        if (size + other.size > values.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    public double get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Sorts the stored values in place
+    public void sort() {
+        Arrays.sort(values, 0, size);
+    }
+
+    // Binary state for checkpoints: the size followed by the values
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(values[i]);
+        }
+    }
+
+    // Appends the values written by writeState
+    void readState(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid sample count " + count);
+        }
+        if (size + count > values.length) {
+            grow(size + count);
+        }
+        for (int i = 0; i < count; i++) {
+            values[size++] = in.readDouble();
+        }
+    }
+
+    // Backing array; only the first size() entries are meaningful
+    double[] array() {
+        return values;
+    }
+
+    private void grow(int minCapacity) {
+        // Grow by 1.5x like ArrayList, without its Double per element
+        int newCapacity = Math.max(minCapacity, values.length + (values.length >> 1));
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        values = Arrays.copyOf(values, newCapacity);
+    }
+}
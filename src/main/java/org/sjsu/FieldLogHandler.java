@@ -0,0 +1,11 @@
+package org.sjsu;
+
+/**
+ * A handler that can process a line which has already been tokenized.
+ * Unlike {@link LogHandler#handle(String)} it never passes the line on to another handler.
+ */
+public interface FieldLogHandler {
+
+    // Returns true if the fields were recognized and aggregated
+    boolean handleFields(LogLineTokenizer fields);
+}
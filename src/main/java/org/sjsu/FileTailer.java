@@ -0,0 +1,190 @@
+package org.sjsu;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Reads the lines appended to a growing file, one {@link #poll} at a time.
+ * <ul>
+ *   <li>A trailing line without its '\n' is held back until the rest of it arrives.</li>
+ *   <li>Rotation (the path now names a different file) drains what is left of the old file, then starts
+ *       at the beginning of the new one.</li>
+ *   <li>Truncation (the file got shorter than what was already read, e.g. copytruncate) starts over at
+ *       the beginning of the file.</li>
+ * </ul>
+ * Not thread-safe; meant to be polled from a single thread.
+ */
+public class FileTailer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Charset charset;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private FileChannel channel;
+    private Object fileIdentity;
+    private long position;
+    private boolean startAtEnd;
+
+    // Bytes of a line whose '\n' has not been written yet
+    private byte[] partial = new byte[256];
+    private int partialLength;
+
+    private long rotations;
+    private long truncations;
+
+    public FileTailer(Path path) {
+        this(path, false);
+    }
+
+    // startAtEnd skips whatever the file already holds when it is first opened, like 'tail -f'
+    public FileTailer(Path path, boolean startAtEnd) {
+        this(path, startAtEnd, Charset.defaultCharset());
+    }
+
+    public FileTailer(Path path, boolean startAtEnd, Charset charset) {
+        this.path = Objects.requireNonNull(path, "path");
+        this.startAtEnd = startAtEnd;
+        this.charset = Objects.requireNonNull(charset, "charset");
+    }
+
+    /**
+     * Passes every complete line appended since the last call to {@code lineConsumer} and returns how many
+     * there were. Returns 0 while the file does not exist.
+     */
+    public int poll(Consumer<String> lineConsumer) throws IOException {
+        if (channel == null && !open()) {
+            return 0;
+        }
+        if (channel.size() < position) {
+            // Truncated in place: whatever was held back belonged to the old content
+            truncations++;
+            position = 0;
+            partialLength = 0;
+        }
+        int lines = readAvailable(lineConsumer);
+
+        Object currentIdentity = identityOf(path);
+        if (!Objects.equals(currentIdentity, fileIdentity)) {
+            // Rotated (or deleted): the old file gets no more writes, so its last line is complete
+            lines += readAvailable(lineConsumer);
+            if (partialLength > 0) {
+                emit(partial, 0, partialLength, lineConsumer);
+                partialLength = 0;
+                lines++;
+            }
+            closeChannel();
+            rotations++;
+            if (currentIdentity != null) {
+                lines += poll(lineConsumer);
+            }
+        }
+        return lines;
+    }
+
+    // Byte offset in the current file up to which content has been consumed
+    public long getPosition() {
+        return position;
+    }
+
+    public long getRotations() {
+        return rotations;
+    }
+
+    public long getTruncations() {
+        return truncations;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeChannel();
+    }
+
+    private boolean open() throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        fileIdentity = identityOf(path);
+        position = startAtEnd ? channel.size() : 0;
+        startAtEnd = false; // Files that show up after a rotation are read from the start
+        partialLength = 0;
+        return true;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private int readAvailable(Consumer<String> lineConsumer) throws IOException {
+        int lines = 0;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                return lines;
+            }
+            position += read;
+            byte[] bytes = buffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (partialLength > 0) {
+                    appendPartial(bytes, lineStart, i - lineStart);
+                    emit(partial, 0, partialLength, lineConsumer);
+                    partialLength = 0;
+                } else {
+                    emit(bytes, lineStart, i - lineStart, lineConsumer);
+                }
+                lines++;
+                lineStart = i + 1;
+            }
+            appendPartial(bytes, lineStart, read - lineStart);
+        }
+    }
+
+    private void emit(byte[] bytes, int offset, int length, Consumer<String> lineConsumer) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        lineConsumer.accept(new String(bytes, offset, length, charset));
+    }
+
+    private void appendPartial(byte[] bytes, int offset, int length) {
+        if (partialLength + length > partial.length) {
+            partial = Arrays.copyOf(partial, Math.max(partial.length * 2, partialLength + length));
+        }
+        System.arraycopy(bytes, offset, partial, partialLength, length);
+        partialLength += length;
+    }
+
+    // The file key (device and inode on Unix) changes when a new file replaces the old one under the same
+    // name; filesystems without one fall back to the creation time
+    private static Object identityOf(Path path) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            Object key = attributes.fileKey();
+            return key != null ? key : attributes.creationTime();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.sjsu;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Expands {@code --file} arguments into the list of files to read. An argument can be a file, a
+ * directory (every regular file directly inside it) or a glob in its last path element, such as
+ * {@code logs/app-*.log}. Files come back in argument order, each directory or glob sorted by name,
+ * without duplicates.
+ */
+public final class InputFiles {
+
+    private InputFiles() {
+    }
+
+    public static List<Path> resolve(List<String> arguments) throws IOException {
+        Set<Path> files = new LinkedHashSet<>();
+        for (String argument : arguments) {
+            if (isGlob(argument)) {
+                files.addAll(expandGlob(argument));
+                continue;
+            }
+            Path path = Paths.get(argument);
+            if (Files.isDirectory(path)) {
+                files.addAll(list(path, "*"));
+            } else if (Files.exists(path)) {
+                files.add(path);
+            } else {
+                throw new NoSuchFileException(argument);
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    static boolean isGlob(String argument) {
+        for (int i = 0; i < argument.length(); i++) {
+            char c = argument.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Only the last path element may contain wildcards
+    private static List<Path> expandGlob(String argument) throws IOException {
+        Path pattern = Paths.get(argument);
+        Path directory = pattern.getParent() != null ? pattern.getParent() : Paths.get("");
+        if (isGlob(directory.toString())) {
+            throw new IOException("Wildcards are only supported in the file name: " + argument);
+        }
+        List<Path> matches = list(directory, pattern.getFileName().toString());
+        if (matches.isEmpty()) {
+            throw new NoSuchFileException(argument, null, "no file matches the pattern");
+        }
+        return matches;
+    }
+
+    private static List<Path> list(Path directory, String glob) throws IOException {
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+        List<Path> files = new ArrayList<>();
+        Path listed = directory.toString().isEmpty() ? Paths.get(".") : directory;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(listed)) {
+            for (Path entry : entries) {
+                if (Files.isRegularFile(entry) && matcher.matches(entry.getFileName())) {
+                    files.add(directory.resolve(entry.getFileName()));
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+}
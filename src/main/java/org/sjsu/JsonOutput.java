@@ -0,0 +1,95 @@
+package org.sjsu;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Streams the output documents into a {@link JsonWriter} instead of building them as one String.
+ * Only the results of a chunk of entries (routes, metrics, windows or groups) are held at a time; each chunk
+ * is finalized in parallel, then written in order. The output is the same as {@code Gson.toJson} of the
+ * whole document, pretty-printed or compact.
+ */
+final class JsonOutput {
+
+    // Entries finalized at a time; bounds the results held in memory while still giving the pool enough work
+    static final int CHUNK_SIZE = 1024;
+
+    private static final Gson PRETTY = new GsonBuilder().setPrettyPrinting().create();
+    private static final Gson COMPACT = new Gson();
+
+    private JsonOutput() {
+    }
+
+    // Writes one document, e.g. apm.json
+    interface Document {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    // Same escaping and layout as Gson.toJson: HTML-safe strings, two-space indent unless compact
+    static JsonWriter newWriter(Writer writer, boolean compact) throws IOException {
+        return (compact ? COMPACT : PRETTY).newJsonWriter(writer);
+    }
+
+    // The pretty-printed document as a String, for the getXJson methods
+    static String toJson(Document document) {
+        StringWriter writer = new StringWriter();
+        try {
+            document.write(newWriter(writer, false));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot happen for a StringWriter", e);
+        }
+        return writer.toString();
+    }
+
+    // A small value such as one route's stats map, written the way Gson.toJson would
+    static void writeValue(JsonWriter out, Object value) throws IOException {
+        try {
+            PRETTY.toJson(value, value.getClass(), out); // Layout comes from out, not from the Gson instance
+        } catch (JsonIOException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e);
+        }
+    }
+
+    // Writes entries as the members of the current object, sorted by name; entries whose result is null are left out
+    static <V> void writeSorted(JsonWriter out, Map<String, V> entries, Function<V, Object> results) throws IOException {
+        String[] names = entries.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        Object[] chunk = new Object[Math.min(CHUNK_SIZE, names.length)];
+        for (int from = 0; from < names.length; from += CHUNK_SIZE) {
+            int start = from;
+            int end = Math.min(from + CHUNK_SIZE, names.length);
+            IntStream.range(start, end).parallel()
+                    .forEach(i -> chunk[i - start] = results.apply(entries.get(names[i])));
+            for (int i = start; i < end; i++) {
+                if (chunk[i - start] != null) {
+                    out.name(names[i]);
+                    writeValue(out, chunk[i - start]);
+                }
+            }
+        }
+    }
+
+    // Writes the result of every item, in order, as the elements of the current array
+    static <T> void writeInOrder(JsonWriter out, List<T> items, Function<T, Object> results) throws IOException {
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            List<Object> chunk = items.subList(from, Math.min(from + CHUNK_SIZE, items.size())).parallelStream()
+                    .map(results)
+                    .collect(Collectors.toList());
+            for (Object result : chunk) {
+                writeValue(out, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.sjsu;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tokenizes each line once and hands it straight to the handler registered for a key the line contains,
+ * instead of letting every handler in the chain re-examine it.
+ * Handlers are tried in registration order, so a line carrying several discriminating keys is classified
+ * exactly as the equivalent chain would classify it. Lines no registered handler accepts go to the
+ * fallback set with {@link #setNext(LogHandler)}, which can be an ordinary chain of custom handlers.
+ * Listeners added with {@link #addListener(FieldLogHandler)} see every line a registered handler accepted.
+ */
+public class LogDispatcher implements LogHandler {
+
+    private final List<String> keys = new ArrayList<>();
+    private final List<FieldLogHandler> handlers = new ArrayList<>();
+    private final List<FieldLogHandler> listeners = new ArrayList<>();
+    private final LogLineTokenizer tokenizer = new LogLineTokenizer();
+    private LogHandler fallback;
+
+    // Routes lines containing discriminatorKey= to the given handler
+    public LogDispatcher register(String discriminatorKey, FieldLogHandler handler) {
+        keys.add(discriminatorKey);
+        handlers.add(handler);
+        return this;
+    }
+
+    // Also offers every accepted line to listener, e.g. to aggregate it per time window as well
+    public LogDispatcher addListener(FieldLogHandler listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    @Override
+    public void setNext(LogHandler nextHandler) {
+        this.fallback = nextHandler;
+    }
+
+    @Override
+    public boolean handle(String logLine) {
+        if (dispatch(tokenizer.reset(logLine))) {
+            return true;
+        }
+        if (fallback != null) {
+            return fallback.handle(logLine);
+        }
+        return false;
+    }
+
+    // Offers already tokenized fields to the registered handlers only
+    public boolean dispatch(LogLineTokenizer fields) {
+        for (int i = 0; i < keys.size(); i++) {
+            if (fields.has(keys.get(i)) && handlers.get(i).handleFields(fields)) {
+                for (int j = 0; j < listeners.size(); j++) {
+                    listeners.get(j).handleFields(fields);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package org.sjsu;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps feeding the lines appended to a log file into live aggregators and rewrites the output files
+ * every snapshot interval, until {@link #stop()} is called. A final snapshot is written on the way out.
+ * <p>
+ * Snapshots are only cheap when the aggregators keep sketches instead of samples, so callers should use an
+ * approximate {@link AggregatorConfig}.
+ */
+public class LogFollower extends LogProcessor<LogFollower> {
+
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final FileTailer tailer;
+    private final AggregatorSet aggregators;
+    private final Path outputDirectory;
+    private final long snapshotIntervalNanos;
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private LogHandler lineHandler;
+    private boolean compactOutput;
+    private MetricsEndpoint metrics;
+    private volatile boolean running = true;
+
+    private long lineCount;
+    private long linesAtLastSnapshot = -1;
+    private long snapshotCount;
+    private long lastSnapshotNanos;
+
+    public LogFollower(FileTailer tailer, AggregatorSet aggregators, Path outputDirectory, long snapshotIntervalMillis) {
+        if (snapshotIntervalMillis <= 0) {
+            throw new IllegalArgumentException("snapshotIntervalMillis must be positive");
+        }
+        this.tailer = tailer;
+        this.aggregators = aggregators;
+        this.outputDirectory = outputDirectory;
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMillis);
+    }
+
+    // Writes the snapshots without indentation
+    public LogFollower withCompactOutput(boolean compactOutput) {
+        this.compactOutput = compactOutput;
+        return this;
+    }
+
+    // Also publishes the totals and this follower's counters to the endpoint on every snapshot
+    public LogFollower withMetrics(MetricsEndpoint metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    // Runs on the calling thread until stop() is called
+    public void run() throws IOException {
+        lineHandler = handlerFactory.apply(aggregators, diagnostics);
+        try {
+            publishMetrics(); // Scrapes before the first snapshot see the counters at zero
+            long nextSnapshot = System.nanoTime() + snapshotIntervalNanos;
+            while (running) {
+                int lines = tailer.poll(this::handleLine);
+                if (System.nanoTime() - nextSnapshot >= 0) {
+                    snapshot();
+                    nextSnapshot = System.nanoTime() + snapshotIntervalNanos;
+                }
+                if (lines == 0 && running) {
+                    try {
+                        Thread.sleep(POLL_INTERVAL_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        running = false;
+                    }
+                }
+            }
+            tailer.poll(this::handleLine); // Pick up whatever was written since the last poll
+            snapshot();
+        } finally {
+            tailer.close();
+            finished.countDown();
+        }
+    }
+
+    // Asks run() to write its final snapshot and return; safe to call from any thread, e.g. a shutdown hook
+    public void stop() {
+        running = false;
+    }
+
+    public boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+
+    // Writes the output files, skipped when nothing new was read since the last snapshot
+    void snapshot() {
+        if (lineCount == linesAtLastSnapshot) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        OutputWriter.writeAll(aggregators, outputDirectory, ForkJoinPool.commonPool(), compactOutput);
+        linesAtLastSnapshot = lineCount;
+        snapshotCount++;
+        lastSnapshotNanos = System.nanoTime() - startNanos;
+        publishMetrics();
+    }
+
+    // Rendered here, between polls, so the endpoint only ever hands out a finished page
+    private void publishMetrics() {
+        if (metrics == null) {
+            return;
+        }
+        PrometheusOutput out = new PrometheusOutput();
+        aggregators.writePrometheus(out);
+        out.family("lines_read_total", "counter", "Lines read from the followed file.")
+                .sample("lines_read_total", lineCount);
+        out.family("unmatched_lines_total", "counter", "Lines no handler matched.")
+                .sample("unmatched_lines_total", diagnostics.getUnmatchedCount());
+        out.family("malformed_lines_total", "counter", "Lines a handler matched but could not parse.")
+                .sample("malformed_lines_total", diagnostics.getMalformedCount());
+        out.family("snapshots_total", "counter", "Snapshots of the output files written.")
+                .sample("snapshots_total", snapshotCount);
+        out.family("last_snapshot_duration_seconds", "gauge", "Time taken to write the last snapshot.")
+                .sample("last_snapshot_duration_seconds", lastSnapshotNanos / 1e9);
+        out.family("last_publish_timestamp_seconds", "gauge", "When these values were taken, in Unix time.")
+                .sample("last_publish_timestamp_seconds", System.currentTimeMillis() / 1000.0);
+        metrics.publish(out.toString());
+    }
+
+    private void handleLine(String line) {
+        lineCount++;
+        if (line.trim().isEmpty()) {
+            return;
+        }
+        if (!lineHandler.handle(line)) {
+            diagnostics.unmatched(null, lineCount, line);
+        }
+    }
+}
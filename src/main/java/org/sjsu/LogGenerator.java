@@ -0,0 +1,602 @@
+package org.sjsu;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes synthetic logs in the formats {@link ApmLogHandler}, {@link ApplicationLogHandler} and
+ * {@link RequestLogHandler} parse, at any size, for load and memory tests. The mix of line types, the number
+ * of routes and hosts, the response time distribution and the fraction of malformed lines are configurable.
+ * <p>
+ * The output only depends on the seed, the settings and the size. Lines are generated in blocks of
+ * {@value #BLOCK_LINES}, each from its own random stream derived from the seed and the block number, so
+ * blocks are generated in parallel and written in order, and the file is the same whatever the number of
+ * threads. Run it with {@code ./gradlew generateLogs -PgeneratorArgs="--output big.log --size 1g"}.
+ */
+public class LogGenerator {
+
+    static final int BLOCK_LINES = 16_384;
+
+    private static final long START_EPOCH_SECOND = 1_732_442_400L; // 2024-11-24T10:00:00Z, like input.txt
+    private static final int LINES_PER_SECOND = 100;
+    private static final int MAX_RESPONSE_TIME_MS = 600_000;
+
+    private static final String[] METRICS = {"cpu_usage_percent", "memory_usage_percent", "disk_usage_percent",
+            "network_bytes_in", "network_bytes_out"};
+    private static final String[] LEVELS = {"INFO", "DEBUG", "WARNING", "ERROR", "TRACE"};
+    private static final String[] MESSAGES = {"User logged in", "User updated profile", "Cache hit for key",
+            "Scheduled task completed successfully", "Disk space running low", "Authentication failed",
+            "File not found", "Connection pool initialized"};
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+    private static final int[] STATUSES = {200, 200, 200, 200, 201, 202, 204, 400, 401, 404, 500, 503};
+    private static final String[] RESOURCES = {"users", "orders", "items", "status", "retry", "update", "search",
+            "cart", "payments", "sessions"};
+
+    private final long seed;
+    private int apmWeight = 25;
+    private int applicationWeight = 35;
+    private int requestWeight = 40;
+    private int routes = 50;
+    private int hosts = 3;
+    private Latency latency = Latency.lognormal(120, 0.8);
+    private double malformedFraction;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    public LogGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    // Relative weights of APM, application and request lines, e.g. 25, 35, 40 (the default)
+    public LogGenerator withMix(int apm, int application, int request) {
+        if (apm < 0 || application < 0 || request < 0 || (long) apm + application + request == 0
+                || (long) apm + application + request > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("mix weights must be non-negative and not all zero");
+        }
+        this.apmWeight = apm;
+        this.applicationWeight = application;
+        this.requestWeight = request;
+        return this;
+    }
+
+    // Number of distinct request URLs, /api/users, /api/orders, ..., then /api/users/1, /api/orders/1, ...
+    public LogGenerator withRoutes(int routes) {
+        if (routes < 1) {
+            throw new IllegalArgumentException("routes must be at least 1");
+        }
+        this.routes = routes;
+        return this;
+    }
+
+    // Lines come from webserver1 to webserver<hosts>
+    public LogGenerator withHosts(int hosts) {
+        if (hosts < 1) {
+            throw new IllegalArgumentException("hosts must be at least 1");
+        }
+        this.hosts = hosts;
+        return this;
+    }
+
+    public LogGenerator withLatency(Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    // Fraction of lines, 0 to 1, that no handler accepts or that a handler reports as malformed
+    public LogGenerator withMalformedFraction(double malformedFraction) {
+        if (!(malformedFraction >= 0 && malformedFraction <= 1)) {
+            throw new IllegalArgumentException("malformedFraction must be between 0 and 1");
+        }
+        this.malformedFraction = malformedFraction;
+        return this;
+    }
+
+    public LogGenerator withThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    // Writes exactly the given number of lines
+    public Result writeLines(Path file, long lines) throws IOException {
+        if (lines < 0) {
+            throw new IllegalArgumentException("lines must not be negative");
+        }
+        return write(file, lines, Long.MAX_VALUE);
+    }
+
+    // Writes whole lines until the file holds at least the given number of bytes
+    public Result writeBytes(Path file, long bytes) throws IOException {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("bytes must not be negative");
+        }
+        return write(file, Long.MAX_VALUE, bytes);
+    }
+
+    private Result write(Path file, long lineLimit, long byteLimit) throws IOException {
+        long startNanos = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "log-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long lines = 0;
+        long bytes = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            // A few blocks ahead per thread keeps every thread busy while the blocks are written in order
+            ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+            long nextBlock = 0;
+            while (lines < lineLimit && bytes < byteLimit) {
+                while (pending.size() < 2 * threads && nextBlock * BLOCK_LINES < lineLimit) {
+                    long block = nextBlock++;
+                    int blockLines = (int) Math.min(BLOCK_LINES, lineLimit - block * BLOCK_LINES);
+                    pending.add(pool.submit(() -> generate(block, blockLines)));
+                }
+                Block block = await(pending.poll());
+                int length = block.length;
+                int blockLines = block.lines;
+                if (byteLimit - bytes < length) {
+                    // Cut after the line that reaches the limit
+                    length = (int) (byteLimit - bytes);
+                    while (length < block.length && block.bytes[length - 1] != '\n') {
+                        length++;
+                    }
+                    blockLines = 0;
+                    for (int i = 0; i < length; i++) {
+                        if (block.bytes[i] == '\n') {
+                            blockLines++;
+                        }
+                    }
+                }
+                out.write(block.bytes, 0, length);
+                lines += blockLines;
+                bytes += length;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(lines, bytes, System.nanoTime() - startNanos, threads);
+    }
+
+    private static Block await(Future<Block> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating lines", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not generate lines: " + e.getCause(), e.getCause());
+        }
+    }
+
+    // The lines of one block; depends only on the seed, the settings and the block number
+    Block generate(long blockNumber, int lineCount) {
+        SplittableRandom random = new SplittableRandom(seed ^ (blockNumber * 0x9E37_79B9_7F4A_7C15L));
+        Block block = new Block(lineCount * 128);
+        long firstLine = blockNumber * BLOCK_LINES;
+        long second = -1;
+        byte[] timestamp = null;
+        int totalWeight = apmWeight + applicationWeight + requestWeight;
+        for (int i = 0; i < lineCount; i++) {
+            long lineSecond = START_EPOCH_SECOND + (firstLine + i) / LINES_PER_SECOND;
+            if (lineSecond != second) {
+                second = lineSecond;
+                timestamp = ("timestamp=" + DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochSecond(second)) + " ")
+                        .getBytes(StandardCharsets.US_ASCII);
+            }
+            block.append(timestamp);
+            int host = 1 + random.nextInt(hosts);
+            if (malformedFraction > 0 && random.nextDouble() < malformedFraction) {
+                appendMalformed(block, random, host);
+            } else {
+                int type = random.nextInt(totalWeight);
+                if (type < apmWeight) {
+                    appendApm(block, random, host);
+                } else if (type < apmWeight + applicationWeight) {
+                    appendApplication(block, random, host);
+                } else {
+                    appendRequest(block, random, host, latency.sample(random));
+                }
+            }
+            block.append('\n');
+            block.lines++;
+        }
+        return block;
+    }
+
+    // timestamp=... metric=cpu_usage_percent host=webserver1 value=94.5
+    private static void appendApm(Block block, SplittableRandom random, int host) {
+        int metric = random.nextInt(METRICS.length);
+        block.append("metric=").append(METRICS[metric]);
+        appendHost(block, host);
+        block.append(" value=");
+        if (metric < 3) {
+            int tenths = random.nextInt(1001); // Percent with one decimal
+            block.append(tenths / 10).append('.').append(tenths % 10);
+        } else {
+            block.append(random.nextInt(10_000_000)); // Bytes
+        }
+    }
+
+    // timestamp=... level=ERROR message="File not found" host=webserver2
+    private static void appendApplication(Block block, SplittableRandom random, int host) {
+        block.append("level=").append(LEVELS[random.nextInt(LEVELS.length)])
+                .append(" message=\"").append(MESSAGES[random.nextInt(MESSAGES.length)]).append('"');
+        appendHost(block, host);
+    }
+
+    // timestamp=... request_method=GET request_url="/api/users/3" response_status=200 response_time_ms=117 host=webserver1
+    private void appendRequest(Block block, SplittableRandom random, int host, int responseTime) {
+        block.append("request_method=").append(METHODS[random.nextInt(METHODS.length)]).append(" request_url=\"");
+        appendRoute(block, random.nextInt(routes));
+        block.append("\" response_status=").append(STATUSES[random.nextInt(STATUSES.length)])
+                .append(" response_time_ms=").append(responseTime);
+        appendHost(block, host);
+    }
+
+    // Lines that look like the real ones but that the handlers reject (cases 0, 3 and 4) or report as malformed (1 and 2)
+    private void appendMalformed(Block block, SplittableRandom random, int host) {
+        switch (random.nextInt(5)) {
+            case 0: // Cut off mid-line
+                block.append("metric=cpu_usage_percent host=webserv");
+                break;
+            case 1: // Status digits, but too large for an int
+                block.append("request_method=GET request_url=\"");
+                appendRoute(block, random.nextInt(routes));
+                block.append("\" response_status=20000000000 response_time_ms=").append(random.nextInt(1000));
+                appendHost(block, host);
+                break;
+            case 2: // Time digits, but too large for an int
+                block.append("request_method=GET request_url=\"");
+                appendRoute(block, random.nextInt(routes));
+                block.append("\" response_status=200 response_time_ms=99999999999");
+                appendHost(block, host);
+                break;
+            case 3: // Unknown level
+                block.append("level=VERBOSE message=\"").append(MESSAGES[random.nextInt(MESSAGES.length)]).append('"');
+                appendHost(block, host);
+                break;
+            default: // A line type no handler knows
+                block.append("event=DEPLOYMENT_START app=\"user-service\" version=\"1.0.1\" host=deploy-server");
+                break;
+        }
+    }
+
+    private static void appendRoute(Block block, int route) {
+        block.append("/api/").append(RESOURCES[route % RESOURCES.length]);
+        if (route >= RESOURCES.length) {
+            block.append('/').append(route / RESOURCES.length);
+        }
+    }
+
+    private static void appendHost(Block block, int host) {
+        block.append(" host=webserver").append(host);
+    }
+
+    /**
+     * Response times in milliseconds, clamped to 0..600,000.
+     */
+    public interface Latency {
+        int sample(SplittableRandom random);
+
+        static Latency fixed(int millis) {
+            return random -> millis;
+        }
+
+        static Latency uniform(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException("uniform latency needs 0 <= min <= max");
+            }
+            return random -> min + random.nextInt(max - min + 1);
+        }
+
+        // Most requests near the mean, a long tail of slow ones
+        static Latency exponential(double mean) {
+            if (!(mean > 0)) {
+                throw new IllegalArgumentException("exponential latency needs a positive mean");
+            }
+            return random -> clamp(-Math.log(1 - random.nextDouble()) * mean);
+        }
+
+        // Half the requests below median; sigma of about 0.5 to 1.5 gives realistic tails
+        static Latency lognormal(double median, double sigma) {
+            if (!(median > 0) || !(sigma >= 0)) {
+                throw new IllegalArgumentException("lognormal latency needs a positive median and a non-negative sigma");
+            }
+            return random -> clamp(median * Math.exp(sigma * random.nextGaussian()));
+        }
+
+        // fixed:<ms>, uniform:<min>,<max>, exponential:<mean> or lognormal:<median>,<sigma>
+        static Latency parse(String spec) {
+            int colon = spec.indexOf(':');
+            String[] values = colon < 0 ? new String[0] : spec.substring(colon + 1).split(",");
+            String name = colon < 0 ? spec : spec.substring(0, colon);
+            try {
+                if ("fixed".equals(name) && values.length == 1) {
+                    return fixed(Integer.parseInt(values[0]));
+                } else if ("uniform".equals(name) && values.length == 2) {
+                    return uniform(Integer.parseInt(values[0]), Integer.parseInt(values[1]));
+                } else if ("exponential".equals(name) && values.length == 1) {
+                    return exponential(Double.parseDouble(values[0]));
+                } else if ("lognormal".equals(name) && values.length == 2) {
+                    return lognormal(Double.parseDouble(values[0]), Double.parseDouble(values[1]));
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the error below
+            }
+            throw new IllegalArgumentException("Unknown latency distribution '" + spec + "'");
+        }
+
+        private static int clamp(double millis) {
+            return (int) Math.min(MAX_RESPONSE_TIME_MS, Math.max(0, Math.round(millis)));
+        }
+    }
+
+    // ASCII bytes of one block of lines; cheaper than a StringBuilder and an encoding pass per line
+    static final class Block {
+        byte[] bytes;
+        int length;
+        int lines;
+
+        Block(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        Block append(byte[] value) {
+            ensureCapacity(value.length);
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+            return this;
+        }
+
+        // Only ever called with ASCII text
+        Block append(String value) {
+            ensureCapacity(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        Block append(char value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+            return this;
+        }
+
+        Block append(int value) {
+            ensureCapacity(11);
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte swap = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = swap;
+            }
+            return this;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+
+    /**
+     * Summary of one run, used for throughput reporting.
+     */
+    public static class Result {
+        private final long lineCount;
+        private final long byteCount;
+        private final long elapsedNanos;
+        private final int threads;
+
+        Result(long lineCount, long byteCount, long elapsedNanos, int threads) {
+            this.lineCount = lineCount;
+            this.byteCount = byteCount;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        public long getLineCount() {
+            return lineCount;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        @Override
+        public String toString() {
+            double megabytes = byteCount / (1024.0 * 1024.0);
+            return String.format("Generated %d lines (%.1f MB) in %d ms: %.0f MB/s on %d thread(s)", lineCount,
+                    megabytes, elapsedNanos / 1_000_000, elapsedNanos == 0 ? 0.0 : megabytes * 1e9 / elapsedNanos, threads);
+        }
+    }
+
+    public static void main(String[] args) {
+        String output = null;
+        long lines = -1;
+        long bytes = -1;
+        long seed = 42;
+        int[] mix = null;
+        int routes = -1;
+        int hosts = -1;
+        Latency latency = null;
+        double malformed = 0;
+        int threads = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = args[++i];
+            } else if ("--lines".equals(args[i]) && i + 1 < args.length) {
+                lines = parseSize("--lines", args[++i], 1_000);
+            } else if ("--size".equals(args[i]) && i + 1 < args.length) {
+                bytes = parseSize("--size", args[++i], 1_024);
+            } else if ("--seed".equals(args[i]) && i + 1 < args.length) {
+                seed = parseLong("--seed", args[++i]);
+            } else if ("--mix".equals(args[i]) && i + 1 < args.length) {
+                mix = parseMix(args[++i]);
+            } else if ("--routes".equals(args[i]) && i + 1 < args.length) {
+                routes = parsePositiveInt("--routes", args[++i]);
+            } else if ("--hosts".equals(args[i]) && i + 1 < args.length) {
+                hosts = parsePositiveInt("--hosts", args[++i]);
+            } else if ("--latency".equals(args[i]) && i + 1 < args.length) {
+                latency = parseLatency(args[++i]);
+            } else if ("--malformed".equals(args[i]) && i + 1 < args.length) {
+                malformed = parseFraction(args[++i]);
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = parsePositiveInt("--threads", args[++i]);
+            } else {
+                System.err.println("Error: Unknown option '" + args[i] + "'");
+                System.exit(1);
+            }
+        }
+        if (output == null || (lines < 0) == (bytes < 0)) {
+            System.err.println("Error: Use --output <file> (--lines <n>[k|m|g] | --size <bytes>[k|m|g]) [--seed <n>] "
+                    + "[--mix apm=<w>,application=<w>,request=<w>] [--routes <n>] [--hosts <n>] "
+                    + "[--latency fixed:<ms>|uniform:<min>,<max>|exponential:<mean>|lognormal:<median>,<sigma>] "
+                    + "[--malformed <fraction>] [--threads <n>]");
+            System.exit(1);
+        }
+
+        LogGenerator generator = new LogGenerator(seed).withMalformedFraction(malformed);
+        if (mix != null) {
+            generator.withMix(mix[0], mix[1], mix[2]);
+        }
+        if (routes > 0) {
+            generator.withRoutes(routes);
+        }
+        if (hosts > 0) {
+            generator.withHosts(hosts);
+        }
+        if (latency != null) {
+            generator.withLatency(latency);
+        }
+        if (threads > 0) {
+            generator.withThreads(threads);
+        }
+        try {
+            Result result = lines >= 0 ? generator.writeLines(Paths.get(output), lines)
+                    : generator.writeBytes(Paths.get(output), bytes);
+            System.out.println(result);
+        } catch (IOException e) {
+            System.err.println("Error writing file '" + output + "': " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // A count with an optional k, m or g suffix, in steps of unit
+    private static long parseSize(String option, String value, long unit) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        char suffix = lower.isEmpty() ? ' ' : lower.charAt(lower.length() - 1);
+        int exponent = suffix == 'k' ? 1 : suffix == 'm' ? 2 : suffix == 'g' ? 3 : 0;
+        try {
+            long amount = Long.parseLong(exponent > 0 ? lower.substring(0, lower.length() - 1) : lower);
+            long multiplier = (long) Math.pow(unit, exponent);
+            if (amount >= 0 && amount <= Long.MAX_VALUE / multiplier) {
+                return amount * multiplier;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        System.err.println("Error: " + option + " expects a number such as 500000, 10m or 2g but got '" + value + "'");
+        System.exit(1);
+        return -1; // unreachable
+    }
+
+    private static long parseLong(String option, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Error: " + option + " expects a number but got '" + value + "'");
+            System.exit(1);
+            return -1; // unreachable
+        }
+    }
+
+    private static int parsePositiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        System.err.println("Error: " + option + " expects a positive integer but got '" + value + "'");
+        System.exit(1);
+        return -1; // unreachable
+    }
+
+    // e.g. apm=25,application=35,request=40; a type left out gets no lines
+    private static int[] parseMix(String value) {
+        int[] weights = new int[3];
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=", 2);
+            int type = pair.length < 2 ? -1 : Arrays.asList("apm", "application", "request").indexOf(pair[0].trim());
+            try {
+                weights[type] = Integer.parseInt(pair[1].trim());
+                if (weights[type] < 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                System.err.println("Error: --mix expects weights such as apm=25,application=35,request=40 but got '" + value + "'");
+                System.exit(1);
+            }
+        }
+        if (weights[0] + weights[1] + weights[2] == 0) {
+            System.err.println("Error: --mix needs at least one positive weight");
+            System.exit(1);
+        }
+        return weights;
+    }
+
+    private static Latency parseLatency(String value) {
+        try {
+            return Latency.parse(value);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: --latency expects fixed:<ms>, uniform:<min>,<max>, exponential:<mean> or "
+                    + "lognormal:<median>,<sigma> but got '" + value + "'");
+            System.exit(1);
+            return null; // unreachable
+        }
+    }
+
+    private static double parseFraction(String value) {
+        try {
+            double fraction = Double.parseDouble(value);
+            if (fraction >= 0 && fraction <= 1) {
+                return fraction;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        System.err.println("Error: --malformed expects a fraction between 0 and 1 but got '" + value + "'");
+        System.exit(1);
+        return -1; // unreachable
+    }
+}
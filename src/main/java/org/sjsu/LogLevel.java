@@ -0,0 +1,46 @@
+package org.sjsu;
+
+/**
+ * The application log levels that are aggregated. The ordinal indexes the count arrays of
+ * {@link ApplicationAggregator}, so counting a level needs no map lookup and no boxing.
+ */
+public enum LogLevel {
+    INFO, ERROR, WARNING, DEBUG, TRACE;
+
+    // Cached, values() clones the array on every call
+    private static final LogLevel[] LEVELS = values();
+
+    static final int COUNT = LEVELS.length;
+
+    static LogLevel ofOrdinal(int ordinal) {
+        return LEVELS[ordinal];
+    }
+
+    // The level with exactly this name, or null
+    public static LogLevel of(String name) {
+        switch (name) {
+            case "INFO":
+                return INFO;
+            case "ERROR":
+                return ERROR;
+            case "WARNING":
+                return WARNING;
+            case "DEBUG":
+                return DEBUG;
+            case "TRACE":
+                return TRACE;
+            default:
+                return null;
+        }
+    }
+
+    // The level named by a field's value, ignoring case, or null; allocates nothing
+    public static LogLevel parse(LogLineTokenizer fields, int field) {
+        for (LogLevel level : LEVELS) {
+            if (fields.valueEqualsIgnoreCase(field, level.name())) {
+                return level;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,241 @@
+package org.sjsu;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass scanner for {@code key=value} and {@code key="quoted value"} pairs.
+ * Fields are recorded as offsets into the line, so looking them up allocates nothing;
+ * a {@code String} is only created when a caller asks for one.
+ * Instances are reusable but not thread-safe.
+ */
+public class LogLineTokenizer {
+
+    private static final int INITIAL_FIELDS = 16;
+
+    private CharSequence line = "";
+    private int fieldCount;
+    private int[] keyStarts = new int[INITIAL_FIELDS];
+    private int[] keyEnds = new int[INITIAL_FIELDS];
+    private int[] valueStarts = new int[INITIAL_FIELDS];
+    private int[] valueEnds = new int[INITIAL_FIELDS];
+
+    // Scans the line once; tokens without '=' (or with an empty key) are skipped
+    public LogLineTokenizer reset(CharSequence line) {
+        this.line = line;
+        this.fieldCount = 0;
+        int length = line.length();
+        int pos = 0;
+        while (pos < length) {
+            while (pos < length && isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+            int tokenStart = pos;
+            while (pos < length && line.charAt(pos) != '=' && !isWhitespace(line.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= length || line.charAt(pos) != '=' || pos == tokenStart) {
+                // Not a key=value token, skip the rest of it
+                while (pos < length && !isWhitespace(line.charAt(pos))) {
+                    pos++;
+                }
+                continue;
+            }
+            int keyEnd = pos++;
+            int valueStart;
+            int valueEnd;
+            if (pos < length && line.charAt(pos) == '"') {
+                valueStart = ++pos;
+                while (pos < length && line.charAt(pos) != '"') {
+                    pos++;
+                }
+                valueEnd = pos;
+                // Skip the closing quote plus anything glued to it
+                while (pos < length && !isWhitespace(line.charAt(pos))) {
+                    pos++;
+                }
+            } else {
+                valueStart = pos;
+                while (pos < length && !isWhitespace(line.charAt(pos))) {
+                    pos++;
+                }
+                valueEnd = pos;
+            }
+            addField(tokenStart, keyEnd, valueStart, valueEnd);
+        }
+        return this;
+    }
+
+    public CharSequence line() {
+        return line;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    // Index of the first field with this key, or -1
+    public int indexOf(String key) {
+        int keyLength = key.length();
+        for (int i = 0; i < fieldCount; i++) {
+            if (keyEnds[i] - keyStarts[i] == keyLength && regionEquals(keyStarts[i], key, false)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean has(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    public int valueStart(int field) {
+        return valueStarts[field];
+    }
+
+    public int valueEnd(int field) {
+        return valueEnds[field];
+    }
+
+    public int valueLength(int field) {
+        return valueEnds[field] - valueStarts[field];
+    }
+
+    // True when the value was written as "..." with both quotes present
+    public boolean isQuoted(int field) {
+        int start = valueStarts[field];
+        int end = valueEnds[field];
+        return line.charAt(start - 1) == '"' && end < line.length() && line.charAt(end) == '"';
+    }
+
+    public String key(int field) {
+        return line.subSequence(keyStarts[field], keyEnds[field]).toString();
+    }
+
+    public String value(int field) {
+        return line.subSequence(valueStarts[field], valueEnds[field]).toString();
+    }
+
+    // The value as the canonical String held by symbols; only allocates for a new value or once symbols is full
+    public String value(int field, SymbolTable symbols) {
+        return symbols.canonical(line, valueStarts[field], valueEnds[field]);
+    }
+
+    // Value of the first field with this key, or null
+    public String value(String key) {
+        int field = indexOf(key);
+        return field < 0 ? null : value(field);
+    }
+
+    public boolean valueEqualsIgnoreCase(int field, String expected) {
+        return valueLength(field) == expected.length() && regionEquals(valueStarts[field], expected, true);
+    }
+
+    // True for one or more ASCII digits
+    public boolean isDigits(int field) {
+        int start = valueStarts[field];
+        int end = valueEnds[field];
+        if (start == end) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (!isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // True for digits with an optional fractional part, e.g. "72" or "72.5"
+    public boolean isDecimal(int field) {
+        int start = valueStarts[field];
+        int end = valueEnds[field];
+        int pos = start;
+        while (pos < end && isDigit(line.charAt(pos))) {
+            pos++;
+        }
+        if (pos == start) {
+            return false;
+        }
+        if (pos == end) {
+            return true;
+        }
+        if (line.charAt(pos) != '.' || pos + 1 == end) {
+            return false;
+        }
+        for (pos++; pos < end; pos++) {
+            if (!isDigit(line.charAt(pos))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Parses a digits-only value without creating a substring
+    public int parseInt(int field) {
+        int start = valueStarts[field];
+        int end = valueEnds[field];
+        if (start == end) {
+            throw new NumberFormatException("Empty value for key '" + key(field) + "'");
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (!isDigit(c)) {
+                throw new NumberFormatException("For input string: \"" + value(field) + "\"");
+            }
+            result = result * 10 + (c - '0');
+            if (result > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Value out of int range: \"" + value(field) + "\"");
+            }
+        }
+        return (int) result;
+    }
+
+    public double parseDouble(int field) {
+        int start = valueStarts[field];
+        int end = valueEnds[field];
+        // Fast path for plain integers that fit in a long, which covers most metric values
+        if (end - start <= 18 && isDigits(field)) {
+            long result = 0;
+            for (int i = start; i < end; i++) {
+                result = result * 10 + (line.charAt(i) - '0');
+            }
+            return result;
+        }
+        return Double.parseDouble(value(field));
+    }
+
+    private void addField(int keyStart, int keyEnd, int valueStart, int valueEnd) {
+        if (fieldCount == keyStarts.length) {
+            int capacity = fieldCount * 2;
+            keyStarts = Arrays.copyOf(keyStarts, capacity);
+            keyEnds = Arrays.copyOf(keyEnds, capacity);
+            valueStarts = Arrays.copyOf(valueStarts, capacity);
+            valueEnds = Arrays.copyOf(valueEnds, capacity);
+        }
+        keyStarts[fieldCount] = keyStart;
+        keyEnds[fieldCount] = keyEnd;
+        valueStarts[fieldCount] = valueStart;
+        valueEnds[fieldCount] = valueEnd;
+        fieldCount++;
+    }
+
+    private boolean regionEquals(int start, String expected, boolean ignoreCase) {
+        for (int i = 0; i < expected.length(); i++) {
+            char actual = line.charAt(start + i);
+            char wanted = expected.charAt(i);
+            if (actual != wanted && !(ignoreCase && Character.toUpperCase(actual) == Character.toUpperCase(wanted))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n' || c == '\f' || c == 0x0B;
+    }
+}
@@ -0,0 +1,36 @@
+package org.sjsu;
+
+import java.nio.charset.Charset;
+import java.util.function.BiFunction;
+
+/**
+ * What every way of feeding lines into aggregators shares: the charset lines are decoded with, how an
+ * {@link AggregatorSet} (a shard, or the live set) is turned into a line handler, and where unmatched and
+ * malformed lines are reported.
+ *
+ * @param <P> the concrete processor, so the setters can be chained
+ */
+public abstract class LogProcessor<P extends LogProcessor<P>> {
+
+    protected final Charset charset = Charset.defaultCharset(); // Same charset FileReader uses
+    protected BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory = AggregatorSet::buildDispatcher;
+    protected Diagnostics diagnostics = Diagnostics.console();
+
+    // Chooses how each set is turned into a line handler reporting to the given diagnostics, e.g.
+    // AggregatorSet::buildChain; parallel processors pass a Diagnostics.Deferred per chunk
+    public P withHandlerFactory(BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory) {
+        this.handlerFactory = handlerFactory;
+        return self();
+    }
+
+    // Where unmatched and malformed lines are reported; prints each one to the console by default
+    public P withDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+        return self();
+    }
+
+    @SuppressWarnings("unchecked")
+    private P self() {
+        return (P) this;
+    }
+}
@@ -1,85 +1,437 @@
 package org.sjsu;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 public class Main {
 
+    static final String MERGE_USAGE = "[--percentiles <p>[,<p>...]] [--finalize-threads <n>] [--compact] [--dump-state <file>]"
+            + " <state-file|directory|glob>...";
+
     public static void main(String[] args) {
-        String inputFileName = null;
+        if (args.length > 0 && "merge".equals(args[0])) {
+            merge(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        CommandLineOptions options = CommandLineOptions.parse(args);
 
-        for (int i = 0; i < args.length; i++) {
-            if ("--file".equals(args[i]) && i + 1 < args.length) {
-                inputFileName = args[i + 1];
-                break;
+        String inputFileName = options.fileArguments.get(0);
+        List<Path> inputFiles = null;
+        if (options.fileArguments.size() > 1 || InputFiles.isGlob(inputFileName)
+                || Files.isDirectory(Paths.get(inputFileName))) {
+            inputFiles = resolveInputFiles(options.fileArguments);
+            if (inputFiles.size() == 1) {
+                inputFileName = inputFiles.get(0).toString();
+                inputFiles = null;
+            } else if (options.parallel || options.pipeline || options.follow || options.checkpointFileName != null
+                    || options.workers > 0 || options.range != null) {
+                System.err.println("Error: several input files cannot be combined with --parallel, --pipeline, --follow, --checkpoint or --workers");
+                System.exit(1);
             }
         }
 
-        if (inputFileName == null) {
-            System.err.println("Error: Input file not specified. Use --file <filename.txt>");
-            System.exit(1);
+        // Initialize individual Aggregators
+        AggregatorSet aggregators = new AggregatorSet(options.config);
+        // Unmatched and malformed lines are counted and sampled off the parsing threads
+        Diagnostics diagnostics = new Diagnostics(Paths.get(options.diagnosticsFileName), options.sampleLimit,
+                options.consoleRate);
+        // Percentiles and output files are computed in parallel once the input is read
+        ForkJoinPool finalizer = options.finalizeThreads > 0
+                ? new ForkJoinPool(options.finalizeThreads) : ForkJoinPool.commonPool();
+        // Dispatch mode classifies each line once; --chain walks the Chain of Responsibility instead
+        BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory = options.chainMode
+                ? AggregatorSet::buildChain
+                : AggregatorSet::buildDispatcher;
+
+        if (inputFiles != null) {
+            processFiles(inputFiles, aggregators, handlerFactory, diagnostics, options.threads);
+            writeOutput(aggregators, finalizer, options.compact, options.dumpStateFileName);
+            return;
         }
 
         System.out.println("Processing log file: " + inputFileName);
 
-        // Initialize individual Aggregators
-        ApmAggregator apmAggregator = new ApmAggregator();
-        ApplicationAggregator applicationAggregator = new ApplicationAggregator();
-        RequestAggregator requestAggregator = new RequestAggregator();
+        if ((options.follow || options.checkpointFileName != null || options.workers > 0 || options.range != null)
+                && isGzip(inputFileName)) {
+            System.err.println("Error: --follow, --checkpoint and --workers need an uncompressed file; " + inputFileName + " is gzip-compressed");
+            System.exit(1);
+        }
+        if (options.workers > 0) {
+            // The workers count and sample their own unmatched lines; this run's diagnostics stay unused
+            aggregators = coordinateWorkers(Paths.get(inputFileName), options);
+            writeOutput(aggregators, finalizer, options.compact, options.dumpStateFileName);
+            return;
+        }
+        if (options.follow) {
+            follow(inputFileName, aggregators, handlerFactory, diagnostics, options.snapshotIntervalSeconds,
+                    options.compact, options.metricsPort);
+            return;
+        }
 
-        // Create handler instances, injecting their respective aggregators
-        LogHandler apmHandler = new ApmLogHandler(apmAggregator);
-        LogHandler appHandler = new ApplicationLogHandler(applicationAggregator);
-        LogHandler reqHandler = new RequestLogHandler(requestAggregator);
+        try {
+            aggregators = processFile(Paths.get(inputFileName), aggregators, handlerFactory, diagnostics, options);
+        } catch (IOException e) {
+            System.err.println("Error reading file '" + inputFileName + "': " + e.getMessage());
+            System.exit(1);
+        }
 
-        // Build the Chain of Responsibility
-        apmHandler.setNext(appHandler);
-        appHandler.setNext(reqHandler);
-        reqHandler.setNext(null);
+        System.out.println("Finished processing file.");
+        closeDiagnostics(diagnostics);
 
-        LogHandler chainStart = apmHandler;
+        if (options.range != null) {
+            // The coordinator merges the state and writes the output files
+            writeState(aggregators, options.dumpStateFileName);
+            return;
+        }
+        writeOutput(aggregators, finalizer, options.compact, options.dumpStateFileName);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFileName))) {
-            String line;
-            int lineNum = 0;
-            while ((line = reader.readLine()) != null) {
-                lineNum++;
-                if (line.trim().isEmpty()) {
-                    continue;
-                }
+    private static void processFiles(List<Path> inputFiles, AggregatorSet aggregators,
+                                     BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory, Diagnostics diagnostics,
+                                     int threads) {
+        System.out.println("Processing " + inputFiles.size() + " log files");
+        try {
+            MultiFileProcessor.Result result = new MultiFileProcessor(threads)
+                    .withHandlerFactory(handlerFactory)
+                    .withDiagnostics(diagnostics)
+                    .process(inputFiles, aggregators);
+            System.out.println(result);
+        } catch (IOException e) {
+            System.err.println("Error reading input files: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Finished processing files.");
+        closeDiagnostics(diagnostics);
+    }
 
-                boolean handled = chainStart.handle(line);
+    // Parses one file in this JVM the way the options ask; returns the aggregators holding its state
+    private static AggregatorSet processFile(Path input, AggregatorSet aggregators,
+                                             BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory,
+                                             Diagnostics diagnostics, CommandLineOptions options) throws IOException {
+        int threads = options.parallel ? options.threads : 1;
+        if (options.range != null) {
+            // One worker of a --workers run: line numbers in warnings count from the start of the range
+            ParallelFileProcessor.Result result = new ParallelFileProcessor(threads)
+                    .withHandlerFactory(handlerFactory)
+                    .withDiagnostics(diagnostics)
+                    .processRange(input, aggregators, options.range[0], options.range[1], 0);
+            System.out.println(result);
+        } else if (options.checkpointFileName != null) {
+            ParallelFileProcessor processor = new ParallelFileProcessor(threads)
+                    .withHandlerFactory(handlerFactory)
+                    .withDiagnostics(diagnostics);
+            return processIncrementally(input, Paths.get(options.checkpointFileName), options.resume,
+                    aggregators, processor);
+        } else if (options.pipeline) {
+            PipelineProcessor.Result result = new PipelineProcessor(options.parsers, options.batchSize,
+                    options.queueCapacity)
+                    .withHandlerFactory(handlerFactory)
+                    .withDiagnostics(diagnostics)
+                    .process(input, aggregators);
+            System.out.println(result);
+        } else if (options.parallel && isGzip(input.toString())) {
+            ParallelFileProcessor.Result result = new ParallelGzipProcessor(threads)
+                    .withHandlerFactory(handlerFactory)
+                    .withDiagnostics(diagnostics)
+                    .process(input, aggregators);
+            System.out.println(result);
+        } else if (options.parallel) {
+            ParallelFileProcessor.Result result = new ParallelFileProcessor(threads)
+                    .withHandlerFactory(handlerFactory)
+                    .withDiagnostics(diagnostics)
+                    .process(input, aggregators);
+            System.out.println(result);
+        } else {
+            processSequential(input.toString(), handlerFactory.apply(aggregators, diagnostics), diagnostics);
+        }
+        return aggregators;
+    }
 
-                if (!handled) {
-                    System.out.println("Warning: Line " + lineNum + " was not matched by any handler for aggregation: " + line);
-                }
+    private static AggregatorSet coordinateWorkers(Path input, CommandLineOptions options) {
+        WorkerCoordinator coordinator = new WorkerCoordinator(options.workers)
+                .withWorkerArguments(workerArguments(options))
+                .withDiagnosticsFile(Paths.get(options.diagnosticsFileName))
+                .withSampleLimit(options.sampleLimit);
+        if (options.workerHeap != null) {
+            coordinator.withJavaOptions(List.of("-Xmx" + options.workerHeap));
+        }
+        try {
+            WorkerCoordinator.Result result = coordinator.process(input, options.config);
+            List<String> workerDiagnostics = result.getWorkerDiagnostics();
+            for (int i = 0; i < workerDiagnostics.size(); i++) {
+                System.out.println("Worker " + i + " " + workerDiagnostics.get(i));
             }
+            System.out.println(result);
+            return result.getAggregators();
         } catch (IOException e) {
-            System.err.println("Error reading file '" + inputFileName + "': " + e.getMessage());
+            System.err.println("Error processing '" + input + "' with worker processes: " + e.getMessage());
             System.exit(1);
+            return null; // unreachable
         }
+    }
 
-        System.out.println("Finished processing file.");
+    // The options a worker needs to produce state that merges into this run's configuration
+    private static List<String> workerArguments(CommandLineOptions options) {
+        AggregatorConfig config = options.config;
+        List<String> arguments = new ArrayList<>();
+        if (config.isApproximate()) {
+            arguments.add("--approximate");
+            arguments.add(Double.toString(config.getRelativeError()));
+        }
+        if (options.chainMode) {
+            arguments.add("--chain");
+        }
+        if (options.parallel) {
+            // The workers share this machine, so they share the threads rather than each taking them all
+            arguments.add("--parallel");
+            arguments.add("--threads");
+            arguments.add(Integer.toString(Math.max(1, options.threads / options.workers)));
+        }
+        if (!config.getRouteNormalizer().isRaw()) {
+            arguments.add("--normalize-routes");
+            for (String template : config.getRouteNormalizer().getTemplates()) {
+                arguments.add("--route-template");
+                arguments.add(template);
+            }
+        }
+        if (config.getMaxRoutes() > 0) {
+            arguments.add("--max-routes");
+            arguments.add(Integer.toString(config.getMaxRoutes()));
+            arguments.add("--route-eviction");
+            arguments.add(config.getRouteEviction().name().toLowerCase(Locale.ROOT));
+        }
+        // The coordinator shares --sample-limit out between the workers
+        arguments.add("--console-rate");
+        arguments.add(Integer.toString(options.consoleRate));
+        return arguments;
+    }
+
+    /**
+     * {@code merge [options] <state files>}: combines the state files written by {@code --dump-state}, e.g. one
+     * per host, into the same output files a single run over all of their input would have written.
+     */
+    private static void merge(String[] args) {
+        List<String> stateArguments = new ArrayList<>();
+        AggregatorConfig config = AggregatorConfig.DEFAULT;
+        int finalizeThreads = 0;
+        boolean compact = false;
+        String dumpStateFileName = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--percentiles".equals(args[i]) && i + 1 < args.length) {
+                config = config.withPercentiles(CommandLineOptions.parsePercentiles(args[++i]));
+            } else if ("--finalize-threads".equals(args[i]) && i + 1 < args.length) {
+                finalizeThreads = CommandLineOptions.parsePositiveInt("--finalize-threads", args[++i]);
+            } else if ("--compact".equals(args[i])) {
+                compact = true;
+            } else if ("--dump-state".equals(args[i]) && i + 1 < args.length) {
+                dumpStateFileName = args[++i];
+            } else if (args[i].startsWith("--")) {
+                System.err.println("Error: unknown merge option " + args[i]);
+                System.exit(1);
+            } else {
+                stateArguments.add(args[i]);
+            }
+        }
+        if (stateArguments.isEmpty()) {
+            System.err.println("Error: no state files to merge. Use merge " + MERGE_USAGE);
+            System.exit(1);
+        }
+
+        List<Path> stateFiles = resolveInputFiles(stateArguments);
+        AggregatorSet aggregators = null;
+        try {
+            aggregators = StateFile.merge(stateFiles, config);
+        } catch (IOException e) {
+            System.err.println("Error merging state files: " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Merged " + stateFiles.size() + " state files.");
+        ForkJoinPool finalizer = finalizeThreads > 0 ? new ForkJoinPool(finalizeThreads) : ForkJoinPool.commonPool();
+        writeOutput(aggregators, finalizer, compact, dumpStateFileName);
+    }
 
-        // Generate JSON Output from individual Aggregators (remains the same)
-        String apmJson = apmAggregator.getApmJson();
-        String appJson = applicationAggregator.getApplicationJson();
-        String reqJson = requestAggregator.getRequestJson();
+    // Writes the output files, and the state file for a later merge if one was asked for
+    private static void writeOutput(AggregatorSet aggregators, ForkJoinPool finalizer, boolean compact,
+                                    String dumpStateFileName) {
+        OutputWriter.writeAll(aggregators, Paths.get(""), finalizer, compact);
+        printOutputFiles(aggregators);
+        if (dumpStateFileName != null) {
+            writeState(aggregators, dumpStateFileName);
+        }
+    }
 
-        writeJsonToFile("apm.json", apmJson);
-        writeJsonToFile("application.json", appJson);
-        writeJsonToFile("request.json", reqJson);
+    private static void writeState(AggregatorSet aggregators, String stateFileName) {
+        try {
+            StateFile.write(Paths.get(stateFileName), aggregators);
+            System.out.println("State written to " + stateFileName + ".");
+        } catch (IOException e) {
+            System.err.println("Error writing state file '" + stateFileName + "': " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        System.out.println("Output files (apm.json, application.json, request.json) generated.");
+    private static void printOutputFiles(AggregatorSet aggregators) {
+        StringBuilder files = new StringBuilder("apm.json, application.json, request.json");
+        if (aggregators.getTimeWindows() != null) {
+            files.append(", ").append(OutputWriter.TIMESERIES_FILE);
+        }
+        if (aggregators.getBreakdown() != null) {
+            files.append(", ").append(OutputWriter.BREAKDOWN_FILE);
+        }
+        System.out.println("Output files (" + files + ") generated.");
     }
 
-    private static void writeJsonToFile(String fileName, String jsonContent) {
-        try (FileWriter writer = new FileWriter(fileName)) {
-            writer.write(jsonContent != null ? jsonContent : "{}");
+    private static List<Path> resolveInputFiles(List<String> fileArguments) {
+        try {
+            List<Path> files = InputFiles.resolve(fileArguments);
+            if (!files.isEmpty()) {
+                return files;
+            }
+            System.err.println("Error: no input files found in " + fileArguments);
         } catch (IOException e) {
-            System.err.println("Error writing to file '" + fileName + "': " + e.getMessage());
+            System.err.println("Error: cannot find input files: " + e.getMessage());
+        }
+        System.exit(1);
+        return null; // unreachable
+    }
+
+    // Unreadable files are reported when they are actually read
+    private static boolean isGzip(String fileName) {
+        try {
+            return CompressedInput.isGzip(Paths.get(fileName));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void follow(String inputFileName, AggregatorSet aggregators,
+                               BiFunction<AggregatorSet, Diagnostics, LogHandler> handlerFactory,
+                               Diagnostics diagnostics, int snapshotIntervalSeconds, boolean compact, int metricsPort) {
+        System.out.println("Following " + inputFileName + ", writing output files every "
+                + snapshotIntervalSeconds + "s (Ctrl+C to stop)");
+        MetricsEndpoint metrics = null;
+        if (metricsPort > 0) {
+            try {
+                metrics = new MetricsEndpoint(new InetSocketAddress(metricsPort));
+            } catch (IOException e) {
+                System.err.println("Error: cannot serve metrics on port " + metricsPort + ": " + e.getMessage());
+                System.exit(1);
+            }
+            System.out.println("Serving metrics on http://localhost:" + metrics.getPort() + MetricsEndpoint.PATH);
+        }
+        LogFollower follower = new LogFollower(new FileTailer(Paths.get(inputFileName)), aggregators,
+                Paths.get(""), TimeUnit.SECONDS.toMillis(snapshotIntervalSeconds))
+                .withHandlerFactory(handlerFactory)
+                .withDiagnostics(diagnostics)
+                .withCompactOutput(compact)
+                .withMetrics(metrics);
+        CountDownLatch diagnosticsClosed = new CountDownLatch(1);
+        // On Ctrl+C let the follower write its final snapshot and the diagnostics summary before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            follower.stop();
+            try {
+                follower.awaitFinished(10, TimeUnit.SECONDS);
+                diagnosticsClosed.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "follow-shutdown"));
+        try {
+            follower.run();
+        } catch (IOException e) {
+            System.err.println("Error reading file '" + inputFileName + "': " + e.getMessage());
+            System.exit(1);
+        }
+        System.out.println("Stopped following after " + follower.getLineCount() + " lines.");
+        if (metrics != null) {
+            metrics.close();
+        }
+        closeDiagnostics(diagnostics);
+        diagnosticsClosed.countDown();
+    }
+
+    // Flushes the sampled lines and prints the summary; a failed side file does not fail the run
+    private static void closeDiagnostics(Diagnostics diagnostics) {
+        try {
+            diagnostics.close();
+        } catch (IOException e) {
+            System.err.println("Warning: could not write diagnostics samples: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses the complete lines added since the checkpoint (the whole file without --resume, or when the
+     * checkpoint belongs to a different file) and records a new checkpoint. An unfinished last line is left
+     * for the next run. Returns the aggregators holding the state of the whole file.
+     */
+    private static AggregatorSet processIncrementally(Path input, Path checkpointFile, boolean resume,
+                                                      AggregatorSet aggregators, ParallelFileProcessor processor)
+            throws IOException {
+        long offset = 0;
+        long lineCount = 0;
+        if (resume && Files.exists(checkpointFile)) {
+            Checkpoint checkpoint = readCheckpoint(checkpointFile, aggregators.getConfig());
+            if (checkpoint != null && checkpoint.matches(input)) {
+                // The stored state decides between exact and approximate percentiles, or it could not be merged
+                aggregators = checkpoint.getAggregators();
+                offset = checkpoint.getOffset();
+                lineCount = checkpoint.getLineCount();
+                System.out.println("Resuming after line " + lineCount + " (byte " + offset + ") from " + checkpointFile);
+            } else if (checkpoint != null) {
+                System.out.println("Checkpoint " + checkpointFile + " was taken from a different file; processing "
+                        + input + " from the start");
+            }
+        }
+
+        long end = ParallelFileProcessor.endOfLastLine(input);
+        ParallelFileProcessor.Result result = processor.processRange(input, aggregators, offset, end, lineCount);
+        System.out.println(result);
+        Checkpoint.capture(input, end, lineCount + result.getLineCount(), aggregators).write(checkpointFile);
+        return aggregators;
+    }
+
+    // A damaged checkpoint only costs a full re-read, so it is reported and ignored
+    private static Checkpoint readCheckpoint(Path checkpointFile, AggregatorConfig settings) {
+        try {
+            return Checkpoint.read(checkpointFile, settings);
+        } catch (IOException e) {
+            System.err.println("Warning: ignoring checkpoint " + checkpointFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Package-private for IngestBenchmark and GzipBenchmark
+    static void processSequential(String inputFileName, LogHandler lineHandler, Diagnostics diagnostics)
+            throws IOException {
+        // Gzip-compressed files are decompressed on the fly
+        try (BufferedReader reader = CompressedInput.newBufferedReader(Paths.get(inputFileName), Charset.defaultCharset())) {
+            String line;
+            int lineNum = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNum++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                boolean handled = lineHandler.handle(line);
+
+                if (!handled) {
+                    diagnostics.unmatched(null, lineNum, line);
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
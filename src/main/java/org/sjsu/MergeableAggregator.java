@@ -0,0 +1,34 @@
+package org.sjsu;
+
+/**
+ * Contract for aggregators that can be filled by several threads in parallel.
+ * <p>
+ * Each worker owns a private shard and updates it without any synchronization; a shard must never be
+ * shared between threads while it is being filled. Once the workers are done, the shards are folded
+ * into one with {@link #merge(Object)} and only then is the JSON generated.
+ * Merging is exact: counts, min/max/sum and stored samples end up the same as if every line had been
+ * fed to a single aggregator, so the generated JSON is byte-identical to a single-threaded run.
+ *
+ * @param <T> the concrete aggregator type
+ */
+public interface MergeableAggregator<T extends MergeableAggregator<T>> {
+
+    /**
+     * Adds everything collected by {@code other} to this aggregator. {@code other} is left unchanged
+     * and must not be modified concurrently; merging an aggregator into itself is not allowed.
+     */
+    void merge(T other);
+
+    // Folds all shards into the first one, in list order
+    static <T extends MergeableAggregator<T>> T mergeAll(Iterable<T> shards) {
+        T result = null;
+        for (T shard : shards) {
+            if (result == null) {
+                result = shard;
+            } else {
+                result.merge(shard);
+            }
+        }
+        return result;
+    }
+}
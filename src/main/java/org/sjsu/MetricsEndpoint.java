@@ -0,0 +1,80 @@
+package org.sjsu;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the latest published page on {@code GET /metrics}, for Prometheus to scrape.
+ * <p>
+ * The page is rendered by whoever owns the aggregators (see {@link LogFollower#withMetrics}) and swapped in
+ * through an {@link AtomicReference}, so a scrape only copies bytes: it never touches the aggregators, takes
+ * no lock and cannot slow down ingestion, however often it comes.
+ */
+public class MetricsEndpoint implements Closeable {
+
+    static final String PATH = "/metrics";
+
+    private final AtomicReference<byte[]> page = new AtomicReference<>(new byte[0]);
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // Port 0 picks a free port, see getPort()
+    public MetricsEndpoint(InetSocketAddress address) throws IOException {
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-endpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    // Replaces the page served to the next scrapes; safe to call from any thread
+    public void publish(String text) {
+        page.set(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            boolean head = "HEAD".equals(exchange.getRequestMethod());
+            if (!head && !"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = page.get();
+            exchange.getResponseHeaders().set("Content-Type", PrometheusOutput.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, head || body.length == 0 ? -1 : body.length); // 0 would mean chunked
+            if (!head) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.sjsu;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads several log files at the same time, each into its own {@link AggregatorSet} shard, on a fixed
+ * number of threads. Shards are merged in file order, like reading the files one after another, so
+ * limits such as --max-routes and --max-groups keep the same entries on every run. Files are only
+ * started a few ahead of the one being merged, so at most that many finished shards wait for an earlier
+ * file however many files there are.
+ */
+public class MultiFileProcessor extends LogProcessor<MultiFileProcessor> {
+
+    private final int threads;
+
+    public MultiFileProcessor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiFileProcessor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    public Result process(List<Path> files, AggregatorSet target) throws IOException {
+        long startNanos = System.nanoTime();
+        int poolSize = Math.min(threads, Math.max(1, files.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "log-file-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Enough files in flight to keep every thread busy while the oldest one is merged
+            int ahead = 2 * poolSize;
+            Deque<Future<FileResult>> running = new ArrayDeque<>(ahead);
+            int submitted = 0;
+            long lineCount = 0;
+            for (int merged = 0; merged < files.size(); merged++) {
+                while (submitted < files.size() && submitted < merged + ahead) {
+                    Path file = files.get(submitted++);
+                    // The shard is created when the task starts, so waiting files hold no state
+                    running.add(executor.submit(() -> processFile(file, target.newShard())));
+                }
+                FileResult fileResult = await(running.poll());
+                target.merge(fileResult.shard);
+                lineCount += fileResult.lineCount;
+            }
+            return new Result(files.size(), lineCount, System.nanoTime() - startNanos);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FileResult processFile(Path file, AggregatorSet shard) throws IOException {
+        FileResult result = new FileResult(shard);
+        LogHandler lineHandler = handlerFactory.apply(shard, diagnostics);
+        try (BufferedReader reader = CompressedInput.newBufferedReader(file, charset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.lineCount++;
+                // Line numbers within a file are known here, so lines are reported straight away
+                if (!line.trim().isEmpty() && !lineHandler.handle(line)) {
+                    diagnostics.unmatched(file.toString(), result.lineCount, line);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static FileResult await(Future<FileResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading log files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Reading log files failed: " + cause, cause);
+        }
+    }
+
+    private static class FileResult {
+        private final AggregatorSet shard;
+        private long lineCount;
+
+        FileResult(AggregatorSet shard) {
+            this.shard = shard;
+        }
+    }
+
+    /**
+     * Summary of one multi-file run, used for throughput reporting.
+     */
+    public static class Result {
+        private final int fileCount;
+        private final long lineCount;
+        private final long elapsedNanos;
+
+        Result(int fileCount, long lineCount, long elapsedNanos) {
+            this.fileCount = fileCount;
+            this.lineCount = lineCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getFileCount() {
+            return fileCount;
+        }
+
+        public long getLineCount() {
+            return lineCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getLinesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : lineCount * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Processed %d lines from %d file(s) in %d ms: %.0f lines/sec",
+                    lineCount, fileCount, elapsedNanos / 1_000_000, getLinesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.sjsu;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes the three output files, plus timeseries.json and breakdown.json when the aggregators keep time
+ * windows or dimension groups. Every file is streamed from the aggregators into a temporary file next to it
+ * and then renamed over the target, so a reader (or a crash) never sees a half-written file.
+ * <p>
+ * The files are produced concurrently on a {@link ForkJoinPool}, and the aggregators spread the statistics
+ * of their metrics, routes, windows and groups over the same pool.
+ */
+public final class OutputWriter {
+
+    public static final String APM_FILE = "apm.json";
+    public static final String APPLICATION_FILE = "application.json";
+    public static final String REQUEST_FILE = "request.json";
+    public static final String TIMESERIES_FILE = "timeseries.json";
+    public static final String BREAKDOWN_FILE = "breakdown.json";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private OutputWriter() {
+    }
+
+    // Streams bytes into an output file
+    interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    // Writes apm.json, application.json and request.json into directory; reports each failure and carries on
+    public static boolean writeAll(AggregatorSet aggregators, Path directory) {
+        return writeAll(aggregators, directory, ForkJoinPool.commonPool(), false);
+    }
+
+    // Same, finalizing on the given pool, e.g. one sized by --finalize-threads; compact leaves out the indentation
+    public static boolean writeAll(AggregatorSet aggregators, Path directory, ForkJoinPool pool, boolean compact) {
+        List<ForkJoinTask<Boolean>> files = new ArrayList<>();
+        files.add(pool.submit(() -> write(directory.resolve(APM_FILE), compact,
+                aggregators.getApmAggregator()::writeApmJson)));
+        files.add(pool.submit(() -> write(directory.resolve(APPLICATION_FILE), compact,
+                aggregators.getApplicationAggregator()::writeApplicationJson)));
+        files.add(pool.submit(() -> write(directory.resolve(REQUEST_FILE), compact,
+                aggregators.getRequestAggregator()::writeRequestJson)));
+        if (aggregators.getTimeWindows() != null) {
+            files.add(pool.submit(() -> write(directory.resolve(TIMESERIES_FILE), compact,
+                    aggregators.getTimeWindows()::writeTimeSeriesJson)));
+        }
+        if (aggregators.getBreakdown() != null) {
+            files.add(pool.submit(() -> write(directory.resolve(BREAKDOWN_FILE), compact,
+                    aggregators.getBreakdown()::writeBreakdownJson)));
+        }
+        boolean ok = true;
+        for (ForkJoinTask<Boolean> file : files) {
+            ok &= file.join();
+        }
+        return ok;
+    }
+
+    private static boolean write(Path target, boolean compact, JsonOutput.Document document) {
+        try {
+            writeAtomically(target, out -> {
+                // Not closed here: writeAtomically closes the stream underneath
+                JsonWriter json = JsonOutput.newWriter(
+                        new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE), compact);
+                document.write(json);
+                json.flush();
+            });
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing to file '" + target + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    public static void writeAtomically(Path target, String content) throws IOException {
+        writeAtomically(target, out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static void writeAtomically(Path target, Content content) throws IOException {
+        // Not Files.createTempFile: its owner-only permissions would carry over to the output file
+        Path temp = target.toAbsolutePath().resolveSibling(
+                "." + target.getFileName() + "." + ProcessHandle.current().pid() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                content.writeTo(out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
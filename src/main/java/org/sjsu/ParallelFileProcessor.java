@@ -0,0 +1,276 @@
+package org.sjsu;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Memory-maps a log file, cuts it into newline-aligned chunks and parses the chunks on a worker pool.
+ * Every chunk fills its own {@link AggregatorSet}; the shards are merged back in file order, so the
+ * result is the same as reading the file line by line.
+ */
+public class ParallelFileProcessor extends LogProcessor<ParallelFileProcessor> {
+
+    static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+    // A single mapping cannot exceed Integer.MAX_VALUE bytes, leave headroom for the last line
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    private static final int BOUNDARY_SCAN_SIZE = 8192;
+
+    private final int threads;
+    private final long chunkSize;
+
+    public ParallelFileProcessor(int threads) {
+        this(threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelFileProcessor(int threads, long chunkSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    public Result process(Path file, AggregatorSet target) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return process(channel, target, 0, channel.size(), 0, startNanos);
+        }
+    }
+
+    /**
+     * Parses only the bytes {@code [start, end)} of the file, e.g. the part appended since a checkpoint.
+     * {@code start} must be the beginning of a line; {@code linesBefore} is the number of lines before it,
+     * so warnings keep reporting line numbers of the whole file.
+     */
+    public Result processRange(Path file, AggregatorSet target, long start, long end, long linesBefore) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (start < 0 || start > end || end > channel.size()) {
+                throw new IOException("Byte range [" + start + ", " + end + ") is outside the file (size "
+                        + channel.size() + ")");
+            }
+            return process(channel, target, start, end, linesBefore, startNanos);
+        }
+    }
+
+    // Offset just after the last '\n' of the file, i.e. where an unfinished last line (if any) starts
+    public static long endOfLastLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - BOUNDARY_SCAN_SIZE);
+                buffer.clear();
+                buffer.limit((int) (end - start));
+                int read = 0;
+                while (buffer.hasRemaining() && read >= 0) {
+                    read = channel.read(buffer, start + buffer.position());
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Splits the whole file into at most {@code parts} byte ranges of about equal size, each {@code [start, end)}
+     * starting at the beginning of a line, e.g. one per worker process. Fewer ranges come back for a small file.
+     */
+    public static List<long[]> splitRanges(Path file, int parts) throws IOException {
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be at least 1");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> ranges = new ArrayList<>(parts);
+            long start = 0;
+            for (int part = 1; part <= parts && start < size; part++) {
+                long end = part == parts ? size : nextLineStart(channel, Math.max(start, size / parts * part), size);
+                if (end > start) {
+                    ranges.add(new long[]{start, end});
+                }
+                start = end;
+            }
+            return ranges;
+        }
+    }
+
+    private Result process(FileChannel channel, AggregatorSet target, long start, long end, long linesBefore,
+                           long startNanos) throws IOException {
+        List<long[]> chunks = splitChunks(channel, start, end);
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, chunks.size())));
+        try {
+            List<Future<ChunkResult>> futures = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks) {
+                futures.add(pool.submit(() -> parseChunk(channel, chunk[0], chunk[1], target.newShard())));
+            }
+
+            // Merge in chunk order so line numbers and sample order match the sequential path
+            long lineOffset = linesBefore;
+            for (Future<ChunkResult> future : futures) {
+                ChunkResult chunkResult = await(future);
+                target.merge(chunkResult.shard);
+                chunkResult.reports.report(lineOffset);
+                lineOffset += chunkResult.lineCount;
+            }
+            return new Result(lineOffset - linesBefore, end - start, System.nanoTime() - startNanos, threads);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Chunk boundaries as [start, end) pairs, every end except the last sits just after a '\n'
+    List<long[]> splitChunks(FileChannel channel, long size) throws IOException {
+        return splitChunks(channel, 0, size);
+    }
+
+    List<long[]> splitChunks(FileChannel channel, long start, long end) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        while (start < end) {
+            long chunkEnd = Math.min(start + chunkSize, end);
+            if (chunkEnd < end) {
+                chunkEnd = nextLineStart(channel, chunkEnd, end);
+            }
+            if (chunkEnd - start > Integer.MAX_VALUE) {
+                throw new IOException("Line starting near byte " + start + " is too long to map");
+            }
+            chunks.add(new long[]{start, chunkEnd});
+            start = chunkEnd;
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private ChunkResult parseChunk(FileChannel channel, long start, long end, AggregatorSet shard) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        ChunkResult result = new ChunkResult(shard, diagnostics.deferred());
+        LogHandler lineHandler = handlerFactory.apply(result.shard, result.reports);
+
+        byte[] lineBytes = new byte[256];
+        int limit = mapped.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && mapped.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - lineStart;
+            if (length > 0 && mapped.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+            if (length > lineBytes.length) {
+                lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+            }
+            mapped.get(lineStart, lineBytes, 0, length);
+            String line = new String(lineBytes, 0, length, charset);
+
+            result.lineCount++;
+            if (!line.trim().isEmpty() && !lineHandler.handle(line)) {
+                result.reports.unmatched(null, result.lineCount, line);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static ChunkResult await(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for chunk workers", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Chunk worker failed: " + cause, cause);
+        }
+    }
+
+    private static class ChunkResult {
+        private final AggregatorSet shard;
+        private final Diagnostics.Deferred reports;
+        private long lineCount;
+
+        ChunkResult(AggregatorSet shard, Diagnostics.Deferred reports) {
+            this.shard = shard;
+            this.reports = reports;
+        }
+    }
+
+    /**
+     * Summary of one ingestion run, used for throughput reporting.
+     */
+    public static class Result {
+        private final long lineCount;
+        private final long byteCount;
+        private final long elapsedNanos;
+        private final int threads;
+
+        Result(long lineCount, long byteCount, long elapsedNanos, int threads) {
+            this.lineCount = lineCount;
+            this.byteCount = byteCount;
+            this.elapsedNanos = elapsedNanos;
+            this.threads = threads;
+        }
+
+        public long getLineCount() {
+            return lineCount;
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getLinesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : lineCount * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Processed %d lines (%.1f MB) in %d ms: %.0f lines/sec on %d worker thread(s)",
+                    lineCount, byteCount / (1024.0 * 1024.0), elapsedNanos / 1_000_000, getLinesPerSecond(), threads);
+        }
+    }
+}
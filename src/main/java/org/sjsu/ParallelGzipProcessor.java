@@ -0,0 +1,371 @@
+package org.sjsu;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Parses a multi-member gzip file (e.g. several rotations concatenated with {@code cat}) by
+ * decompressing its members in parallel, each into its own {@link AggregatorSet} shard.
+ * <p>
+ * Member boundaries are not indexed in the gzip format, so every occurrence of the header bytes
+ * {@code 1f 8b 08} is tried as a member start. Starting from byte 0, each member's end (checked against
+ * its CRC-32 and length trailer) must be the next candidate actually used; work started at candidates
+ * that turn out to lie inside a member is thrown away. Lines that span two members are stitched
+ * together when the shards are merged. If the members do not line up, e.g. because of trailing garbage,
+ * the file is read with a single streaming decompressor instead. Each member's unmatched and malformed
+ * lines are only reported when its shard is merged, so work thrown away is never counted.
+ * <p>
+ * A mapping holds at most 2 GB, so larger files are mapped in windows. Each window after the first starts
+ * where the last member completed in the previous one ended; a single member larger than a window can
+ * only be read by the streaming decompressor.
+ */
+public class ParallelGzipProcessor extends LogProcessor<ParallelGzipProcessor> {
+
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int FLAG_HCRC = 0x02;
+    private static final int FLAG_EXTRA = 0x04;
+    private static final int FLAG_NAME = 0x08;
+    private static final int FLAG_COMMENT = 0x10;
+    private static final int FLAG_RESERVED = 0xe0;
+
+    private final int threads;
+    private int windowSize = Integer.MAX_VALUE;
+
+    public ParallelGzipProcessor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    // Largest mapping, Integer.MAX_VALUE by default; smaller in tests
+    ParallelGzipProcessor withWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public ParallelFileProcessor.Result process(Path file, AggregatorSet target) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<MemberResult> members = new ArrayList<>();
+            long windowStart = 0;
+            while (windowStart < size) {
+                long windowEnd = Math.min(size, windowStart + windowSize);
+                MappedByteBuffer compressed = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+                List<MemberResult> windowMembers = decompressMembers(compressed, findCandidates(compressed), target,
+                        windowEnd == size);
+                if (windowMembers == null) {
+                    return processStreaming(file, target, size, startNanos);
+                }
+                members.addAll(windowMembers);
+                windowStart += windowMembers.get(windowMembers.size() - 1).end;
+            }
+            long lineCount = mergeMembers(members, target);
+            return new ParallelFileProcessor.Result(lineCount, size, System.nanoTime() - startNanos, threads);
+        }
+    }
+
+    // Positions of 1f 8b 08 (gzip magic plus the deflate method), in file order
+    static List<Integer> findCandidates(ByteBuffer compressed) {
+        List<Integer> candidates = new ArrayList<>();
+        int limit = compressed.limit() - 2;
+        for (int i = 0; i < limit; i++) {
+            if ((compressed.get(i) & 0xff) == CompressedInput.GZIP_MAGIC_1
+                    && (compressed.get(i + 1) & 0xff) == CompressedInput.GZIP_MAGIC_2
+                    && compressed.get(i + 2) == 8) {
+                candidates.add(i);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Decompresses from every candidate in parallel and returns the chain of real members, or null. Unless
+     * lastWindow, the chain may stop early at a member that runs past the end of the window, which the next
+     * window retries from its start; it still needs at least one member.
+     */
+    private List<MemberResult> decompressMembers(ByteBuffer compressed, List<Integer> candidates, AggregatorSet target,
+                                                 boolean lastWindow) throws IOException {
+        if (candidates.isEmpty() || candidates.get(0) != 0) {
+            return null;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, candidates.size()));
+        try {
+            List<Future<MemberResult>> futures = new ArrayList<>(candidates.size());
+            for (int start : candidates) {
+                futures.add(pool.submit(() -> decompressMember(compressed, start, target.newShard())));
+            }
+
+            List<MemberResult> members = new ArrayList<>();
+            int next = 0;
+            while (next < candidates.size()) {
+                MemberResult member = await(futures.get(next));
+                if (member == null) {
+                    // Invalid, or cut off by the end of the window
+                    return lastWindow || members.isEmpty() ? null : members;
+                }
+                members.add(member);
+                // Candidates inside this member were false positives; stop their work
+                int following = next + 1;
+                while (following < candidates.size() && candidates.get(following) < member.end) {
+                    futures.get(following++).cancel(true);
+                }
+                if (member.end == compressed.limit() || (!lastWindow && following == candidates.size())) {
+                    return members;
+                }
+                if (following == candidates.size() || candidates.get(following) != member.end) {
+                    return null; // Something other than a member follows, let the streaming reader decide
+                }
+                next = following;
+            }
+            return null;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Inflates the member starting at start and parses its complete lines; null if it is not a valid member
+    private MemberResult decompressMember(ByteBuffer compressed, int start, AggregatorSet shard) {
+        int dataStart = skipHeader(compressed, start);
+        if (dataStart < 0) {
+            return null;
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            ByteBuffer input = compressed.duplicate();
+            input.position(dataStart);
+            inflater.setInput(input);
+
+            Diagnostics.Deferred reports = diagnostics.deferred();
+            MemberResult result = new MemberResult(shard, handlerFactory.apply(shard, reports), reports);
+            CRC32 crc = new CRC32();
+            byte[] output = new byte[OUTPUT_BUFFER_SIZE];
+            long inflatedSize = 0;
+            while (!inflater.finished()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                int inflated = inflater.inflate(output);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return null; // Truncated member
+                }
+                crc.update(output, 0, inflated);
+                inflatedSize += inflated;
+                result.accept(output, inflated, charset);
+            }
+
+            int trailer = input.limit() - inflater.getRemaining();
+            if (trailer + 8 > compressed.limit()) {
+                return null;
+            }
+            ByteBuffer trailerBytes = compressed.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            long storedCrc = trailerBytes.getInt(trailer) & 0xffffffffL;
+            long storedSize = trailerBytes.getInt(trailer + 4) & 0xffffffffL;
+            if (storedCrc != crc.getValue() || storedSize != (inflatedSize & 0xffffffffL)) {
+                return null;
+            }
+            result.end = trailer + 8;
+            return result.finish();
+        } catch (DataFormatException e) {
+            return null; // Not the start of a member after all
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Offset of the deflate data after the member header at start, or -1 if there is no valid header
+    private static int skipHeader(ByteBuffer compressed, int start) {
+        int limit = compressed.limit();
+        if (start + 10 > limit) {
+            return -1;
+        }
+        int flags = compressed.get(start + 3) & 0xff;
+        if ((flags & FLAG_RESERVED) != 0) {
+            return -1;
+        }
+        int position = start + 10;
+        if ((flags & FLAG_EXTRA) != 0) {
+            if (position + 2 > limit) {
+                return -1;
+            }
+            position += 2 + ((compressed.get(position) & 0xff) | (compressed.get(position + 1) & 0xff) << 8);
+        }
+        if ((flags & FLAG_NAME) != 0) {
+            position = skipZeroTerminated(compressed, position);
+        }
+        if ((flags & FLAG_COMMENT) != 0) {
+            position = skipZeroTerminated(compressed, position);
+        }
+        if ((flags & FLAG_HCRC) != 0) {
+            position += 2;
+        }
+        return position >= 0 && position <= limit ? position : -1;
+    }
+
+    private static int skipZeroTerminated(ByteBuffer compressed, int position) {
+        if (position < 0) {
+            return -1;
+        }
+        while (position < compressed.limit()) {
+            if (compressed.get(position++) == 0) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    // Merges the shards in member order and parses the lines that were split across members
+    private long mergeMembers(List<MemberResult> members, AggregatorSet target) {
+        LogHandler stitchedLineHandler = handlerFactory.apply(target, diagnostics);
+        ByteArrayOutputStream carry = new ByteArrayOutputStream();
+        long lineCount = 0;
+        for (MemberResult member : members) {
+            target.merge(member.shard);
+            if (!member.sawNewline) {
+                carry.write(member.head, 0, member.head.length);
+                continue;
+            }
+            carry.write(member.head, 0, member.head.length);
+            lineCount++;
+            handleStitched(carry, lineCount, stitchedLineHandler);
+            member.reports.report(lineCount);
+            lineCount += member.lineCount;
+            carry.reset();
+            carry.write(member.tail, 0, member.tail.length);
+        }
+        if (carry.size() > 0) {
+            lineCount++; // Last line without a trailing newline
+            handleStitched(carry, lineCount, stitchedLineHandler);
+        }
+        return lineCount;
+    }
+
+    private void handleStitched(ByteArrayOutputStream bytes, long lineNum, LogHandler lineHandler) {
+        String line = decodeLine(bytes.toByteArray(), 0, bytes.size(), charset);
+        if (!line.trim().isEmpty() && !lineHandler.handle(line)) {
+            diagnostics.unmatched(null, lineNum, line);
+        }
+    }
+
+    private ParallelFileProcessor.Result processStreaming(Path file, AggregatorSet target, long size, long startNanos)
+            throws IOException {
+        LogHandler lineHandler = handlerFactory.apply(target, diagnostics);
+        long lineCount = 0;
+        try (BufferedReader reader = CompressedInput.newBufferedReader(file, charset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                if (!line.trim().isEmpty() && !lineHandler.handle(line)) {
+                    diagnostics.unmatched(null, lineCount, line);
+                }
+            }
+        }
+        return new ParallelFileProcessor.Result(lineCount, size, System.nanoTime() - startNanos, 1);
+    }
+
+    // Drops the '\r' of a "\r\n" line ending, like BufferedReader.readLine
+    private static String decodeLine(byte[] bytes, int offset, int length, Charset charset) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, offset, length, charset);
+    }
+
+    private static MemberResult await(Future<MemberResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for gzip workers", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Gzip worker failed: " + cause, cause);
+        }
+    }
+
+    /**
+     * What one member decompressed to: a shard with its complete lines, plus the bytes before its first
+     * and after its last newline, which may belong to lines continuing in the neighbouring members.
+     */
+    private static class MemberResult {
+        private final AggregatorSet shard;
+        private final LogHandler lineHandler;
+        private final Diagnostics.Deferred reports;
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private byte[] head;
+        private byte[] tail;
+        private boolean sawNewline;
+        private long lineCount; // complete lines between head and tail
+        private int end;
+
+        MemberResult(AggregatorSet shard, LogHandler lineHandler, Diagnostics.Deferred reports) {
+            this.shard = shard;
+            this.lineHandler = lineHandler;
+            this.reports = reports;
+        }
+
+        void accept(byte[] bytes, int length, Charset charset) {
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (!sawNewline) {
+                    pending.write(bytes, lineStart, i - lineStart);
+                    head = pending.toByteArray();
+                    sawNewline = true;
+                } else if (pending.size() == 0) {
+                    handle(decodeLine(bytes, lineStart, i - lineStart, charset));
+                } else {
+                    // The line started in the previous output buffer
+                    pending.write(bytes, lineStart, i - lineStart);
+                    handle(decodeLine(pending.toByteArray(), 0, pending.size(), charset));
+                }
+                pending.reset();
+                lineStart = i + 1;
+            }
+            pending.write(bytes, lineStart, length - lineStart);
+        }
+
+        private void handle(String line) {
+            lineCount++;
+            if (!line.trim().isEmpty() && !lineHandler.handle(line)) {
+                reports.unmatched(null, lineCount, line);
+            }
+        }
+
+        MemberResult finish() {
+            if (sawNewline) {
+                tail = pending.toByteArray();
+            } else {
+                head = pending.toByteArray();
+                tail = new byte[0];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package org.sjsu;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Processes a log file as a staged pipeline so disk reads and parsing overlap:
+ * <pre>
+ *   reader --[bounded batch queue]--> parser 1 .. parser N (each with its own AggregatorSet shard)
+ * </pre>
+ * The reader fills batches of lines and blocks when the queue is full (backpressure), parsers block when
+ * it is empty. Each stage records how long it spent blocked, so the stage that never waits is the
+ * bottleneck. The shards are merged into the target once the file has been read. Unmatched and malformed
+ * lines are reported a batch at a time in batch order, so they come out as in a sequential run.
+ */
+public class PipelineProcessor extends LogProcessor<PipelineProcessor> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    // Tells a parser that the reader is done
+    private static final Batch END_OF_INPUT = new Batch(-1, 0, new String[0], 0);
+
+    private final int parsers;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public PipelineProcessor(int parsers) {
+        this(parsers, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public PipelineProcessor(int parsers, int batchSize, int queueCapacity) {
+        if (parsers < 1) {
+            throw new IllegalArgumentException("parsers must be at least 1");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+        this.parsers = parsers;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Result process(Path file, AggregatorSet target) throws IOException {
+        long startNanos = System.nanoTime();
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ReportSequencer sequencer = new ReportSequencer();
+
+        List<ParserStage> stages = new ArrayList<>(parsers);
+        List<Thread> threads = new ArrayList<>(parsers);
+        for (int i = 0; i < parsers; i++) {
+            ParserStage stage = new ParserStage("parser-" + (i + 1), queue, target.newShard(), sequencer);
+            stages.add(stage);
+            Thread thread = new Thread(stage, "log-" + stage.stats.name);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+
+        // The calling thread is the reader stage
+        StageStats readerStats = new StageStats("reader");
+        long lineCount = 0;
+        try {
+            lineCount = read(file, queue, readerStats);
+        } finally {
+            for (int i = 0; i < parsers; i++) {
+                putUninterruptibly(queue, END_OF_INPUT);
+            }
+            for (Thread thread : threads) {
+                joinUninterruptibly(thread);
+            }
+        }
+
+        List<StageStats> stageStats = new ArrayList<>(parsers + 1);
+        stageStats.add(readerStats);
+        for (ParserStage stage : stages) {
+            if (stage.failure != null) {
+                throw new IOException("Parser stage " + stage.stats.name + " failed: " + stage.failure, stage.failure);
+            }
+            target.merge(stage.shard);
+            stageStats.add(stage.stats);
+        }
+        return new Result(lineCount, System.nanoTime() - startNanos, batchSize, queueCapacity, stageStats);
+    }
+
+    private long read(Path file, BlockingQueue<Batch> queue, StageStats stats) throws IOException {
+        long lineCount = 0;
+        long batchCount = 0;
+        try (BufferedReader reader = CompressedInput.newBufferedReader(file, charset)) {
+            String[] lines = new String[batchSize];
+            int size = 0;
+            long batchStart = System.nanoTime();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines[size++] = line;
+                lineCount++;
+                if (size == batchSize) {
+                    stats.busyNanos += System.nanoTime() - batchStart;
+                    put(queue, new Batch(batchCount++, lineCount - size + 1, lines, size), stats);
+                    lines = new String[batchSize];
+                    size = 0;
+                    batchStart = System.nanoTime();
+                }
+            }
+            stats.busyNanos += System.nanoTime() - batchStart;
+            if (size > 0) {
+                put(queue, new Batch(batchCount, lineCount - size + 1, lines, size), stats);
+            }
+        }
+        return lineCount;
+    }
+
+    // Hands a batch to the parsers; the time spent waiting for room is the reader's stall time
+    private static void put(BlockingQueue<Batch> queue, Batch batch, StageStats stats) throws IOException {
+        stats.recordQueueDepth(queue.size());
+        long waitStart = System.nanoTime();
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing lines for the parsers", e);
+        }
+        stats.stallNanos += System.nanoTime() - waitStart;
+        stats.batches++;
+        stats.lines += batch.size;
+    }
+
+    private static void putUninterruptibly(BlockingQueue<Batch> queue, Batch batch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(batch);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class ParserStage implements Runnable {
+        private final StageStats stats;
+        private final BlockingQueue<Batch> queue;
+        private final AggregatorSet shard;
+        private final ReportSequencer sequencer;
+        private volatile Throwable failure;
+
+        ParserStage(String name, BlockingQueue<Batch> queue, AggregatorSet shard, ReportSequencer sequencer) {
+            this.stats = new StageStats(name);
+            this.queue = queue;
+            this.shard = shard;
+            this.sequencer = sequencer;
+        }
+
+        @Override
+        public void run() {
+            Diagnostics.Deferred reports = diagnostics.deferred();
+            LogHandler lineHandler = handlerFactory.apply(shard, reports);
+            while (true) {
+                long waitStart = System.nanoTime();
+                Batch batch;
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    failure = e;
+                    return;
+                }
+                long workStart = System.nanoTime();
+                stats.stallNanos += workStart - waitStart;
+                if (batch == END_OF_INPUT) {
+                    return;
+                }
+                if (failure != null) {
+                    // Keep draining so the reader never blocks on a dead stage, nor later batches on this one
+                    sequencer.complete(batch.index, reports.drain());
+                    continue;
+                }
+                try {
+                    parse(batch, lineHandler, reports);
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                sequencer.complete(batch.index, reports.drain());
+                stats.busyNanos += System.nanoTime() - workStart;
+                stats.batches++;
+                stats.lines += batch.size;
+            }
+        }
+
+        private void parse(Batch batch, LogHandler lineHandler, Diagnostics.Deferred reports) {
+            for (int i = 0; i < batch.size; i++) {
+                String line = batch.lines[i];
+                if (!line.trim().isEmpty() && !lineHandler.handle(line)) {
+                    reports.unmatched(null, batch.firstLineNumber + i, line);
+                }
+            }
+        }
+    }
+
+    // Reports each batch once every earlier batch has been reported, however the parsers interleave
+    private static class ReportSequencer {
+        private final Map<Long, Diagnostics.Deferred> waiting = new HashMap<>();
+        private long next;
+
+        synchronized void complete(long batchIndex, Diagnostics.Deferred reports) {
+            waiting.put(batchIndex, reports);
+            Diagnostics.Deferred ready;
+            while ((ready = waiting.remove(next)) != null) {
+                ready.report(0); // Batches carry their line numbers
+                next++;
+            }
+        }
+    }
+
+    private static class Batch {
+        private final long index;
+        private final long firstLineNumber;
+        private final String[] lines;
+        private final int size;
+
+        Batch(long index, long firstLineNumber, String[] lines, int size) {
+            this.index = index;
+            this.firstLineNumber = firstLineNumber;
+            this.lines = lines;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Counters for one stage. Busy time is spent working, stall time blocked on the queue: the reader
+     * stalls when the queue is full, a parser when it is empty.
+     */
+    public static class StageStats {
+        private final String name;
+        private long batches;
+        private long lines;
+        private long busyNanos;
+        private long stallNanos;
+        private long queueDepthSamples;
+        private long queueDepthTotal;
+        private int maxQueueDepth;
+
+        StageStats(String name) {
+            this.name = name;
+        }
+
+        private void recordQueueDepth(int depth) {
+            queueDepthSamples++;
+            queueDepthTotal += depth;
+            maxQueueDepth = Math.max(maxQueueDepth, depth);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        public long getStallNanos() {
+            return stallNanos;
+        }
+
+        // Queue depth the reader saw before each put; 0 for parser stages
+        public double getAverageQueueDepth() {
+            return queueDepthSamples == 0 ? 0.0 : (double) queueDepthTotal / queueDepthSamples;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        @Override
+        public String toString() {
+            String summary = String.format("%-9s %6d batches %9d lines  busy %6d ms  stalled %6d ms",
+                    name, batches, lines, busyNanos / 1_000_000, stallNanos / 1_000_000);
+            if (queueDepthSamples > 0) {
+                summary += String.format("  queue depth avg %.1f max %d", getAverageQueueDepth(), maxQueueDepth);
+            }
+            return summary;
+        }
+    }
+
+    /**
+     * Summary of one pipeline run: throughput plus the per-stage counters.
+     */
+    public static class Result {
+        private final long lineCount;
+        private final long elapsedNanos;
+        private final int batchSize;
+        private final int queueCapacity;
+        private final List<StageStats> stages;
+
+        Result(long lineCount, long elapsedNanos, int batchSize, int queueCapacity, List<StageStats> stages) {
+            this.lineCount = lineCount;
+            this.elapsedNanos = elapsedNanos;
+            this.batchSize = batchSize;
+            this.queueCapacity = queueCapacity;
+            this.stages = stages;
+        }
+
+        public long getLineCount() {
+            return lineCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getLinesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : lineCount * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        // The reader first, then one entry per parser
+        public List<StageStats> getStages() {
+            return stages;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder(String.format(
+                    "Processed %d lines in %d ms: %.0f lines/sec through %d parser stage(s), batch size %d, queue capacity %d",
+                    lineCount, elapsedNanos / 1_000_000, getLinesPerSecond(), stages.size() - 1, batchSize, queueCapacity));
+            for (StageStats stage : stages) {
+                summary.append(System.lineSeparator()).append("  ").append(stage);
+            }
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.sjsu;
+
+/**
+ * Builds a page in the Prometheus text exposition format (version 0.0.4), served by {@link MetricsEndpoint}.
+ * Each metric family is started with {@link #family}, which writes its HELP and TYPE lines, followed by
+ * its samples. Label values are escaped; names are written as given.
+ */
+final class PrometheusOutput {
+
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    static final String PREFIX = "log_processor_";
+
+    // Upper bounds of the request latency histogram buckets, in milliseconds as the response times are counted,
+    // and the same bounds in seconds as they are exposed
+    static final double[] LATENCY_BUCKETS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    static final double[] LATENCY_BUCKETS_SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final StringBuilder text = new StringBuilder(4096);
+
+    // name without PREFIX; type is counter, gauge or histogram
+    PrometheusOutput family(String name, String type, String help) {
+        text.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    // labels are name, value pairs
+    PrometheusOutput sample(String name, double value, String... labels) {
+        text.append(PREFIX).append(name);
+        for (int i = 0; i < labels.length; i += 2) {
+            text.append(i == 0 ? '{' : ',').append(labels[i]).append("=\"");
+            appendEscaped(labels[i + 1]);
+            text.append('"');
+        }
+        if (labels.length > 0) {
+            text.append('}');
+        }
+        text.append(' ').append(formatValue(value)).append('\n');
+        return this;
+    }
+
+    // The buckets, sum and count of one histogram; counts come from RequestRouteStats#cumulativeCounts
+    PrometheusOutput histogram(String name, double[] bounds, long[] counts, double sum, String label, String value) {
+        for (int i = 0; i < bounds.length; i++) {
+            sample(name + "_bucket", counts[i], label, value, "le", formatValue(bounds[i]));
+        }
+        sample(name + "_bucket", counts[bounds.length], label, value, "le", "+Inf");
+        sample(name + "_sum", sum, label, value);
+        return sample(name + "_count", counts[bounds.length], label, value);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    // Whole numbers without a fraction, e.g. counts; Go's ParseFloat reads Double.toString's exponent form
+    static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    // Backslash, double quote and line feed are the only characters escaped in label values
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                text.append('\\').append(c);
+            } else if (c == '\n') {
+                text.append("\\n");
+            } else {
+                text.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.sjsu;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fixed-size streaming quantile sketch with a relative-error guarantee (DDSketch-style log buckets).
+ * <p>
+ * A non-negative value {@code v} is counted in bucket {@code ceil(log(v) / log(gamma))} with
+ * {@code gamma = (1 + e) / (1 - e)}; every value in a bucket is within relative error {@code e} of the
+ * bucket's representative value. Inserts are O(1) and memory is capped at {@code maxBuckets} counters:
+ * when the range of values would need more, the lowest buckets are collapsed into one, which only
+ * affects the accuracy of the lowest quantiles.
+ */
+public class QuantileSketch implements MergeableAggregator<QuantileSketch> {
+
+    public static final double DEFAULT_RELATIVE_ERROR = 0.01;
+    public static final int DEFAULT_MAX_BUCKETS = 2048;
+    // Values below this are counted as zero
+    private static final double MIN_INDEXABLE_VALUE = 1e-9;
+    private static final int INITIAL_BUCKETS = 64;
+
+    private final double relativeError;
+    private final double logGamma;
+    private final double gamma;
+    private final int maxBuckets;
+
+    private long[] counts = new long[0];
+    private int offset;      // bucket index stored in counts[0]
+    private int minIndex;    // lowest bucket index in use
+    private int maxIndex;    // highest bucket index in use
+    private long zeroCount;
+    private long indexedCount; // values counted in buckets rather than as zero
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ERROR, DEFAULT_MAX_BUCKETS);
+    }
+
+    public QuantileSketch(double relativeError) {
+        this(relativeError, DEFAULT_MAX_BUCKETS);
+    }
+
+    public QuantileSketch(double relativeError, int maxBuckets) {
+        if (!(relativeError > 0 && relativeError < 1)) {
+            throw new IllegalArgumentException("relativeError must be between 0 and 1 (exclusive)");
+        }
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("maxBuckets must be at least 1");
+        }
+        this.relativeError = relativeError;
+        this.gamma = (1 + relativeError) / (1 - relativeError);
+        this.logGamma = Math.log(gamma);
+        this.maxBuckets = maxBuckets;
+    }
+
+    public void add(double value) {
+        if (value < 0 || Double.isNaN(value)) {
+            throw new IllegalArgumentException("QuantileSketch only accepts non-negative values: " + value);
+        }
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount++;
+        } else {
+            increment(bucketIndex(value), 1);
+        }
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getRelativeError() {
+        return relativeError;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Estimates the quantile {@code q} (0..1) with the same linear interpolation between closest ranks
+     * as the R-7 estimator: position {@code q * (n - 1)} between the two neighbouring ranks.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            throw new IllegalStateException("Cannot compute a quantile of an empty sketch");
+        }
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("q must be between 0 and 1");
+        }
+        double position = q * (count - 1);
+        long lowerRank = (long) Math.floor(position);
+        double lower = valueAtRank(lowerRank);
+        double fraction = position - lowerRank;
+        if (fraction == 0 || lowerRank + 1 >= count) {
+            return lower;
+        }
+        double upper = valueAtRank(lowerRank + 1);
+        return lower + fraction * (upper - lower);
+    }
+
+    @Override
+    public void merge(QuantileSketch other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        if (other.relativeError != this.relativeError) {
+            throw new IllegalArgumentException("Cannot merge sketches with different relative errors: "
+                    + this.relativeError + " vs " + other.relativeError);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        if (other.indexedCount > 0) {
+            for (int index = other.minIndex; index <= other.maxIndex; index++) {
+                long bucketCount = other.counts[index - other.offset];
+                if (bucketCount > 0) {
+                    increment(index, bucketCount);
+                }
+            }
+        }
+    }
+
+    // Binary state for checkpoints: settings, zero count, then the non-empty buckets as (index, count) pairs
+    void writeState(DataOutput out) throws IOException {
+        out.writeDouble(relativeError);
+        out.writeInt(maxBuckets);
+        out.writeLong(zeroCount);
+        int used = 0;
+        if (indexedCount > 0) {
+            for (int index = minIndex; index <= maxIndex; index++) {
+                if (counts[index - offset] > 0) {
+                    used++;
+                }
+            }
+        }
+        out.writeInt(used);
+        if (indexedCount > 0) {
+            for (int index = minIndex; index <= maxIndex; index++) {
+                long bucketCount = counts[index - offset];
+                if (bucketCount > 0) {
+                    out.writeInt(index);
+                    out.writeLong(bucketCount);
+                }
+            }
+        }
+    }
+
+    static QuantileSketch readState(DataInput in) throws IOException {
+        QuantileSketch sketch;
+        try {
+            sketch = new QuantileSketch(in.readDouble(), in.readInt());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid sketch settings: " + e.getMessage(), e);
+        }
+        sketch.zeroCount = in.readLong();
+        sketch.count = sketch.zeroCount;
+        int used = in.readInt();
+        for (int i = 0; i < used; i++) {
+            int index = in.readInt();
+            long bucketCount = in.readLong();
+            if (bucketCount <= 0) {
+                throw new IOException("Invalid bucket count " + bucketCount);
+            }
+            sketch.increment(index, bucketCount);
+            sketch.count += bucketCount;
+        }
+        return sketch;
+    }
+
+    // Number of values counted at or below value, as a histogram bucket would; the bucket holding value is
+    // counted whole, so the result is within the relative error, like the quantiles
+    long countAtMost(double value) {
+        if (value < MIN_INDEXABLE_VALUE || indexedCount == 0) {
+            return value < 0 ? 0 : zeroCount;
+        }
+        int last = Math.min(bucketIndex(value), maxIndex);
+        long seen = zeroCount;
+        for (int index = minIndex; index <= last; index++) {
+            seen += counts[index - offset];
+        }
+        return seen;
+    }
+
+    // Value at a 0-based rank in sorted order
+    private double valueAtRank(long rank) {
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+        long seen = zeroCount;
+        for (int index = minIndex; index <= maxIndex; index++) {
+            seen += counts[index - offset];
+            if (seen > rank) {
+                return representative(index);
+            }
+        }
+        return representative(maxIndex);
+    }
+
+    private int bucketIndex(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    // Midpoint (in relative terms) of bucket (gamma^(i-1), gamma^i]
+    private double representative(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private void increment(int index, long amount) {
+        if (indexedCount == 0) {
+            if (counts.length == 0) {
+                counts = new long[Math.min(INITIAL_BUCKETS, maxBuckets)];
+            }
+            offset = index - counts.length / 2;
+            minIndex = index;
+            maxIndex = index;
+        } else if (index < minIndex || index > maxIndex) {
+            index = extendRange(index);
+        }
+        counts[index - offset] += amount;
+        indexedCount += amount;
+    }
+
+    // Makes room for index, collapsing the lowest buckets if the range would exceed maxBuckets.
+    // Returns the index the value should actually be counted in.
+    private int extendRange(int index) {
+        int newMin = Math.min(minIndex, index);
+        int newMax = Math.max(maxIndex, index);
+        if ((long) newMax - newMin + 1 > maxBuckets) {
+            newMin = newMax - maxBuckets + 1;
+        }
+        if (newMin >= offset && newMax < offset + counts.length) {
+            // Fits in the current array
+            collapseBelow(newMin);
+            minIndex = newMin;
+            maxIndex = newMax;
+            return Math.max(index, newMin);
+        }
+
+        int needed = newMax - newMin + 1;
+        int length = Math.min(maxBuckets, Math.max(needed, counts.length * 2));
+        long[] resized = new long[length];
+        int newOffset = newMin - (length - needed) / 2;
+        long collapsed = 0;
+        for (int i = minIndex; i <= maxIndex; i++) {
+            long bucketCount = counts[i - offset];
+            if (i < newMin) {
+                collapsed += bucketCount;
+            } else {
+                resized[i - newOffset] = bucketCount;
+            }
+        }
+        resized[newMin - newOffset] += collapsed;
+        counts = resized;
+        offset = newOffset;
+        minIndex = newMin;
+        maxIndex = newMax;
+        return Math.max(index, newMin);
+    }
+
+    private void collapseBelow(int newMin) {
+        if (newMin <= minIndex) {
+            return;
+        }
+        long collapsed = 0;
+        for (int i = minIndex; i < newMin && i <= maxIndex; i++) {
+            collapsed += counts[i - offset];
+            counts[i - offset] = 0;
+        }
+        counts[newMin - offset] += collapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{relativeError=" + relativeError + ", count=" + count
+                + ", buckets=" + (indexedCount == 0 ? 0 : maxIndex - minIndex + 1)
+                + ", allocated=" + counts.length + "}";
+    }
+
+    // For tests: number of counters currently allocated
+    int allocatedBuckets() {
+        return counts.length;
+    }
+}
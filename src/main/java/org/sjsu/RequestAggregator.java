@@ -1,40 +1,119 @@
 package org.sjsu;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
-public class RequestAggregator {
-    private final Map<String, RequestRouteStats> requestStats;
-    private final Gson gson = new GsonBuilder().setPrettyPrinting().create(); // Pretty printing version
+public class RequestAggregator implements MergeableAggregator<RequestAggregator> {
+    private final RouteTable requestStats;
+    private final RouteNormalizer routeNormalizer;
 
     RequestAggregator(){
-        this.requestStats = new HashMap<>();
+        this(AggregatorConfig.DEFAULT);
+    }
 
+    RequestAggregator(AggregatorConfig config) {
+        this.requestStats = new RouteTable(config);
+        this.routeNormalizer = config.getRouteNormalizer();
     }
     // Methods for Handlers to Add Data
     public void addRequestData(String route, int statusCode, int responseTimeMs) {
-        RequestRouteStats stats = this.requestStats.computeIfAbsent(route, k -> new RequestRouteStats());
+        // e.g. /api/users/123?x=1 -> /api/users/{id} when routes are templated
+        RequestRouteStats stats = this.requestStats.statsFor(routeNormalizer.normalize(route));
         stats.addResponseTime(responseTimeMs);
         stats.addStatusCode(statusCode);
     }
 
+    @Override
+    public void merge(RequestAggregator other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        for (Map.Entry<String, RequestRouteStats> entry : other.requestStats.snapshot().entrySet()) {
+            this.requestStats.statsFor(entry.getKey()).merge(entry.getValue());
+        }
+        this.requestStats.addEvictedRoutes(other.requestStats.getEvictedRoutes());
+    }
+
+    // Routes moved into __other__ to keep the route table within its limit
+    public long getEvictedRoutes() {
+        return requestStats.getEvictedRoutes();
+    }
+
+    // Binary state for checkpoints: the number of routes, then each route and its stats, then the evicted routes
+    void writeState(DataOutput out) throws IOException {
+        Map<String, RequestRouteStats> routes = requestStats.snapshot();
+        out.writeInt(routes.size());
+        for (Map.Entry<String, RequestRouteStats> entry : routes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeState(out);
+        }
+        out.writeLong(requestStats.getEvictedRoutes());
+    }
+
+    // Merges state written by writeState into this aggregator
+    void readState(DataInput in) throws IOException {
+        int routes = in.readInt();
+        for (int i = 0; i < routes; i++) {
+            requestStats.statsFor(in.readUTF()).readState(in);
+        }
+        requestStats.addEvictedRoutes(in.readLong());
+    }
+
     // --- Methods for Final Aggregation & JSON Generation ---
     public String getRequestJson() {
-        Map<String, Map<String, Object>> requestResults = new HashMap<>();
-        for(Map.Entry<String, RequestRouteStats> entry : requestStats.entrySet()){
-            String route = entry.getKey();
-            RequestRouteStats stats = entry.getValue();
+        return JsonOutput.toJson(this::writeRequestJson);
+    }
+
+    // Streams request.json, finalizing a chunk of routes at a time
+    void writeRequestJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        JsonOutput.writeSorted(out, requestStats.snapshot(), RequestAggregator::routeResults);
+        out.endObject();
+    }
 
-            Map<String, Object> routeData = new HashMap<>();
-            routeData.put("response_times", stats.getResponseTimeStats());
-            routeData.put("status_codes", stats.getStatusCodeCategoryCounts());
+    // Latency histogram and status class counts per route, from counters and one pass per route; nothing is sorted
+    void writePrometheus(PrometheusOutput out) {
+        Map<String, RequestRouteStats> routes = new TreeMap<>(requestStats.snapshot());
+        // Prometheus base units: counted against the millisecond bounds, exposed in seconds
+        out.family("request_duration_seconds", "histogram", "Response times per route, in seconds."
+                + " With approximate percentiles each le bucket counts the whole sketch bucket holding its bound,"
+                + " so it may include times up to the relative error above le.");
+        routes.forEach((route, stats) -> out.histogram("request_duration_seconds",
+                PrometheusOutput.LATENCY_BUCKETS_SECONDS, stats.cumulativeCounts(PrometheusOutput.LATENCY_BUCKETS_MS),
+                stats.getResponseTimeSum() / 1000.0, "route", route));
+        out.family("requests_total", "counter", "Requests per route and status class.");
+        routes.forEach((route, stats) -> {
+            for (int statusClass : new int[]{2, 4, 5}) {
+                out.sample("requests_total", stats.getStatusClassCount(statusClass),
+                        "route", route, "status", statusClass + "XX");
+            }
+        });
+        out.family("evicted_routes_total", "counter", "Routes moved into __other__ to keep within --max-routes.");
+        out.sample("evicted_routes_total", getEvictedRoutes());
+    }
 
-            requestResults.put(route, routeData);
-        }
-        return gson.toJson(requestResults);
+    // The content of request.json, also used for each time window
+    Map<String, Map<String, Object>> getRequestResults() {
+        // Routes are independent, so their percentiles are computed in parallel, on the ForkJoinPool running
+        // the caller or the common pool. The list splits evenly, unlike the linked snapshot
+        return new ArrayList<>(requestStats.snapshot().entrySet()).parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> routeResults(entry.getValue()),
+                        (a, b) -> a, TreeMap::new));
+    }
+
+    private static Map<String, Object> routeResults(RequestRouteStats stats) {
+        Map<String, Object> routeData = new HashMap<>();
+        routeData.put("response_times", stats.getResponseTimeStats());
+        routeData.put("status_codes", stats.getStatusCodeCategoryCounts());
+        return routeData;
     }
 
 
@@ -1,24 +1,25 @@
 package org.sjsu;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-public class RequestLogHandler implements LogHandler {
+public class RequestLogHandler implements LogHandler, FieldLogHandler {
 
     private LogHandler nextHandler;
     private final RequestAggregator requestAggregator; // Store its specific aggregator
 
-    private static final Pattern REQ_LOG_PATTERN = Pattern.compile(
-            ".*?\\brequest_url=\"(?<url>[^\"]+)\".*?" +
-                    "\\bresponse_status=(?<status>\\d+).*?" +
-                    "\\bresponse_time_ms=(?<time>\\d+)\\b.*"
-    );
+    private final LogLineTokenizer tokenizer = new LogLineTokenizer(); // Reused for every line
+    // Canonical URLs, so a known URL is neither copied out of the line nor re-hashed by the aggregator
+    private final SymbolTable urls = new SymbolTable(SymbolTable.DEFAULT_CACHE_LIMIT);
+    private Diagnostics diagnostics = Diagnostics.console();
 
     // Constructor to inject the RequestAggregator
     public RequestLogHandler(RequestAggregator requestAggregator) {
         this.requestAggregator = requestAggregator;
     }
 
+    // Where status codes or times that cannot be parsed are reported
+    public void setDiagnostics(Diagnostics diagnostics) {
+        this.diagnostics = diagnostics;
+    }
+
     @Override
     public void setNext(LogHandler nextHandler) {
         this.nextHandler = nextHandler;
@@ -26,26 +27,35 @@ public class RequestLogHandler implements LogHandler {
 
     @Override
     public boolean handle(String logLine) { // Signature changed
-        Matcher matcher = REQ_LOG_PATTERN.matcher(logLine);
-
-        if (matcher.matches()) {
-            try {
-                String url = matcher.group("url");
-                int status = Integer.parseInt(matcher.group("status"));
-                int time = Integer.parseInt(matcher.group("time"));
-
-                this.requestAggregator.addRequestData(url, status, time);
-                return true; // Line handled by this handler
-            } catch (NumberFormatException e) {
-                System.err.println("Request Handler: Could not parse status or time in line: " + logLine);
-                return false; // Not successfully handled
-            } catch (IllegalArgumentException e) {
-                System.err.println("Request Handler: Error accessing named group in line: " + logLine);
-                return false; // Not successfully handled
-            }
+        if (handleFields(tokenizer.reset(logLine))) {
+            return true; // Line handled by this handler
         } else if (nextHandler != null) {
             return nextHandler.handle(logLine);
         }
         return false; // Not handled by this handler or any subsequent one
     }
+
+    @Override
+    public boolean handleFields(LogLineTokenizer fields) {
+        int urlField = fields.indexOf("request_url");
+        int statusField = fields.indexOf("response_status");
+        int timeField = fields.indexOf("response_time_ms");
+
+        // Needs a non-empty quoted URL and numeric status and time
+        if (urlField < 0 || !fields.isQuoted(urlField) || fields.valueLength(urlField) == 0
+                || statusField < 0 || !fields.isDigits(statusField)
+                || timeField < 0 || !fields.isDigits(timeField)) {
+            return false;
+        }
+        try {
+            int status = fields.parseInt(statusField);
+            int time = fields.parseInt(timeField);
+
+            this.requestAggregator.addRequestData(fields.value(urlField, urls), status, time);
+            return true;
+        } catch (NumberFormatException e) {
+            diagnostics.malformed("Request", "Could not parse status or time", fields.line().toString());
+            return false; // Not successfully handled
+        }
+    }
 }
\ No newline at end of file
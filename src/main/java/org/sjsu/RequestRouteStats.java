@@ -1,81 +1,214 @@
 package org.sjsu;
 
-// Import for Apache Commons Math Percentile
-import org.apache.commons.math3.stat.descriptive.rank.Percentile;
-
-import java.util.ArrayList;
-import java.util.Collections; // Keep for sorting for min/max
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 
-public class RequestRouteStats {
-    private final List<Integer> responseTimes = new ArrayList<>();
-    private final List<Integer> statusCodes = new ArrayList<>();
+public class RequestRouteStats implements MergeableAggregator<RequestRouteStats> {
+    private final IntArrayBuffer responseTimes; // null in approximate mode
+    // Counts per status class (index = code / 100), updated at insert time so reports cost O(1)
+    private final long[] statusClassCounts = new long[6];
+
+    // Approximate mode: constant-size sketch plus exact min/max instead of the responseTimes buffer
+    private final QuantileSketch responseTimeSketch;
+    private int minResponseTime = Integer.MAX_VALUE;
+    private int maxResponseTime = Integer.MIN_VALUE;
+    // Exact in both modes, for the histogram's _sum
+    private long responseTimeSum;
+
+    // Shared with the configuration, see AggregatorConfig#withPercentiles
+    private final double[] percentiles;
+    private final String[] percentileKeys;
+
+    // Exact mode, keeps every response time
+    public RequestRouteStats() {
+        this(AggregatorConfig.DEFAULT);
+    }
+
+    public RequestRouteStats(AggregatorConfig config) {
+        this.responseTimeSketch = config.isApproximate() ? config.newSketch() : null;
+        this.responseTimes = config.isApproximate() ? null : new IntArrayBuffer();
+        this.percentiles = config.percentileValues();
+        this.percentileKeys = config.percentileKeys();
+    }
 
     void addResponseTime(int time) {
-        this.responseTimes.add(time);
+        this.responseTimeSum += time;
+        if (responseTimeSketch != null) {
+            this.responseTimeSketch.add(time);
+            this.minResponseTime = Math.min(this.minResponseTime, time);
+            this.maxResponseTime = Math.max(this.maxResponseTime, time);
+        } else {
+            this.responseTimes.add(time);
+        }
+    }
+
+    // Number of requests, used to pick routes to evict
+    long getCount() {
+        return responseTimeSketch != null ? responseTimeSketch.getCount() : responseTimes.size();
     }
 
     void addStatusCode(int code) {
-        this.statusCodes.add(code);
+        if (code >= 0 && code < 600) {
+            this.statusClassCounts[code / 100]++;
+        }
+    }
+
+    @Override
+    public void merge(RequestRouteStats other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        if ((this.responseTimeSketch == null) != (other.responseTimeSketch == null)) {
+            throw new IllegalArgumentException("Cannot merge exact and approximate route stats");
+        }
+        if (responseTimeSketch != null) {
+            this.responseTimeSketch.merge(other.responseTimeSketch);
+            this.minResponseTime = Math.min(this.minResponseTime, other.minResponseTime);
+            this.maxResponseTime = Math.max(this.maxResponseTime, other.maxResponseTime);
+        } else {
+            this.responseTimes.addAll(other.responseTimes);
+        }
+        this.responseTimeSum += other.responseTimeSum;
+        for (int i = 0; i < statusClassCounts.length; i++) {
+            this.statusClassCounts[i] += other.statusClassCounts[i];
+        }
+    }
+
+    // Binary state for checkpoints; readState merges it into this instance, so both must use the same mode
+    void writeState(DataOutput out) throws IOException {
+        out.writeBoolean(responseTimeSketch != null);
+        if (responseTimeSketch != null) {
+            responseTimeSketch.writeState(out);
+            out.writeInt(minResponseTime);
+            out.writeInt(maxResponseTime);
+        } else {
+            responseTimes.writeState(out);
+        }
+        out.writeLong(responseTimeSum);
+        for (long statusClassCount : statusClassCounts) {
+            out.writeLong(statusClassCount);
+        }
+    }
+
+    void readState(DataInput in) throws IOException {
+        boolean approximate = in.readBoolean();
+        if (approximate != (responseTimeSketch != null)) {
+            throw new IOException("Stored route stats are " + (approximate ? "approximate" : "exact")
+                    + " but the aggregator is not");
+        }
+        if (responseTimeSketch != null) {
+            try {
+                responseTimeSketch.merge(QuantileSketch.readState(in));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+            minResponseTime = Math.min(minResponseTime, in.readInt());
+            maxResponseTime = Math.max(maxResponseTime, in.readInt());
+        } else {
+            responseTimes.readState(in);
+        }
+        responseTimeSum += in.readLong();
+        for (int i = 0; i < statusClassCounts.length; i++) {
+            statusClassCounts[i] += in.readLong();
+        }
     }
 
     // Calculate Response Time statistics
     public Map<String, Object> getResponseTimeStats() {
         Map<String, Object> stats = new HashMap<>();
-        if (responseTimes.isEmpty()) {
+        if (responseTimeSketch != null ? responseTimeSketch.isEmpty() : responseTimes.isEmpty()) {
             stats.put("min", 0);
-            stats.put("50_percentile", 0);
-            stats.put("90_percentile", 0);
-            stats.put("95_percentile", 0);
-            stats.put("99_percentile", 0);
+            for (String key : percentileKeys) {
+                stats.put(key, 0);
+            }
             stats.put("max", 0);
             return stats;
         }
 
-        // useful for min/max and percentiles
-        Collections.sort(responseTimes);
+        if (responseTimeSketch != null) {
+            stats.put("min", minResponseTime);
+            stats.put("max", maxResponseTime);
+            for (int i = 0; i < percentiles.length; i++) {
+                stats.put(percentileKeys[i], sketchPercentile(percentiles[i]));
+            }
+            return stats;
+        }
 
-        stats.put("min", responseTimes.get(0));
-        stats.put("max", responseTimes.get(responseTimes.size() - 1));
+        // Selects only the ranks the percentiles need, in place, instead of sorting every sample.
+        // Same R-7 interpolation (Excel's PERCENTILE.INC) as Commons Math's Percentile
+        int size = responseTimes.size();
+        int[] values = responseTimes.array();
+        double[] results = Selection.percentiles(values, 0, size, percentiles);
+        int min = values[0];
+        int max = values[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        stats.put("min", min);
+        stats.put("max", max);
+        for (int i = 0; i < percentiles.length; i++) {
+            stats.put(percentileKeys[i], results[i]);
+        }
+        return stats;
+    }
 
-        // Convert List<Integer> to double[] for Apache Commons Math
-        double[] responseTimesArray = responseTimes.stream()
-                .mapToDouble(Integer::doubleValue)
-                .toArray();
+    // Cumulative counts of the response times at or below each bound, plus the total count last, as in a
+    // Prometheus histogram. One pass over the samples without reordering them, or over the sketch's buckets
+    long[] cumulativeCounts(double[] bounds) {
+        long[] counts = new long[bounds.length + 1];
+        if (responseTimeSketch != null) {
+            for (int i = 0; i < bounds.length; i++) {
+                counts[i] = responseTimeSketch.countAtMost(bounds[i]);
+            }
+        } else {
+            int[] values = responseTimes.array();
+            for (int i = 0, size = responseTimes.size(); i < size; i++) {
+                int bucket = Arrays.binarySearch(bounds, values[i]);
+                counts[bucket >= 0 ? bucket : -bucket - 1]++; // First bound not below the value
+            }
+            for (int i = 1; i < counts.length; i++) {
+                counts[i] += counts[i - 1];
+            }
+        }
+        counts[bounds.length] = getCount();
+        return counts;
+    }
 
-        // The default constructor uses an estimation type R-7 (Excel's PERCENTILE.INC method)
-        Percentile percentileCalculator = new Percentile().withEstimationType(Percentile.EstimationType.R_7);
-        percentileCalculator.setData(responseTimesArray);
+    // Sum of the response times in milliseconds, exact in approximate mode too
+    long getResponseTimeSum() {
+        return responseTimeSum;
+    }
 
-        stats.put("50_percentile", percentileCalculator.evaluate(50.0));
-        stats.put("90_percentile", percentileCalculator.evaluate(90.0));
-        stats.put("95_percentile", percentileCalculator.evaluate(95.0));
-        stats.put("99_percentile", percentileCalculator.evaluate(99.0));
+    // Counts per status class (index = code / 100)
+    long getStatusClassCount(int statusClass) {
+        return statusClassCounts[statusClass];
+    }
 
-        return stats;
+    // Sketch estimates are clamped to the exact min/max so they never fall outside the observed range
+    private double sketchPercentile(double percentile) {
+        double estimate = responseTimeSketch.quantile(percentile / 100.0);
+        return Math.max(minResponseTime, Math.min(maxResponseTime, estimate));
     }
 
     // Calculate Status Code category counts
     public Map<String, Integer> getStatusCodeCategoryCounts() {
         Map<String, Integer> counts = new HashMap<>();
-        counts.put("2XX", 0);
-        counts.put("4XX", 0);
-        counts.put("5XX", 0);
-
-        for (int code : statusCodes) {
-            if (code >= 200 && code < 300) {
-                counts.put("2XX", counts.get("2XX") + 1);
-            } else if (code >= 400 && code < 500) {
-                counts.put("4XX", counts.get("4XX") + 1);
-            } else if (code >= 500 && code < 600) {
-                counts.put("5XX", counts.get("5XX") + 1);
-            }
-        }
+        counts.put("2XX", toCount(statusClassCounts[2]));
+        counts.put("4XX", toCount(statusClassCounts[4]));
+        counts.put("5XX", toCount(statusClassCounts[5]));
         return counts;
     }
 
+    // The JSON keeps int counts; saturate rather than wrap on absurdly large totals
+    private static int toCount(long count) {
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package org.sjsu;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a raw {@code request_url} into the route its stats are kept under, so URLs that only differ by
+ * ids or query strings share one entry, e.g. {@code /api/users/123?x=1} becomes {@code /api/users/{id}}.
+ * <ul>
+ *   <li>The query string and fragment are dropped.</li>
+ *   <li>A URL matching one of the templates becomes that template. In a template, a segment written as
+ *       {@code {name}} matches any single segment, e.g. {@code /api/orders/{order}/items}.</li>
+ *   <li>Otherwise every segment that looks like an id becomes {@value #ID}: all digits, a UUID, or a hex
+ *       string of at least 16 characters containing a digit.</li>
+ * </ul>
+ * {@link #RAW} keeps URLs exactly as logged. Instances are immutable and thread-safe.
+ */
+public class RouteNormalizer {
+
+    public static final String ID = "{id}";
+    public static final RouteNormalizer RAW = new RouteNormalizer(false, List.of());
+
+    private final boolean templated;
+    private final List<String[]> templates;     // Segments of each template
+    private final List<String> templateRoutes;  // The template as written
+
+    private RouteNormalizer(boolean templated, List<String> templates) {
+        this.templated = templated;
+        this.templates = new ArrayList<>(templates.size());
+        this.templateRoutes = List.copyOf(templates);
+        for (String template : templates) {
+            this.templates.add(template.split("/", -1));
+        }
+    }
+
+    // Drops query strings and replaces id segments
+    public static RouteNormalizer templated() {
+        return new RouteNormalizer(true, List.of());
+    }
+
+    // Same normalization, but URLs matching one of the templates are reported under that template
+    public static RouteNormalizer templated(List<String> templates) {
+        for (String template : templates) {
+            if (!template.startsWith("/")) {
+                throw new IllegalArgumentException("route templates must start with '/': " + template);
+            }
+        }
+        return new RouteNormalizer(true, templates);
+    }
+
+    public boolean isRaw() {
+        return !templated;
+    }
+
+    // The templates as written, in matching order
+    public List<String> getTemplates() {
+        return templateRoutes;
+    }
+
+    public String normalize(String url) {
+        if (!templated) {
+            return url;
+        }
+        int end = url.length();
+        for (int i = 0; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+            }
+        }
+        for (int t = 0; t < templates.size(); t++) {
+            if (matches(templates.get(t), url, end)) {
+                return templateRoutes.get(t);
+            }
+        }
+        return replaceIds(url, end);
+    }
+
+    // Rebuilds the path only if one of its segments is an id
+    private static String replaceIds(String url, int end) {
+        StringBuilder route = null;
+        int segmentStart = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || url.charAt(i) == '/') {
+                boolean id = isId(url, segmentStart, i);
+                if (id && route == null) {
+                    route = new StringBuilder(end).append(url, 0, segmentStart);
+                }
+                if (route != null) {
+                    if (id) {
+                        route.append(ID);
+                    } else {
+                        route.append(url, segmentStart, i);
+                    }
+                    if (i < end) {
+                        route.append('/');
+                    }
+                }
+                segmentStart = i + 1;
+            }
+        }
+        if (route != null) {
+            return route.toString();
+        }
+        return end == url.length() ? url : url.substring(0, end);
+    }
+
+    private static boolean matches(String[] template, String url, int end) {
+        int segmentStart = 0;
+        for (int s = 0; s < template.length; s++) {
+            if (segmentStart > end) {
+                return false; // The URL has fewer segments
+            }
+            int segmentEnd = url.indexOf('/', segmentStart);
+            if (segmentEnd < 0 || segmentEnd > end) {
+                segmentEnd = end;
+            }
+            String expected = template[s];
+            boolean wildcard = expected.length() > 2 && expected.charAt(0) == '{' && expected.charAt(expected.length() - 1) == '}';
+            if (wildcard ? segmentEnd == segmentStart
+                    : segmentEnd - segmentStart != expected.length() || !url.startsWith(expected, segmentStart)) {
+                return false;
+            }
+            segmentStart = segmentEnd + 1;
+        }
+        return segmentStart > end; // No segments left over
+    }
+
+    static boolean isId(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+        boolean digitsOnly = true;
+        boolean hexOnly = true;
+        boolean hasDigit = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            hasDigit |= digit;
+            digitsOnly &= digit;
+            hexOnly &= digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        }
+        return digitsOnly || (hexOnly && hasDigit && length >= 16) || isUuid(text, start, end);
+    }
+
+    // 8-4-4-4-12 hex digits
+    private static boolean isUuid(CharSequence text, int start, int end) {
+        if (end - start != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = text.charAt(start + i);
+            boolean dash = i == 8 || i == 13 || i == 18 || i == 23;
+            if (dash ? c != '-' : !((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package org.sjsu;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The stats of every route a {@link RequestAggregator} has seen, optionally bounded to
+ * {@link AggregatorConfig#getMaxRoutes()} routes so a flood of distinct URLs cannot exhaust memory.
+ * Nothing is ever lost from the totals: routes over the limit are folded into a single {@value #OTHER}
+ * route. What happens once the table is full depends on the {@link Eviction} policy.
+ * Not thread-safe; like the aggregators, every shard has its own.
+ */
+public class RouteTable {
+
+    public static final String OTHER = "__other__";
+
+    public enum Eviction {
+        // Routes seen after the table filled up go to __other__; the first routes keep their own stats
+        OVERFLOW,
+        // The least recently used route is moved into __other__ to make room
+        LRU,
+        // The least frequently used tenth of the routes is moved into __other__ at once, spreading the cost of finding them
+        LFU
+    }
+
+    private final AggregatorConfig config;
+    private final int maxRoutes;
+    private final Eviction eviction;
+    private final LinkedHashMap<String, RequestRouteStats> routes;
+    private RequestRouteStats other; // Created on the first overflow
+    private long evictedRoutes;
+
+    public RouteTable(AggregatorConfig config) {
+        this.config = config;
+        this.maxRoutes = config.getMaxRoutes();
+        this.eviction = config.getRouteEviction();
+        // Access order makes the eldest entry the least recently used one
+        this.routes = new LinkedHashMap<>(16, 0.75f, maxRoutes > 0 && eviction == Eviction.LRU);
+    }
+
+    // The stats to add a request of this route to; the __other__ stats if the route does not fit
+    public RequestRouteStats statsFor(String route) {
+        if (OTHER.equals(route)) {
+            return otherStats();
+        }
+        RequestRouteStats stats = routes.get(route);
+        if (stats != null) {
+            return stats;
+        }
+        if (maxRoutes > 0 && routes.size() >= maxRoutes) {
+            if (eviction == Eviction.OVERFLOW) {
+                return otherStats();
+            }
+            makeRoom();
+        }
+        stats = new RequestRouteStats(config);
+        routes.put(route, stats);
+        return stats;
+    }
+
+    // Every route with its stats, __other__ last; does not count as a use for LRU
+    public Map<String, RequestRouteStats> snapshot() {
+        Map<String, RequestRouteStats> all = new LinkedHashMap<>(routes);
+        if (other != null) {
+            all.put(OTHER, other);
+        }
+        return all;
+    }
+
+    public int size() {
+        return routes.size();
+    }
+
+    // Routes moved into __other__ by LRU or LFU eviction
+    public long getEvictedRoutes() {
+        return evictedRoutes;
+    }
+
+    // Counts the evictions of a merged or restored shard, whose routes are already in its __other__
+    void addEvictedRoutes(long count) {
+        evictedRoutes += count;
+    }
+
+    private void makeRoom() {
+        if (eviction == Eviction.LRU) {
+            Iterator<Map.Entry<String, RequestRouteStats>> eldest = routes.entrySet().iterator();
+            evict(eldest.next().getValue());
+            eldest.remove();
+            return;
+        }
+        // LFU: find the count below which a tenth of the routes fall; among equals, the oldest routes go first
+        int toEvict = Math.max(1, maxRoutes / 10);
+        List<Long> counts = new ArrayList<>(routes.size());
+        for (RequestRouteStats stats : routes.values()) {
+            counts.add(stats.getCount());
+        }
+        counts.sort(null);
+        long threshold = counts.get(toEvict - 1);
+        Iterator<RequestRouteStats> it = routes.values().iterator();
+        while (it.hasNext() && toEvict > 0) {
+            RequestRouteStats stats = it.next();
+            if (stats.getCount() <= threshold) {
+                evict(stats);
+                it.remove();
+                toEvict--;
+            }
+        }
+    }
+
+    private void evict(RequestRouteStats stats) {
+        otherStats().merge(stats);
+        evictedRoutes++;
+    }
+
+    private RequestRouteStats otherStats() {
+        if (other == null) {
+            other = new RequestRouteStats(config);
+        }
+        return other;
+    }
+}
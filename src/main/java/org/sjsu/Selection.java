@@ -0,0 +1,196 @@
+package org.sjsu;
+
+import java.util.Arrays;
+
+/**
+ * In-place order-statistic selection (quickselect), O(n) on average instead of a full O(n log n) sort.
+ * The array is partially reordered by every call.
+ */
+public final class Selection {
+
+    // Below this size a plain sort is faster than partitioning
+    private static final int SORT_THRESHOLD = 16;
+
+    private Selection() {
+    }
+
+    /**
+     * Rearranges {@code values[from, to)} so that {@code values[k]} holds the value it would have if the
+     * range were sorted, every element before it is not greater and every element after it is not smaller.
+     */
+    public static double select(double[] values, int from, int to, int k) {
+        if (k < from || k >= to) {
+            throw new IllegalArgumentException("k=" + k + " outside [" + from + ", " + to + ")");
+        }
+        // Fall back to sorting if partitioning keeps going badly (introselect)
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        int lo = from;
+        int hi = to - 1;
+        while (hi - lo >= SORT_THRESHOLD) {
+            if (budget-- == 0) {
+                Arrays.sort(values, lo, hi + 1);
+                return values[k];
+            }
+            int pivotIndex = partition(values, lo, hi, medianOfThree(values, lo, lo + (hi - lo) / 2, hi));
+            if (k == pivotIndex) {
+                return values[k];
+            } else if (k < pivotIndex) {
+                hi = pivotIndex - 1;
+            } else {
+                lo = pivotIndex + 1;
+            }
+        }
+        Arrays.sort(values, lo, hi + 1);
+        return values[k];
+    }
+
+    /**
+     * Rearranges {@code values[from, to)} so that every index in {@code ranks} (ascending, each inside the
+     * range) holds the value it would have if the range were sorted. One pass partitions around a pivot and
+     * only descends into the sides that still contain a wanted rank, so several order statistics cost about
+     * as much as one.
+     */
+    public static void selectAll(int[] values, int from, int to, int[] ranks) {
+        for (int i = 0; i < ranks.length; i++) {
+            if (ranks[i] < from || ranks[i] >= to || (i > 0 && ranks[i] < ranks[i - 1])) {
+                throw new IllegalArgumentException("ranks must be ascending and inside [" + from + ", " + to + "): "
+                        + Arrays.toString(ranks));
+            }
+        }
+        selectAll(values, from, to - 1, ranks, 0, ranks.length, 2 * (32 - Integer.numberOfLeadingZeros(to - from)));
+    }
+
+    /**
+     * The given percentiles (each in (0, 100]) of {@code values[from, to)}, interpolated like Excel's
+     * PERCENTILE.INC, i.e. the R-7 estimation of Commons Math's {@code Percentile}, with the same arithmetic so
+     * the results are identical. The range is reordered in place rather than copied.
+     */
+    public static double[] percentiles(int[] values, int from, int to, double[] percentiles) {
+        int length = to - from;
+        if (length <= 0) {
+            throw new IllegalArgumentException("no values in [" + from + ", " + to + ")");
+        }
+        // Each percentile needs the values at two neighbouring ranks
+        int[] ranks = new int[2 * percentiles.length];
+        double[] positions = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            double p = percentiles[i] / 100d;
+            if (!(p > 0 && p <= 1)) {
+                throw new IllegalArgumentException("percentiles must be in (0, 100]: " + percentiles[i]);
+            }
+            double pos = p == 1d ? length : 1 + (length - 1) * p;
+            positions[i] = pos;
+            int lower = pos < 1 ? 0 : pos >= length ? length - 1 : (int) Math.floor(pos) - 1;
+            ranks[2 * i] = from + lower;
+            ranks[2 * i + 1] = from + Math.min(lower + 1, length - 1);
+        }
+        int[] sortedRanks = ranks.clone();
+        Arrays.sort(sortedRanks);
+        selectAll(values, from, to, sortedRanks);
+
+        double[] results = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            double pos = positions[i];
+            double lower = values[ranks[2 * i]];
+            if (length == 1 || pos < 1 || pos >= length) {
+                results[i] = lower;
+            } else {
+                double upper = values[ranks[2 * i + 1]];
+                results[i] = lower + (pos - Math.floor(pos)) * (upper - lower);
+            }
+        }
+        return results;
+    }
+
+    // Largest value in values[from, to), used to find the lower middle after selecting the upper one
+    static double max(double[] values, int from, int to) {
+        double max = values[from];
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
+
+    // Three-way partitioning keeps runs of equal values (common for millisecond timings) from degrading
+    private static void selectAll(int[] values, int lo, int hi, int[] ranks, int firstRank, int endRank, int budget) {
+        while (firstRank < endRank) {
+            if (hi - lo < SORT_THRESHOLD || budget-- == 0) {
+                Arrays.sort(values, lo, hi + 1);
+                return;
+            }
+            int mid = lo + (hi - lo) / 2;
+            int pivot = median(values[lo], values[mid], values[hi]);
+            // [lo, lt) < pivot, [lt, gt] == pivot, (gt, hi] > pivot
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                int value = values[i];
+                if (value < pivot) {
+                    swap(values, lt++, i++);
+                } else if (value > pivot) {
+                    swap(values, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            // Ranks inside [lt, gt] are already in place
+            int leftEnd = firstRank;
+            while (leftEnd < endRank && ranks[leftEnd] < lt) {
+                leftEnd++;
+            }
+            int rightStart = leftEnd;
+            while (rightStart < endRank && ranks[rightStart] <= gt) {
+                rightStart++;
+            }
+            selectAll(values, lo, lt - 1, ranks, firstRank, leftEnd, budget);
+            lo = gt + 1;
+            firstRank = rightStart;
+        }
+    }
+
+    private static int median(int a, int b, int c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        }
+        return a < c ? a : Math.max(b, c);
+    }
+
+    private static int medianOfThree(double[] values, int a, int b, int c) {
+        double va = values[a];
+        double vb = values[b];
+        double vc = values[c];
+        if (va < vb) {
+            return vb < vc ? b : (va < vc ? c : a);
+        }
+        return va < vc ? a : (vb < vc ? c : b);
+    }
+
+    // Lomuto partition around values[pivotIndex]; returns the pivot's final position
+    private static int partition(double[] values, int lo, int hi, int pivotIndex) {
+        double pivot = values[pivotIndex];
+        swap(values, pivotIndex, hi);
+        int store = lo;
+        for (int i = lo; i < hi; i++) {
+            if (values[i] < pivot) {
+                swap(values, i, store++);
+            }
+        }
+        swap(values, store, hi);
+        return store;
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -0,0 +1,96 @@
+package org.sjsu;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * The aggregated state of a run (counters, min/max/sum and the samples or sketches of every metric and
+ * route) written by {@code --dump-state}, so runs over different logs, e.g. one per host, can be merged
+ * later into the JSON output a single run over all of them would have produced, see {@code Main merge}.
+ * <p>
+ * The file is gzip-compressed binary: magic, version, relative error of the {@link AggregatorConfig},
+ * then {@link AggregatorSet#writeState}. Unlike a {@link Checkpoint} it is not tied to an input file.
+ */
+public final class StateFile {
+
+    private static final int MAGIC = 0x4C53_5441; // "LSTA"
+    static final int VERSION = 4; // 2: evicted route count, 3: response time sum, 4: long level counts
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private StateFile() {
+    }
+
+    // Written to a temporary file and renamed; time windows and dimension groups are not part of the state
+    public static void write(Path path, AggregatorSet aggregators) throws IOException {
+        if (aggregators.getTimeWindows() != null || aggregators.getBreakdown() != null) {
+            throw new IllegalArgumentException("time windows and dimension groups are not part of a state file");
+        }
+        OutputWriter.writeAtomically(path, stream -> {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(stream, BUFFER_SIZE), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(aggregators.getConfig().getRelativeError());
+            aggregators.writeState(out);
+            out.close(); // Finishes the gzip trailer
+        });
+    }
+
+    public static AggregatorSet read(Path path, AggregatorConfig settings) throws IOException {
+        return merge(List.of(path), settings);
+    }
+
+    /**
+     * Reads every state file into one set, one file at a time. The stored relative error decides the
+     * percentiles and must be the same in every file; the other settings, e.g. percentiles, come from settings.
+     */
+    public static AggregatorSet merge(List<Path> paths, AggregatorConfig settings) throws IOException {
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("no state files to merge");
+        }
+        AggregatorSet merged = null;
+        for (Path path : paths) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE), BUFFER_SIZE))) {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(path + " is not a state file");
+                }
+                int version = in.readInt();
+                if (version != VERSION) {
+                    throw new IOException("Unsupported state file version " + version + " in " + path);
+                }
+                double relativeError = in.readDouble();
+                if (relativeError != 0 && !(relativeError > 0 && relativeError < 1)) {
+                    throw new IOException("Corrupt state file " + path);
+                }
+                if (merged == null) {
+                    merged = new AggregatorSet(settings.withoutBreakdowns().withRelativeError(relativeError));
+                } else if (relativeError != merged.getConfig().getRelativeError()) {
+                    throw new IOException(path + " was written with relative error " + relativeError + " but "
+                            + paths.get(0) + " with " + merged.getConfig().getRelativeError() + "; they cannot be merged");
+                }
+                merged.readState(in);
+                if (in.read() != -1) {
+                    throw new IOException("Corrupt state file " + path);
+                }
+            } catch (ZipException e) {
+                throw new IOException(path + " is not a state file", e);
+            } catch (EOFException e) {
+                throw new IOException("Truncated state file " + path, e);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt state file " + path + ": " + e.getMessage(), e);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,124 @@
+package org.sjsu;
+
+import java.util.Arrays;
+
+/**
+ * Maps strings to small dense ids (0, 1, 2, ...) in the order they are first seen. Lookups take a slice of a
+ * {@link CharSequence}, typically a value inside the line held by a {@link LogLineTokenizer}, so a symbol
+ * that is already known costs a hash and a compare but no allocation.
+ * <p>
+ * The table holds at most {@code limit} symbols; once full, unknown symbols get {@link #FULL}.
+ * Not thread-safe.
+ */
+public class SymbolTable {
+
+    // Returned by intern() for a new symbol when the table is full
+    public static final int FULL = -1;
+    // A limit for tables that only cache Strings, see canonical(); past it, values are simply copied
+    public static final int DEFAULT_CACHE_LIMIT = 4096;
+
+    private final int limit;
+    private String[] symbols = new String[16];
+    private int[] hashes = new int[16];
+    private int[] slots = new int[32]; // Open addressing: id + 1, 0 for an empty slot
+    private int size;
+
+    public SymbolTable(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.limit = limit;
+    }
+
+    public int intern(CharSequence text) {
+        return intern(text, 0, text.length());
+    }
+
+    // Id of text[start, end), added if new; FULL if new and the table is full
+    public int intern(CharSequence text, int start, int end) {
+        int hash = hash(text, start, end);
+        int mask = slots.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                if (size == limit) {
+                    return FULL;
+                }
+                return add(text.subSequence(start, end).toString(), hash, slot);
+            }
+            if (hashes[id] == hash && equals(symbols[id], text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    // The canonical String for text[start, end); a new, uncached String once the table is full
+    public String canonical(CharSequence text, int start, int end) {
+        int id = intern(text, start, end);
+        return id == FULL ? text.subSequence(start, end).toString() : symbols[id];
+    }
+
+    public String symbol(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown symbol id " + id);
+        }
+        return symbols[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String symbol, int hash, int slot) {
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        symbols[id] = symbol;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    // Keeps the table at most half full
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    // Same value as String.hashCode() of the slice
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(String symbol, CharSequence text, int start, int end) {
+        if (symbol.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < symbol.length(); i++) {
+            if (symbol.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,210 @@
+package org.sjsu;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The stats of each fixed-length time window, keyed on the {@code timestamp=} field of the lines.
+ * Windows live in a ring of {@link AggregatorConfig#getWindowCount()} slots: a window more than that many
+ * windows behind the newest one is evicted, and lines that would belong to it are only counted as late.
+ * Memory therefore stays flat however long the input, e.g. with {@code --follow}.
+ * <p>
+ * Like the aggregators it is filled by one thread and merged afterwards; the line handler comes from
+ * {@link #newHandler()}.
+ * <p>
+ * Merging shards is approximate in its counters only. A window is kept if it is within reach of the newest
+ * window of all the shards, so the windows held and their stats match reading the input in order, even when
+ * a later shard moves the newest window on and evicts an earlier shard's windows. {@code late_lines} and
+ * {@code evicted_windows}, however, are counted by each shard: a line that a sequential run counts as late
+ * may instead go with its shard's window and count as an evicted window, and a window several shards held
+ * is counted once by each of them.
+ */
+public class TimeWindows implements MergeableAggregator<TimeWindows> {
+
+    private final AggregatorConfig windowConfig;
+    private final long windowSeconds;
+    private final int windowCount;
+
+    // Slot i holds the window whose index (start / windowSeconds) is congruent to i modulo windowCount
+    private final long[] indexes;
+    private final AggregatorSet[] windows;
+    private long newestIndex = Long.MIN_VALUE;
+
+    private long untimedLines;
+    private long lateLines;
+    private long evictedWindows;
+
+    public TimeWindows(AggregatorConfig config) {
+        if (!config.hasWindows()) {
+            throw new IllegalArgumentException("the configuration has no time windows");
+        }
+        this.windowConfig = config.withoutBreakdowns();
+        this.windowSeconds = config.getWindowSeconds();
+        this.windowCount = config.getWindowCount();
+        this.indexes = new long[windowCount];
+        this.windows = new AggregatorSet[windowCount];
+    }
+
+    // Feeds lines that were already aggregated into the totals to the window of their timestamp
+    public FieldLogHandler newHandler() {
+        return new WindowHandler();
+    }
+
+    // The window holding epochSeconds, created if needed; null if that window was already evicted
+    public AggregatorSet windowAt(long epochSeconds) {
+        int slot = slotFor(Math.floorDiv(epochSeconds, windowSeconds));
+        return slot < 0 ? null : windows[slot];
+    }
+
+    public long getUntimedLines() {
+        return untimedLines;
+    }
+
+    public long getLateLines() {
+        return lateLines;
+    }
+
+    public long getEvictedWindows() {
+        return evictedWindows;
+    }
+
+    // Start of every window still held, oldest first
+    public List<Long> getWindowStarts() {
+        List<Long> starts = new ArrayList<>();
+        for (int slot : slotsInOrder()) {
+            starts.add(indexes[slot] * windowSeconds);
+        }
+        return starts;
+    }
+
+    @Override
+    public void merge(TimeWindows other) {
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot merge an aggregator into itself");
+        }
+        for (int slot : other.slotsInOrder()) {
+            int target = slotFor(other.indexes[slot]);
+            if (target >= 0) {
+                windows[target].merge(other.windows[slot]);
+            } else {
+                evictedWindows++;
+            }
+        }
+        untimedLines += other.untimedLines;
+        lateLines += other.lateLines;
+        evictedWindows += other.evictedWindows;
+    }
+
+    // --- Methods for Final Aggregation & JSON Generation ---
+
+    public String getTimeSeriesJson() {
+        return JsonOutput.toJson(this::writeTimeSeriesJson);
+    }
+
+    // Streams timeseries.json, oldest window first; windows are finalized in parallel a chunk at a time
+    void writeTimeSeriesJson(JsonWriter out) throws IOException {
+        List<Integer> slots = Arrays.stream(slotsInOrder()).boxed().collect(Collectors.toList());
+        out.beginObject();
+        out.name("window_seconds").value(windowSeconds);
+        out.name("windows").beginArray();
+        JsonOutput.writeInOrder(out, slots, this::windowResults);
+        out.endArray();
+        out.name("untimed_lines").value(untimedLines);
+        out.name("late_lines").value(lateLines);
+        out.name("evicted_windows").value(evictedWindows);
+        out.endObject();
+    }
+
+    private Map<String, Object> windowResults(Integer slot) {
+        long start = indexes[slot] * windowSeconds;
+        Map<String, Object> window = new LinkedHashMap<>();
+        window.put("start", Timestamps.format(start));
+        window.put("end", Timestamps.format(start + windowSeconds));
+        window.put("apm", windows[slot].getApmAggregator().getApmResults());
+        window.put("application", windows[slot].getApplicationAggregator().getLevelCounts());
+        window.put("request", windows[slot].getRequestAggregator().getRequestResults());
+        return window;
+    }
+
+    // Slot of the window with this index, evicting whatever it replaces; -1 if the window is too old
+    private int slotFor(long index) {
+        if (newestIndex != Long.MIN_VALUE && index <= newestIndex - windowCount) {
+            return -1;
+        }
+        if (index > newestIndex) {
+            if (newestIndex != Long.MIN_VALUE) {
+                evictOlderThan(index - windowCount);
+            }
+            newestIndex = index;
+        }
+        int slot = (int) Math.floorMod(index, (long) windowCount);
+        if (windows[slot] == null) {
+            windows[slot] = new AggregatorSet(windowConfig);
+            indexes[slot] = index;
+        }
+        return slot;
+    }
+
+    private void evictOlderThan(long oldestKept) {
+        for (int slot = 0; slot < windowCount; slot++) {
+            if (windows[slot] != null && indexes[slot] <= oldestKept) {
+                windows[slot] = null;
+                evictedWindows++;
+            }
+        }
+    }
+
+    // Slots of the held windows, oldest window first
+    private int[] slotsInOrder() {
+        int[] slots = new int[windowCount];
+        int held = 0;
+        for (int slot = 0; slot < windowCount; slot++) {
+            if (windows[slot] != null) {
+                // Insertion sort by window index; the ring is already almost in order
+                int i = held++;
+                while (i > 0 && indexes[slots[i - 1]] > indexes[slot]) {
+                    slots[i] = slots[i - 1];
+                    i--;
+                }
+                slots[i] = slot;
+            }
+        }
+        return Arrays.copyOf(slots, held);
+    }
+
+    private class WindowHandler implements FieldLogHandler {
+
+        // The dispatcher of each slot's window, rebuilt when the slot gets a new window
+        private final LogDispatcher[] dispatchers = new LogDispatcher[windowCount];
+        private final AggregatorSet[] dispatcherWindows = new AggregatorSet[windowCount];
+
+        @Override
+        public boolean handleFields(LogLineTokenizer fields) {
+            int field = fields.indexOf("timestamp");
+            long timestamp = field < 0 ? Timestamps.INVALID
+                    : Timestamps.parseEpochSeconds(fields.line(), fields.valueStart(field), fields.valueEnd(field));
+            if (timestamp == Timestamps.INVALID) {
+                untimedLines++;
+                return false;
+            }
+            int slot = slotFor(Math.floorDiv(timestamp, windowSeconds));
+            if (slot < 0) {
+                lateLines++;
+                return false;
+            }
+            if (dispatcherWindows[slot] != windows[slot]) {
+                // Malformed lines were already reported by the whole-file handlers
+                dispatchers[slot] = windows[slot].buildDispatcher(Diagnostics.silent());
+                dispatcherWindows[slot] = windows[slot];
+            }
+            return dispatchers[slot].dispatch(fields);
+        }
+    }
+}
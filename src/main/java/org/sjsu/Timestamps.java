@@ -0,0 +1,129 @@
+package org.sjsu;
+
+import java.time.Instant;
+
+/**
+ * Reads ISO-8601 timestamps such as {@code 2024-11-24T10:00:50Z} straight from the characters of a line.
+ * Unlike {@code Instant.parse} nothing is allocated per call, which matters when every line is bucketed
+ * by its timestamp.
+ */
+public final class Timestamps {
+
+    // Returned for anything that is not a timestamp
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private Timestamps() {
+    }
+
+    public static long parseEpochSeconds(CharSequence text) {
+        return parseEpochSeconds(text, 0, text.length());
+    }
+
+    /**
+     * Seconds since the epoch for {@code yyyy-MM-ddTHH:mm:ss}, optionally followed by a fraction (ignored)
+     * and {@code Z} or an offset such as {@code +02:00}; without a zone the time is taken as UTC.
+     * Returns {@link #INVALID} if text[start, end) is anything else.
+     */
+    public static long parseEpochSeconds(CharSequence text, int start, int end) {
+        if (end - start < 19) {
+            return INVALID;
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+        int second = digits(text, start + 17, 2);
+        char separator = text.charAt(start + 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > DAYS_IN_MONTH[month - 1]
+                || hour > 23 || minute > 59 || second > 59 || hour < 0 || minute < 0 || second < 0
+                || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-'
+                || (separator != 'T' && separator != 't' && separator != ' ')
+                || text.charAt(start + 13) != ':' || text.charAt(start + 16) != ':'
+                || (month == 2 && day == 29 && !isLeapYear(year))) {
+            return INVALID;
+        }
+
+        int pos = start + 19;
+        if (pos < end && text.charAt(pos) == '.') {
+            pos++;
+            int fractionStart = pos;
+            while (pos < end && isDigit(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos == fractionStart) {
+                return INVALID;
+            }
+        }
+        long offsetSeconds = 0;
+        if (pos < end) {
+            char zone = text.charAt(pos);
+            if ((zone == 'Z' || zone == 'z') && pos + 1 == end) {
+                offsetSeconds = 0;
+            } else if (zone == '+' || zone == '-') {
+                offsetSeconds = parseOffset(text, pos + 1, end);
+                if (offsetSeconds < 0) {
+                    return INVALID;
+                }
+                if (zone == '-') {
+                    offsetSeconds = -offsetSeconds;
+                }
+            } else {
+                return INVALID;
+            }
+        }
+        return epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second - offsetSeconds;
+    }
+
+    // Only used when writing output, so java.time is fine here
+    public static String format(long epochSeconds) {
+        return Instant.ofEpochSecond(epochSeconds).toString();
+    }
+
+    // HH:MM or HHMM, in seconds, or -1
+    private static long parseOffset(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length != 4 && length != 5 || length == 5 && text.charAt(start + 2) != ':') {
+            return -1;
+        }
+        int hours = digits(text, start, 2);
+        int minutes = digits(text, end - 2, 2);
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        return hours * 3_600L + minutes * 60L;
+    }
+
+    // Days since 1970-01-01 in the proleptic Gregorian calendar (H. Hinnant's days_from_civil)
+    static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    // The value of count ASCII digits, or -1
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
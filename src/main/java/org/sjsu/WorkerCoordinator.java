@@ -0,0 +1,240 @@
+package org.sjsu;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Splits a log file into one newline-aligned byte range per worker and parses every range in its own JVM,
+ * started as {@code Main --file <file> --range <start>:<end> --dump-state <state>}. The workers' state
+ * files are then merged (see {@link StateFile}), so the totals are the same as a single run's while the
+ * parsing is spread over several heaps and garbage collectors.
+ * <p>
+ * With approximate percentiles each worker's state is a fixed-size sketch. Exact percentiles need every
+ * sample, so the merge reads all of the workers' samples back into this JVM's heap: the coordinator needs
+ * as much heap as a single run would, and only the parsing garbage is spread out.
+ * <p>
+ * Workers run on this machine with the classpath of this JVM. Each worker's console output goes to a log
+ * in the work directory, which is printed if the worker fails and deleted with the directory otherwise.
+ */
+public class WorkerCoordinator {
+
+    private final int workers;
+    private List<String> javaOptions = List.of();
+    private List<String> workerArguments = List.of();
+    private Path diagnosticsFile;
+    private int sampleLimit = 1000;
+
+    public WorkerCoordinator(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1");
+        }
+        this.workers = workers;
+    }
+
+    // JVM options for every worker, e.g. -Xmx4g
+    public WorkerCoordinator withJavaOptions(List<String> javaOptions) {
+        this.javaOptions = List.copyOf(javaOptions);
+        return this;
+    }
+
+    // Options passed on to every worker, e.g. --approximate 0.01; they must produce state files that can be merged
+    public WorkerCoordinator withWorkerArguments(List<String> workerArguments) {
+        this.workerArguments = List.copyOf(workerArguments);
+        return this;
+    }
+
+    // Where the workers' unmatched and malformed line samples are collected, in range order, each line
+    // prefixed with its worker's byte range
+    public WorkerCoordinator withDiagnosticsFile(Path diagnosticsFile) {
+        this.diagnosticsFile = diagnosticsFile;
+        return this;
+    }
+
+    // How many unmatched and malformed lines the workers sample in all, shared out between them
+    public WorkerCoordinator withSampleLimit(int sampleLimit) {
+        if (sampleLimit < 0) {
+            throw new IllegalArgumentException("sampleLimit must not be negative");
+        }
+        this.sampleLimit = sampleLimit;
+        return this;
+    }
+
+    // Runs the workers and merges their state; settings supply what is not stored in the state, e.g. percentiles
+    public Result process(Path file, AggregatorConfig settings) throws IOException {
+        long startNanos = System.nanoTime();
+        List<long[]> ranges = ParallelFileProcessor.splitRanges(file, workers);
+        if (ranges.isEmpty()) {
+            return new Result(new AggregatorSet(settings), 0, 0, System.nanoTime() - startNanos, List.of()); // Empty file
+        }
+        Path workDirectory = Files.createTempDirectory("log-workers");
+        try {
+            List<Process> processes = new ArrayList<>(ranges.size());
+            List<Path> stateFiles = new ArrayList<>(ranges.size());
+            try {
+                for (int i = 0; i < ranges.size(); i++) {
+                    Path stateFile = workDirectory.resolve("worker-" + i + ".state");
+                    stateFiles.add(stateFile);
+                    processes.add(new ProcessBuilder(command(file, ranges.get(i), stateFile,
+                            workDirectory.resolve("worker-" + i + ".diagnostics"), workerSampleLimit(i, ranges.size())))
+                            .directory(workDirectory.toFile())
+                            .redirectErrorStream(true)
+                            .redirectOutput(workDirectory.resolve("worker-" + i + ".log").toFile())
+                            .start());
+                }
+                for (int i = 0; i < processes.size(); i++) {
+                    int exitCode = processes.get(i).waitFor();
+                    if (exitCode != 0) {
+                        String log = new String(Files.readAllBytes(workDirectory.resolve("worker-" + i + ".log")),
+                                StandardCharsets.UTF_8);
+                        throw new IOException("Worker " + i + " (bytes " + ranges.get(i)[0] + "-" + ranges.get(i)[1]
+                                + ") failed with exit code " + exitCode + ":\n" + log.trim());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the workers", e);
+            } finally {
+                for (Process process : processes) {
+                    process.destroyForcibly(); // No-op for the workers that have finished
+                }
+            }
+
+            AggregatorSet aggregators = StateFile.merge(stateFiles, settings);
+            collectDiagnostics(workDirectory, ranges);
+            return new Result(aggregators, ranges.size(), Files.size(file), System.nanoTime() - startNanos,
+                    diagnosticsSummaries(workDirectory, ranges.size(), diagnosticsFile));
+        } finally {
+            deleteRecursively(workDirectory);
+        }
+    }
+
+    // The first sampleLimit % workers workers sample one line more, so together they sample at most sampleLimit
+    private int workerSampleLimit(int worker, int workerCount) {
+        if (diagnosticsFile == null) {
+            return 0; // Nowhere to collect them
+        }
+        return sampleLimit / workerCount + (worker < sampleLimit % workerCount ? 1 : 0);
+    }
+
+    // The command line of the worker for one range
+    List<String> command(Path file, long[] range, Path stateFile, Path diagnostics, int sampleLimit) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(javaOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.add("--file");
+        command.add(file.toAbsolutePath().toString());
+        command.add("--range");
+        command.add(range[0] + ":" + range[1]);
+        command.add("--dump-state");
+        command.add(stateFile.toString());
+        command.add("--diagnostics");
+        command.add(diagnostics.toString());
+        command.addAll(workerArguments);
+        command.add("--sample-limit");
+        command.add(Integer.toString(sampleLimit));
+        return command;
+    }
+
+    // Line numbers in the samples count from the start of each worker's range, so each sample is labelled
+    // with that range, e.g. "0-1048576<TAB>unmatched<TAB>12<TAB>line"
+    private void collectDiagnostics(Path workDirectory, List<long[]> ranges) throws IOException {
+        if (diagnosticsFile == null) {
+            return;
+        }
+        boolean first = true;
+        for (int i = 0; i < ranges.size(); i++) {
+            Path samples = workDirectory.resolve("worker-" + i + ".diagnostics");
+            if (!Files.exists(samples)) {
+                continue;
+            }
+            String label = ranges.get(i)[0] + "-" + ranges.get(i)[1] + "\t";
+            try (BufferedReader reader = Files.newBufferedReader(samples, StandardCharsets.UTF_8);
+                 BufferedWriter writer = Files.newBufferedWriter(diagnosticsFile, StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         first ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    writer.write(label);
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+            first = false;
+        }
+    }
+
+    // The "Diagnostics: ..." summary line each worker printed, in range order, naming the file the samples
+    // were collected into rather than the worker's own, which is deleted with the work directory
+    private static List<String> diagnosticsSummaries(Path workDirectory, int workerCount, Path diagnosticsFile)
+            throws IOException {
+        List<String> summaries = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            String samples = workDirectory.resolve("worker-" + i + ".diagnostics").toString();
+            for (String line : Files.readAllLines(workDirectory.resolve("worker-" + i + ".log"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("Diagnostics: ")) {
+                    summaries.add(diagnosticsFile == null ? line : line.replace(samples, diagnosticsFile.toString()));
+                }
+            }
+        }
+        return summaries;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * The merged aggregators of a run, plus a summary for throughput reporting.
+     */
+    public static class Result {
+        private final AggregatorSet aggregators;
+        private final int workers;
+        private final long byteCount;
+        private final long elapsedNanos;
+        private final List<String> workerDiagnostics;
+
+        Result(AggregatorSet aggregators, int workers, long byteCount, long elapsedNanos, List<String> workerDiagnostics) {
+            this.aggregators = aggregators;
+            this.workers = workers;
+            this.byteCount = byteCount;
+            this.elapsedNanos = elapsedNanos;
+            this.workerDiagnostics = workerDiagnostics;
+        }
+
+        public AggregatorSet getAggregators() {
+            return aggregators;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        // The diagnostics summary of every worker, in range order
+        public List<String> getWorkerDiagnostics() {
+            return workerDiagnostics;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Processed %.1f MB in %d ms with %d worker process(es)",
+                    byteCount / (1024.0 * 1024.0), elapsedNanos / 1_000_000, workers);
+        }
+    }
+}
@@ -139,4 +139,25 @@ public class ApmAggregatorTest {
 
         assertTrue(resultMap.isEmpty(), "JSON output should be empty for no valid metrics.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMerge_ShardsShouldMatchSingleAggregator() {
+        ApmAggregator shardA = new ApmAggregator();
+        ApmAggregator shardB = new ApmAggregator();
+        double[] values = {60.0, 80.5, 5.0, 10.0, 78.25, 91.0, 14.0};
+        for (int i = 0; i < values.length; i++) {
+            apmAggregator.addApmMetric(i % 2 == 0 ? "cpu_usage_percent" : "memory_usage_percent", values[i]);
+            (i < 3 ? shardA : shardB).addApmMetric(i % 2 == 0 ? "cpu_usage_percent" : "memory_usage_percent", values[i]);
+        }
+
+        shardA.merge(shardB);
+
+        assertEquals(apmAggregator.getApmJson(), shardA.getApmJson(), "Merged shards should give byte-identical JSON.");
+    }
+
+    @Test
+    void testMerge_IntoItself_ShouldThrow() {
+        apmAggregator.addApmMetric("cpu_usage_percent", 75.0);
+        assertThrows(IllegalArgumentException.class, () -> apmAggregator.merge(apmAggregator));
+    }
+}
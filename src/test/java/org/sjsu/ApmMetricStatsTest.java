@@ -0,0 +1,83 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApmMetricStatsTest {
+
+    @Test
+    void testExactMode_RunningStatsAndMedian() {
+        ApmMetricStats stats = new ApmMetricStats(AggregatorConfig.exact());
+        for (double value : new double[]{100.0, 200.0, 50.0, 150.0}) {
+            stats.add(value);
+        }
+
+        assertEquals(4, stats.getCount());
+        assertEquals(50.0, stats.getMin(), 0.0);
+        assertEquals(200.0, stats.getMax(), 0.0);
+        assertEquals(125.0, stats.getAverage(), 0.0);
+        assertEquals(125.0, stats.getMedian(), 0.0); // (100+150)/2
+    }
+
+    @Test
+    void testExactMode_MedianMatchesSortedMedian() {
+        Random random = new Random(3);
+        for (int size : new int[]{1, 2, 3, 99, 1000}) {
+            ApmMetricStats stats = new ApmMetricStats(AggregatorConfig.exact());
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(1000) / 10.0;
+                stats.add(values[i]);
+            }
+            Arrays.sort(values);
+            double expected = size % 2 == 0 ? (values[size / 2 - 1] + values[size / 2]) / 2.0 : values[size / 2];
+
+            assertEquals(expected, stats.getMedian(), 0.0, "size=" + size);
+        }
+    }
+
+    @Test
+    void testApproximateMode_MedianWithinRelativeError() {
+        ApmMetricStats stats = new ApmMetricStats(AggregatorConfig.approximate(0.01));
+        for (int i = 1; i <= 10_001; i++) {
+            stats.add(i);
+        }
+
+        assertEquals(1.0, stats.getMin(), 0.0);
+        assertEquals(10_001.0, stats.getMax(), 0.0);
+        assertEquals(5_001.0, stats.getAverage(), 1e-9);
+        assertEquals(5_001.0, stats.getMedian(), 5_001.0 * 0.01);
+    }
+
+    @Test
+    void testMerge_ShouldMatchSingleStats() {
+        ApmMetricStats single = new ApmMetricStats(AggregatorConfig.exact());
+        ApmMetricStats shardA = new ApmMetricStats(AggregatorConfig.exact());
+        ApmMetricStats shardB = new ApmMetricStats(AggregatorConfig.exact());
+        for (int i = 0; i < 101; i++) {
+            double value = (i * 37) % 101;
+            single.add(value);
+            (i < 40 ? shardA : shardB).add(value);
+        }
+
+        shardA.merge(shardB);
+
+        assertEquals(single.getCount(), shardA.getCount());
+        assertEquals(single.getMin(), shardA.getMin(), 0.0);
+        assertEquals(single.getMax(), shardA.getMax(), 0.0);
+        assertEquals(single.getAverage(), shardA.getAverage(), 0.0);
+        assertEquals(single.getMedian(), shardA.getMedian(), 0.0);
+    }
+
+    @Test
+    void testMerge_ExactWithApproximate_ShouldThrow() {
+        ApmMetricStats exact = new ApmMetricStats(AggregatorConfig.exact());
+        ApmMetricStats approximate = new ApmMetricStats(AggregatorConfig.approximate(0.01));
+
+        assertThrows(IllegalArgumentException.class, () -> exact.merge(approximate));
+    }
+}
@@ -5,6 +5,11 @@ import com.google.gson.reflect.TypeToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -82,4 +87,77 @@ public class ApplicationAggregatorTest {
         assertEquals(2, resultMap.get("ERROR").intValue(), "Count for 'ERROR' should be 2.");
         assertNull(resultMap.get("error"), "Lowercase 'error' key should not exist if handler normalizes.");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMerge_ShouldSumCountsPerLevel() {
+        ApplicationAggregator other = new ApplicationAggregator();
+        applicationAggregator.incrementLogLevelCount("INFO");
+        applicationAggregator.incrementLogLevelCount("ERROR");
+        other.incrementLogLevelCount("INFO");
+        other.incrementLogLevelCount("DEBUG");
+
+        applicationAggregator.merge(other);
+
+        Type type = new TypeToken<Map<String, Integer>>() {}.getType();
+        Map<String, Integer> resultMap = gson.fromJson(applicationAggregator.getApplicationJson(), type);
+        assertEquals(3, resultMap.size());
+        assertEquals(2, resultMap.get("INFO").intValue());
+        assertEquals(1, resultMap.get("ERROR").intValue());
+        assertEquals(1, resultMap.get("DEBUG").intValue());
+
+        Map<String, Integer> otherMap = gson.fromJson(other.getApplicationJson(), type);
+        assertEquals(1, otherMap.get("INFO").intValue(), "The merged-in shard should be left unchanged.");
+    }
+
+    @Test
+    void testIncrementLogLevelCount_EnumAndUnknownNames_ShouldBeCountedTogether() {
+        applicationAggregator.incrementLogLevelCount(LogLevel.ERROR);
+        applicationAggregator.incrementLogLevelCount("ERROR");
+        applicationAggregator.incrementLogLevelCount("FATAL");
+
+        ApplicationAggregator other = new ApplicationAggregator();
+        other.incrementLogLevelCount(LogLevel.ERROR);
+        other.incrementLogLevelCount("FATAL");
+        applicationAggregator.merge(other);
+
+        Type type = new TypeToken<Map<String, Integer>>() {}.getType();
+        Map<String, Integer> resultMap = gson.fromJson(applicationAggregator.getApplicationJson(), type);
+        assertEquals(Map.of("ERROR", 3, "FATAL", 2), resultMap);
+    }
+
+    @Test
+    void testState_CountsPastIntRange_ShouldSurviveRoundTrip() throws IOException {
+        // A state file holding three billion INFO lines, more than an int can count
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(written);
+        out.writeInt(2);
+        out.writeUTF("INFO");
+        out.writeLong(3_000_000_000L);
+        out.writeUTF("FATAL");
+        out.writeLong(5);
+        applicationAggregator.incrementLogLevelCount("INFO");
+        applicationAggregator.readState(new DataInputStream(new ByteArrayInputStream(written.toByteArray())));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        applicationAggregator.writeState(new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(2, in.readInt());
+        assertEquals("INFO", in.readUTF());
+        assertEquals(3_000_000_001L, in.readLong(), "The count should not be capped at Integer.MAX_VALUE.");
+        assertEquals("FATAL", in.readUTF());
+        assertEquals(5, in.readLong());
+
+        ApplicationAggregator restored = new ApplicationAggregator();
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(applicationAggregator.getApplicationJson(), restored.getApplicationJson());
+    }
+
+    @Test
+    void testLogLevel_ParseShouldIgnoreCase() {
+        LogLineTokenizer fields = new LogLineTokenizer().reset("level=warning other=Fatal");
+        assertEquals(LogLevel.WARNING, LogLevel.parse(fields, 0));
+        assertNull(LogLevel.parse(fields, 1));
+        assertEquals(LogLevel.TRACE, LogLevel.of("TRACE"));
+        assertNull(LogLevel.of("trace"));
+    }
+}
@@ -38,12 +38,12 @@ public class ApplicationLogHandlerTest {
     @ValueSource(strings = {"INFO", "ERROR", "WARNING", "DEBUG", "TRACE", "info", "warning", "error", "debug", "trace"})
     void testHandle_ValidKnownLevel_ShouldCallAggregatorAndReturnTrue(String levelInput) {
         String logLine = "timestamp=2024-05-12T16:00:00Z level=" + levelInput + " message=\"Test message\" host=server1";
-        String expectedLevel = levelInput.toUpperCase(); // Handler converts to uppercase
+        LogLevel expectedLevel = LogLevel.valueOf(levelInput.toUpperCase()); // Parsed case-insensitively
 
         boolean result = applicationLogHandler.handle(logLine);
 
         assertTrue(result, "Handler should return true for known level: " + levelInput);
-        // Verify aggregator was called once with the UPPERCASE level
+        // Verify aggregator was called once with the parsed level
         verify(mockApplicationAggregator).incrementLogLevelCount(expectedLevel);
         // Verify no delegation occurred
         verifyNoInteractions(mockNextHandler);
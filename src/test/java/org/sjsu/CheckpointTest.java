@@ -0,0 +1,144 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckpointTest {
+
+    private static final String APM_LINE = "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=";
+    private static final String APP_LINE = "timestamp=2024-11-24T10:02:55Z level=ERROR message=\"File not found\" host=webserver2";
+    private static final String REQUEST_LINE = "timestamp=2024-11-24T10:01:25Z request_method=PUT request_url=\"/api/update\" "
+            + "response_status=503 response_time_ms=";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead_ExactState_ShouldProduceSameOutput() throws IOException {
+        assertRoundTrip(AggregatorConfig.exact());
+    }
+
+    @Test
+    void testWriteAndRead_ApproximateState_ShouldProduceSameOutput() throws IOException {
+        assertRoundTrip(AggregatorConfig.approximate(0.02));
+    }
+
+    @Test
+    void testResumedState_PlusTail_ShouldMatchSingleRun() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, lines(0, 300).getBytes(StandardCharsets.UTF_8));
+        ParallelFileProcessor processor = new ParallelFileProcessor(2, 512);
+
+        AggregatorSet firstRun = new AggregatorSet();
+        long end = ParallelFileProcessor.endOfLastLine(input);
+        ParallelFileProcessor.Result first = processor.processRange(input, firstRun, 0, end, 0);
+        Path checkpointFile = tempDir.resolve("state.ckpt");
+        Checkpoint.capture(input, end, first.getLineCount(), firstRun).write(checkpointFile);
+
+        Files.write(input, lines(300, 500).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Checkpoint checkpoint = Checkpoint.read(checkpointFile);
+        assertTrue(checkpoint.matches(input));
+        AggregatorSet resumed = checkpoint.getAggregators();
+        ParallelFileProcessor.Result tail = processor.processRange(input, resumed, checkpoint.getOffset(),
+                ParallelFileProcessor.endOfLastLine(input), checkpoint.getLineCount());
+
+        AggregatorSet singleRun = new AggregatorSet();
+        processor.process(input, singleRun);
+        assertEquals(200, tail.getLineCount());
+        assertSameOutput(singleRun, resumed);
+    }
+
+    @Test
+    void testMatches_RewrittenFile_ShouldBeFalse() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, lines(0, 10).getBytes(StandardCharsets.UTF_8));
+        Checkpoint checkpoint = Checkpoint.capture(input, Files.size(input), 10, new AggregatorSet());
+
+        Files.write(input, lines(5, 20).getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(checkpoint.matches(input));
+    }
+
+    @Test
+    void testMatches_ShrunkFile_ShouldBeFalse() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        String content = lines(0, 10);
+        Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+        Checkpoint checkpoint = Checkpoint.capture(input, Files.size(input), 10, new AggregatorSet());
+
+        Files.write(input, content.substring(0, content.length() / 2).getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(checkpoint.matches(input));
+    }
+
+    @Test
+    void testRead_TruncatedOrForeignFile_ShouldThrow() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, lines(0, 10).getBytes(StandardCharsets.UTF_8));
+        AggregatorSet aggregators = new AggregatorSet();
+        aggregators.buildDispatcher().handle(REQUEST_LINE + "10");
+        Path checkpointFile = tempDir.resolve("state.ckpt");
+        Checkpoint.capture(input, Files.size(input), 10, aggregators).write(checkpointFile);
+        byte[] bytes = Files.readAllBytes(checkpointFile);
+
+        Files.write(checkpointFile, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> Checkpoint.read(checkpointFile));
+
+        Files.write(checkpointFile, "not a checkpoint".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> Checkpoint.read(checkpointFile));
+    }
+
+    private void assertRoundTrip(AggregatorConfig config) throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        String content = lines(0, 200);
+        Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+        AggregatorSet aggregators = new AggregatorSet(config);
+        LogHandler handler = aggregators.buildDispatcher();
+        for (String line : content.split("\n")) {
+            handler.handle(line);
+        }
+
+        Path checkpointFile = tempDir.resolve("state.ckpt");
+        Checkpoint.capture(input, Files.size(input), 200, aggregators).write(checkpointFile);
+        Checkpoint restored = Checkpoint.read(checkpointFile);
+
+        assertEquals(Files.size(input), restored.getOffset());
+        assertEquals(200, restored.getLineCount());
+        assertEquals(config.getRelativeError(), restored.getAggregators().getConfig().getRelativeError());
+        assertSameOutput(aggregators, restored.getAggregators());
+    }
+
+    private static void assertSameOutput(AggregatorSet expected, AggregatorSet actual) {
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+    }
+
+    private static String lines(int from, int to) {
+        StringBuilder content = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            switch (i % 3) {
+                case 0:
+                    content.append(APM_LINE).append(i % 89 + 0.5);
+                    break;
+                case 1:
+                    content.append(APP_LINE);
+                    break;
+                default:
+                    content.append(REQUEST_LINE).append(i % 113);
+                    break;
+            }
+            content.append('\n');
+        }
+        return content.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedInputTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testIsGzip_ShouldCheckMagicBytesNotFileName() throws IOException {
+        Path compressed = tempDir.resolve("app.log");
+        Files.write(compressed, gzip("hello\n"));
+        Path plain = tempDir.resolve("app.log.gz");
+        Files.write(plain, "hello\n".getBytes(StandardCharsets.UTF_8));
+        Path empty = Files.createFile(tempDir.resolve("empty.log"));
+
+        assertTrue(CompressedInput.isGzip(compressed));
+        assertFalse(CompressedInput.isGzip(plain));
+        assertFalse(CompressedInput.isGzip(empty));
+        assertFalse(CompressedInput.isGzip(tempDir.resolve("missing.log")));
+    }
+
+    @Test
+    void testNewBufferedReader_ConcatenatedMembers_ShouldReadAllLines() throws IOException {
+        Path file = tempDir.resolve("rotated.log.gz");
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        concatenated.write(gzip("first\nsec"));
+        concatenated.write(gzip("ond\nthird\n"));
+        Files.write(file, concatenated.toByteArray());
+
+        assertEquals(List.of("first", "second", "third"), readLines(file));
+    }
+
+    @Test
+    void testNewBufferedReader_PlainFile_ShouldReadAsIs() throws IOException {
+        Path file = tempDir.resolve("plain.log");
+        Files.write(file, "a\r\nb\n".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of("a", "b"), readLines(file));
+    }
+
+    static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<String> readLines(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = CompressedInput.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,158 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiagnosticsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCounts_ShouldTrackUnmatchedAndMalformedPerHandler() throws IOException {
+        Diagnostics diagnostics = new Diagnostics(null, 0, 0);
+        diagnostics.unmatched(null, 1, "garbage");
+        diagnostics.unmatched("b.log", 7, "more garbage");
+        diagnostics.malformed("APM", "Could not parse value 'x'", "metric=cpu value=x");
+        diagnostics.malformed("APM", "Could not parse value 'y'", "metric=cpu value=y");
+        diagnostics.malformed("Request", "Could not parse status or time", "request_url=/a");
+        String summary = close(diagnostics);
+
+        assertEquals(2, diagnostics.getUnmatchedCount());
+        assertEquals(2, diagnostics.getMalformedCount("APM"));
+        assertEquals(1, diagnostics.getMalformedCount("Request"));
+        assertEquals(0, diagnostics.getMalformedCount("Application"));
+        assertEquals(3, diagnostics.getMalformedCount());
+        assertTrue(summary.contains("2 unmatched line(s), 3 malformed (APM: 2, Request: 1)"), summary);
+    }
+
+    @Test
+    void testSampleFile_ShouldHoldOnlyTheFirstSampleLimitReports() throws IOException {
+        Path sampleFile = tempDir.resolve("diagnostics.log");
+        Diagnostics diagnostics = new Diagnostics(sampleFile, 3, 0);
+        diagnostics.unmatched(null, 1, "first");
+        diagnostics.malformed("APM", "Could not parse value 'x'", "metric=cpu value=x");
+        diagnostics.unmatched("b.log", 5, "third");
+        for (int i = 0; i < 100; i++) {
+            diagnostics.unmatched(null, 10 + i, "ignored");
+        }
+        String summary = close(diagnostics);
+
+        assertEquals(List.of(
+                "unmatched\t1\tfirst",
+                "malformed\tAPM\tCould not parse value 'x'\tmetric=cpu value=x",
+                "unmatched\tb.log:5\tthird"), Files.readAllLines(sampleFile));
+        assertEquals(103, diagnostics.getUnmatchedCount() + diagnostics.getMalformedCount());
+        assertTrue(summary.contains("3 sampled to " + sampleFile), summary);
+    }
+
+    @Test
+    void testDeferred_ShouldCommitNothingUntilReportedAndKeepOnlyWhatCanBeSampled() throws IOException {
+        Path sampleFile = tempDir.resolve("diagnostics.log");
+        Diagnostics diagnostics = new Diagnostics(sampleFile, 3, 0);
+        Diagnostics.Deferred first = diagnostics.deferred();
+        Diagnostics.Deferred second = diagnostics.deferred();
+        Diagnostics.Deferred discarded = diagnostics.deferred();
+        for (int i = 1; i <= 1000; i++) {
+            second.unmatched(null, i, "second chunk " + i);
+        }
+        first.malformed("APM", "Could not parse value 'x'", "first chunk malformed");
+        first.unmatched(null, 2, "first chunk");
+        discarded.unmatched(null, 1, "thrown away");
+        discarded.malformed("Request", "Could not parse status or time", "thrown away");
+
+        // Nothing is committed while the chunks are parsed
+        assertEquals(0, diagnostics.getUnmatchedCount() + diagnostics.getMalformedCount());
+        assertEquals(1000, second.getUnmatchedCount());
+        first.report(0);
+        second.report(10);
+        close(diagnostics);
+
+        assertEquals(List.of(
+                "malformed\tAPM\tCould not parse value 'x'\tfirst chunk malformed",
+                "unmatched\t2\tfirst chunk",
+                "unmatched\t11\tsecond chunk 1"), Files.readAllLines(sampleFile));
+        assertEquals(1001, diagnostics.getUnmatchedCount());
+        assertEquals(1, diagnostics.getMalformedCount("APM"));
+        assertEquals(0, diagnostics.getMalformedCount("Request"));
+    }
+
+    @Test
+    void testSampleFile_NothingToReport_ShouldNotBeCreated() throws IOException {
+        Path sampleFile = tempDir.resolve("diagnostics.log");
+        close(new Diagnostics(sampleFile, 10, 10));
+
+        assertFalse(Files.exists(sampleFile));
+    }
+
+    @Test
+    void testConsoleRate_ShouldPrintUpToTheLimitAndCountTheRest() throws IOException {
+        Diagnostics diagnostics = new Diagnostics(null, 0, 2);
+        String output = captureOut(() -> {
+            for (int i = 1; i <= 50; i++) {
+                diagnostics.unmatched(null, i, "line " + i);
+            }
+            closeQuietly(diagnostics);
+        });
+
+        // Fifty reports cannot span more than a couple of one-second windows
+        long printed = output.lines().filter(line -> line.startsWith("Warning: Line ")).count();
+        assertTrue(printed >= 2 && printed <= 4, output);
+        assertTrue(output.contains("Warning: Line 1 was not matched by any handler for aggregation: line 1"), output);
+        assertEquals(50 - printed, diagnostics.getSuppressedCount());
+        assertTrue(output.contains((50 - printed) + " console message(s) suppressed"), output);
+    }
+
+    @Test
+    void testConsole_ShouldPrintEveryReportInTheLegacyFormat() {
+        String output = captureOut(() -> {
+            Diagnostics.console().unmatched(null, 3, "garbage");
+            Diagnostics.console().unmatched("b.log", 4, "junk");
+        });
+
+        assertEquals("Warning: Line 3 was not matched by any handler for aggregation: garbage" + System.lineSeparator()
+                + "Warning: Line 4 of b.log was not matched by any handler for aggregation: junk" + System.lineSeparator(),
+                output);
+    }
+
+    @Test
+    void testConstructor_NegativeLimits_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new Diagnostics(null, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new Diagnostics(null, 10, -1));
+    }
+
+    private static String close(Diagnostics diagnostics) {
+        captureOut(() -> closeQuietly(diagnostics));
+        return diagnostics.summary();
+    }
+
+    private static void closeQuietly(Diagnostics diagnostics) {
+        try {
+            diagnostics.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private static String captureOut(Runnable action) {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setOut(originalOut);
+        }
+        return captured.toString(StandardCharsets.UTF_8);
+    }
+}
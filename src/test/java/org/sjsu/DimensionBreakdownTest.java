@@ -0,0 +1,154 @@
+package org.sjsu;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DimensionBreakdownTest {
+
+    private static final AggregatorConfig BY_HOST = AggregatorConfig.exact().withDimensions(List.of("host"), 10);
+
+    @Test
+    void testDispatcher_ShouldAggregateTotalsAndEachHost() {
+        AggregatorSet aggregators = new AggregatorSet(BY_HOST);
+        LogHandler handler = aggregators.buildDispatcher();
+        feed(handler);
+
+        assertTotalsAndHosts(aggregators);
+    }
+
+    @Test
+    void testChain_ShouldAggregateTotalsAndEachHost() {
+        AggregatorSet aggregators = new AggregatorSet(BY_HOST);
+        LogHandler handler = aggregators.buildChain();
+        feed(handler);
+
+        assertTotalsAndHosts(aggregators);
+    }
+
+    @Test
+    void testTwoDimensions_ShouldGroupByBothValues() {
+        AggregatorSet aggregators = new AggregatorSet(
+                AggregatorConfig.exact().withDimensions(List.of("host", "request_method"), 10));
+        LogHandler handler = aggregators.buildDispatcher();
+        handler.handle("request_method=GET request_url=\"/home\" response_status=200 response_time_ms=10 host=webserver1");
+        handler.handle("request_method=PUT request_url=\"/home\" response_status=200 response_time_ms=20 host=webserver1");
+        handler.handle("request_method=GET request_url=\"/home\" response_status=500 response_time_ms=30 host=webserver1");
+        handler.handle("level=INFO host=webserver1");
+
+        DimensionBreakdown breakdown = aggregators.getBreakdown();
+        assertEquals(3, breakdown.getGroupCount());
+        JsonArray groups = groups(breakdown);
+        assertEquals("webserver1", groups.get(0).getAsJsonObject().get("host").getAsString());
+        assertEquals("GET", groups.get(0).getAsJsonObject().get("request_method").getAsString());
+        assertEquals("PUT", groups.get(1).getAsJsonObject().get("request_method").getAsString());
+        assertEquals(DimensionBreakdown.MISSING, groups.get(2).getAsJsonObject().get("request_method").getAsString());
+        assertEquals(1, groups.get(2).getAsJsonObject().getAsJsonObject("application").get("INFO").getAsInt());
+    }
+
+    @Test
+    void testCardinalityCap_NewValuesShouldGoToTheOtherGroup() {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.exact().withDimensions(List.of("host"), 2));
+        LogHandler handler = aggregators.buildDispatcher();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(handler.handle("level=ERROR host=attacker-" + i));
+        }
+
+        DimensionBreakdown breakdown = aggregators.getBreakdown();
+        assertEquals(2, breakdown.getGroupCount());
+        assertEquals(998, breakdown.getOtherGroup().getApplicationAggregator().getLevelCounts().get("ERROR"));
+        JsonArray groups = groups(breakdown);
+        assertEquals(3, groups.size());
+        assertEquals(DimensionBreakdown.OTHER, groups.get(2).getAsJsonObject().get("host").getAsString());
+        assertEquals(1000, aggregators.getApplicationAggregator().getLevelCounts().get("ERROR"));
+    }
+
+    @Test
+    void testMerge_ShouldCombineGroupsByValueAndRespectTheCap() {
+        AggregatorConfig config = AggregatorConfig.exact().withDimensions(List.of("host"), 2);
+        AggregatorSet first = new AggregatorSet(config);
+        first.buildDispatcher().handle("level=INFO host=b");
+        AggregatorSet second = first.newShard();
+        LogHandler secondHandler = second.buildDispatcher();
+        secondHandler.handle("level=INFO host=a");
+        secondHandler.handle("level=INFO host=b");
+        secondHandler.handle("level=INFO host=c"); // Second shard's cap is reached here
+
+        first.merge(second);
+
+        DimensionBreakdown breakdown = first.getBreakdown();
+        assertEquals(2, breakdown.groupOf("b").getApplicationAggregator().getLevelCounts().get("INFO"));
+        assertEquals(1, breakdown.groupOf("a").getApplicationAggregator().getLevelCounts().get("INFO"));
+        assertEquals(1, breakdown.getOtherGroup().getApplicationAggregator().getLevelCounts().get("INFO"));
+        assertSame(breakdown.getOtherGroup(), breakdown.groupOf("d"));
+    }
+
+    @Test
+    void testMerge_MissingKey_ShouldStayOneGroupWithoutUsingAValue() {
+        AggregatorConfig config = AggregatorConfig.exact().withDimensions(List.of("host"), 3);
+        AggregatorSet first = new AggregatorSet(config);
+        first.buildDispatcher().handle("level=INFO message=\"no host\"");
+        AggregatorSet second = first.newShard();
+        LogHandler secondHandler = second.buildDispatcher();
+        secondHandler.handle("level=WARNING message=\"no host\"");
+        secondHandler.handle("level=INFO host=a");
+
+        first.merge(second);
+
+        DimensionBreakdown breakdown = first.getBreakdown();
+        assertEquals(2, breakdown.getGroupCount());
+        assertNull(breakdown.getOtherGroup());
+        AggregatorSet missing = breakdown.groupOf((String) null);
+        assertEquals(1, missing.getApplicationAggregator().getLevelCounts().get("INFO"));
+        assertEquals(1, missing.getApplicationAggregator().getLevelCounts().get("WARNING"));
+        // A real value spelled like the placeholder is a group of its own
+        assertNotSame(missing, breakdown.groupOf(DimensionBreakdown.MISSING));
+        assertEquals(3, breakdown.getGroupCount());
+    }
+
+    @Test
+    void testConfig_ShouldRejectTooManyDimensionsOrGroups() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AggregatorConfig.exact().withDimensions(List.of("a", "b", "c", "d", "e"), 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> AggregatorConfig.exact().withDimensions(List.of("host"), DimensionBreakdown.MAX_GROUPS + 1));
+        assertThrows(IllegalArgumentException.class, () -> new DimensionBreakdown(AggregatorConfig.exact()));
+        assertNull(new AggregatorSet().getBreakdown());
+    }
+
+    private static void feed(LogHandler handler) {
+        handler.handle("timestamp=2024-11-24T10:00:50Z level=INFO message=\"User updated profile\" host=webserver3");
+        handler.handle("timestamp=2024-11-24T10:00:57Z request_method=PUT request_url=\"/api/status\" response_status=201 response_time_ms=117 host=webserver1");
+        handler.handle("timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94");
+        handler.handle("timestamp=2024-11-24T10:01:35Z level=INFO message=\"Again\" host=webserver3");
+        handler.handle("timestamp=2024-11-24T10:01:45Z event=ACCESS_DENIED user_id=125 resource=\"/admin\" host=webserver2");
+    }
+
+    private static void assertTotalsAndHosts(AggregatorSet aggregators) {
+        assertEquals(2, aggregators.getApplicationAggregator().getLevelCounts().get("INFO"));
+
+        JsonObject breakdown = JsonParser.parseString(aggregators.getBreakdown().getBreakdownJson()).getAsJsonObject();
+        assertEquals("host", breakdown.getAsJsonArray("dimensions").get(0).getAsString());
+        JsonArray groups = breakdown.getAsJsonArray("groups");
+        assertEquals(2, groups.size()); // webserver2's line was not aggregated
+
+        JsonObject webserver1 = groups.get(0).getAsJsonObject();
+        assertEquals("webserver1", webserver1.get("host").getAsString());
+        assertEquals(94.0, webserver1.getAsJsonObject("apm").getAsJsonObject("cpu_usage_percent").get("max").getAsDouble());
+        assertTrue(webserver1.getAsJsonObject("request").has("/api/status"));
+        assertEquals(0, webserver1.getAsJsonObject("application").size());
+
+        JsonObject webserver3 = groups.get(1).getAsJsonObject();
+        assertEquals("webserver3", webserver3.get("host").getAsString());
+        assertEquals(2, webserver3.getAsJsonObject("application").get("INFO").getAsInt());
+    }
+
+    private static JsonArray groups(DimensionBreakdown breakdown) {
+        return JsonParser.parseString(breakdown.getBreakdownJson()).getAsJsonObject().getAsJsonArray("groups");
+    }
+}
@@ -0,0 +1,113 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileTailerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPoll_ShouldOnlyReturnNewCompleteLines() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first\nsecond\r\nthi");
+        List<String> lines = new ArrayList<>();
+
+        try (FileTailer tailer = new FileTailer(file)) {
+            assertEquals(2, tailer.poll(lines::add));
+            assertEquals(List.of("first", "second"), lines);
+
+            assertEquals(0, tailer.poll(lines::add), "A line without its newline should be held back.");
+
+            append(file, "rd\nfourth\n");
+            assertEquals(2, tailer.poll(lines::add));
+        }
+
+        assertEquals(List.of("first", "second", "third", "fourth"), lines);
+    }
+
+    @Test
+    void testPoll_MissingFile_ShouldWaitForIt() throws IOException {
+        Path file = tempDir.resolve("later.log");
+        List<String> lines = new ArrayList<>();
+
+        try (FileTailer tailer = new FileTailer(file)) {
+            assertEquals(0, tailer.poll(lines::add));
+            append(file, "hello\n");
+            assertEquals(1, tailer.poll(lines::add));
+        }
+
+        assertEquals(List.of("hello"), lines);
+    }
+
+    @Test
+    void testPoll_StartAtEnd_ShouldSkipExistingContent() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "old\n");
+        List<String> lines = new ArrayList<>();
+
+        try (FileTailer tailer = new FileTailer(file, true)) {
+            assertEquals(0, tailer.poll(lines::add));
+            append(file, "new\n");
+            tailer.poll(lines::add);
+        }
+
+        assertEquals(List.of("new"), lines);
+    }
+
+    @Test
+    void testPoll_Truncation_ShouldRestartFromBeginning() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "a long first line\nanother line\n");
+        List<String> lines = new ArrayList<>();
+
+        try (FileTailer tailer = new FileTailer(file)) {
+            tailer.poll(lines::add);
+            Files.write(file, "short\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+            assertEquals(1, tailer.poll(lines::add));
+            assertEquals(1, tailer.getTruncations());
+        }
+
+        assertEquals(List.of("a long first line", "another line", "short"), lines);
+    }
+
+    @Test
+    void testPoll_Rotation_ShouldDrainOldFileThenReadNewOne() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+        List<String> lines = new ArrayList<>();
+
+        try (FileTailer tailer = new FileTailer(file)) {
+            tailer.poll(lines::add);
+            // The writer finishes the old file, then it is rotated away and a fresh file takes its place
+            append(file, "two\nunterminated");
+            Files.move(file, tempDir.resolve("app.log.1"));
+            append(file, "three\n");
+
+            assertEquals(3, tailer.poll(lines::add));
+            assertEquals(1, tailer.getRotations());
+
+            append(file, "four\n");
+            assertEquals(1, tailer.poll(lines::add));
+        }
+
+        assertEquals(List.of("one", "two", "unterminated", "three", "four"), lines);
+    }
+
+    private static void append(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
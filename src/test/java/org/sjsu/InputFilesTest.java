@@ -0,0 +1,47 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testResolve_DirectoryGlobAndFile_ShouldExpandInOrderWithoutDuplicates() throws IOException {
+        Path logs = Files.createDirectory(tempDir.resolve("logs"));
+        Path b = Files.createFile(logs.resolve("app-b.log"));
+        Path a = Files.createFile(logs.resolve("app-a.log"));
+        Path other = Files.createFile(logs.resolve("other.txt"));
+        Files.createDirectory(logs.resolve("nested"));
+
+        List<Path> files = InputFiles.resolve(List.of(
+                other.toString(), logs.resolve("app-*.log").toString(), logs.toString()));
+
+        assertEquals(List.of(other, a, b), files);
+    }
+
+    @Test
+    void testResolve_MissingFileOrEmptyGlob_ShouldThrow() {
+        assertThrows(NoSuchFileException.class,
+                () -> InputFiles.resolve(List.of(tempDir.resolve("missing.log").toString())));
+        assertThrows(NoSuchFileException.class,
+                () -> InputFiles.resolve(List.of(tempDir.resolve("*.gz").toString())));
+    }
+
+    @Test
+    void testIsGlob() {
+        assertTrue(InputFiles.isGlob("logs/*.log"));
+        assertTrue(InputFiles.isGlob("app-?.log"));
+        assertFalse(InputFiles.isGlob("logs/app.log"));
+    }
+}
@@ -0,0 +1,59 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayBufferTest {
+
+    @Test
+    void testAdd_ShouldGrowPastInitialCapacity() {
+        IntArrayBuffer buffer = new IntArrayBuffer(2);
+        for (int i = 0; i < 1000; i++) {
+            buffer.add(i);
+        }
+
+        assertEquals(1000, buffer.size());
+        assertEquals(0, buffer.get(0));
+        assertEquals(999, buffer.get(999));
+    }
+
+    @Test
+    void testAddAll_ShouldAppendInOrder() {
+        IntArrayBuffer first = new IntArrayBuffer(1);
+        IntArrayBuffer second = new IntArrayBuffer();
+        first.add(3);
+        second.add(1);
+        second.add(2);
+
+        first.addAll(second);
+
+        assertEquals(3, first.size());
+        assertEquals(3, first.get(0));
+        assertEquals(2, first.get(2));
+        assertEquals(2, second.size(), "The source buffer should be left unchanged.");
+    }
+
+    @Test
+    void testSort_ShouldOnlySortStoredValues() {
+        IntArrayBuffer buffer = new IntArrayBuffer(64);
+        buffer.add(30);
+        buffer.add(-5);
+        buffer.add(10);
+
+        buffer.sort();
+
+        assertEquals(-5, buffer.get(0));
+        assertEquals(10, buffer.get(1));
+        assertEquals(30, buffer.get(2));
+    }
+
+    @Test
+    void testGet_PastSize_ShouldThrow() {
+        IntArrayBuffer buffer = new IntArrayBuffer();
+        buffer.add(1);
+
+        assertFalse(buffer.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(1));
+    }
+}
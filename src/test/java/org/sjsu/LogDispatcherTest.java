@@ -0,0 +1,114 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LogDispatcherTest {
+
+    @Mock
+    private FieldLogHandler mockApmHandler;
+
+    @Mock
+    private FieldLogHandler mockAppHandler;
+
+    @Mock
+    private LogHandler mockFallback;
+
+    private LogDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new LogDispatcher()
+                .register("metric", mockApmHandler)
+                .register("level", mockAppHandler);
+        dispatcher.setNext(mockFallback);
+    }
+
+    @Test
+    void testHandle_LineWithKey_ShouldOnlyCallMatchingHandler() {
+        when(mockAppHandler.handleFields(any())).thenReturn(true);
+
+        boolean result = dispatcher.handle("timestamp=2024-11-24T10:00:50Z level=INFO message=\"User updated profile\" host=webserver3");
+
+        assertTrue(result, "Dispatcher should return true when the selected handler accepts the line.");
+        verify(mockAppHandler).handleFields(any());
+        verifyNoInteractions(mockApmHandler);
+        verifyNoInteractions(mockFallback);
+    }
+
+    @Test
+    void testHandle_SelectedHandlerRejects_ShouldTryNextCandidateThenFallback() {
+        String logLine = "metric=cpu level=AUDIT host=webserver1";
+        when(mockApmHandler.handleFields(any())).thenReturn(false);
+        when(mockAppHandler.handleFields(any())).thenReturn(false);
+        when(mockFallback.handle(logLine)).thenReturn(true);
+
+        boolean result = dispatcher.handle(logLine);
+
+        assertTrue(result, "Dispatcher should return the fallback's result.");
+        verify(mockApmHandler).handleFields(any());
+        verify(mockAppHandler).handleFields(any());
+        verify(mockFallback).handle(logLine);
+    }
+
+    @Test
+    void testHandle_NoDiscriminatingKey_ShouldGoToFallback() {
+        String logLine = "timestamp=2024-11-24T10:03:10Z event=DEPLOYMENT_START app=\"user-service\" host=deploy-server";
+        when(mockFallback.handle(logLine)).thenReturn(false);
+
+        boolean result = dispatcher.handle(logLine);
+
+        assertFalse(result);
+        verifyNoInteractions(mockApmHandler);
+        verifyNoInteractions(mockAppHandler);
+        verify(mockFallback).handle(logLine);
+    }
+
+    @Test
+    void testHandle_NoFallback_ShouldReturnFalse() {
+        dispatcher.setNext(null);
+
+        assertFalse(dispatcher.handle("event=ACCESS_DENIED host=webserver2"));
+    }
+
+    @Test
+    void testDispatcherAndChain_ShouldProduceSameAggregates() {
+        String[] lines = {
+                "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94",
+                "timestamp=2024-11-24T10:00:55Z level=TRACE message=\"Entering function\" request_id=201 host=webserver1",
+                "timestamp=2024-11-24T10:01:10Z request_method=POST request_url=\"/api/retry\" response_status=404 response_time_ms=233 host=webserver3",
+                "timestamp=2024-11-24T10:01:45Z event=ACCESS_DENIED user_id=125 resource=\"/admin\" host=webserver2",
+                "timestamp=2024-11-24T10:04:07Z metric=cpu_usage_percent host=webserv"
+        };
+        AggregatorSet chainSet = new AggregatorSet();
+        AggregatorSet dispatchSet = new AggregatorSet();
+        LogHandler chain = chainSet.buildChain();
+        LogHandler realDispatcher = dispatchSet.buildDispatcher();
+
+        for (String line : lines) {
+            assertEquals(chain.handle(line), realDispatcher.handle(line), "Both modes should agree on: " + line);
+        }
+        assertEquals(chainSet.getApmAggregator().getApmJson(), dispatchSet.getApmAggregator().getApmJson());
+        assertEquals(chainSet.getApplicationAggregator().getApplicationJson(), dispatchSet.getApplicationAggregator().getApplicationJson());
+        assertEquals(chainSet.getRequestAggregator().getRequestJson(), dispatchSet.getRequestAggregator().getRequestJson());
+    }
+
+    @Test
+    void testListener_ShouldOnlySeeLinesAHandlerAccepted(@Mock FieldLogHandler listener) {
+        dispatcher.addListener(listener);
+        when(mockAppHandler.handleFields(any())).thenReturn(true);
+
+        assertTrue(dispatcher.handle("timestamp=2024-11-24T10:00:50Z level=INFO host=webserver3"));
+        assertFalse(dispatcher.handle("timestamp=2024-11-24T10:01:45Z event=ACCESS_DENIED host=webserver2"));
+
+        verify(listener, times(1)).handleFields(any());
+    }
+}
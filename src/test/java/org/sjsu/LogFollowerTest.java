@@ -0,0 +1,93 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class LogFollowerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testStop_ShouldWriteFinalSnapshotWithEveryLine() throws Exception {
+        Path log = tempDir.resolve("app.log");
+        Files.write(log, "timestamp=2024-11-24T10:00:00Z level=INFO message=\"up\" host=webserver1\n"
+                .getBytes(StandardCharsets.UTF_8));
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.approximate(0.01));
+        LogFollower follower = new LogFollower(new FileTailer(log), aggregators, tempDir, TimeUnit.HOURS.toMillis(1));
+
+        Thread thread = new Thread(() -> {
+            try {
+                follower.run();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        Files.write(log, ("timestamp=2024-11-24T10:00:01Z request_method=GET request_url=\"/api/status\" "
+                + "response_status=200 response_time_ms=40 host=webserver1\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        follower.stop();
+
+        assertTrue(follower.awaitFinished(10, TimeUnit.SECONDS));
+        thread.join();
+        assertEquals(2, follower.getLineCount());
+        assertEquals(1, follower.getSnapshotCount(), "Only the final snapshot is due within an hour.");
+        assertTrue(Files.readString(tempDir.resolve(OutputWriter.REQUEST_FILE)).contains("/api/status"));
+        assertTrue(Files.readString(tempDir.resolve(OutputWriter.APPLICATION_FILE)).contains("\"INFO\": 1"));
+        assertTrue(Files.exists(tempDir.resolve(OutputWriter.APM_FILE)));
+    }
+
+    @Test
+    void testSnapshot_NothingNewSinceLastSnapshot_ShouldBeSkipped() {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.approximate(0.01));
+        LogFollower follower = new LogFollower(new FileTailer(tempDir.resolve("missing.log")), aggregators,
+                tempDir, 1000);
+
+        follower.snapshot();
+        follower.snapshot();
+
+        assertEquals(1, follower.getSnapshotCount());
+    }
+
+    @Test
+    void testSnapshot_WithMetrics_ShouldPublishTotalsAndCounters() throws IOException {
+        Path log = tempDir.resolve("app.log");
+        Files.write(log, ("timestamp=2024-11-24T10:00:01Z request_method=GET request_url=\"/api/status\" "
+                + "response_status=200 response_time_ms=40 host=webserver1\nnot a log line\n").getBytes(StandardCharsets.UTF_8));
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.approximate(0.01));
+        List<String> pages = new ArrayList<>();
+        Diagnostics diagnostics = new Diagnostics(tempDir.resolve("diagnostics.log"), 0, 0);
+        MetricsEndpoint metrics = mock(MetricsEndpoint.class);
+        doAnswer(invocation -> pages.add(invocation.getArgument(0))).when(metrics).publish(anyString());
+        LogFollower follower = new LogFollower(new FileTailer(log), aggregators, tempDir, TimeUnit.HOURS.toMillis(1))
+                .withDiagnostics(diagnostics)
+                .withMetrics(metrics);
+
+        follower.stop();
+        follower.run();
+        diagnostics.close();
+
+        assertEquals(2, pages.size(), "Once on start, once for the final snapshot.");
+        assertTrue(pages.get(0).contains("log_processor_lines_read_total 0\n"));
+        String last = pages.get(1);
+        assertTrue(last.contains("log_processor_lines_read_total 2\n"));
+        assertTrue(last.contains("log_processor_unmatched_lines_total 1\n"));
+        assertTrue(last.contains("log_processor_snapshots_total 1\n"));
+        assertTrue(last.contains("log_processor_request_duration_seconds_count{route=\"/api/status\"} 1\n"));
+    }
+}
@@ -0,0 +1,106 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteLines_ShouldNotDependOnThreads() throws IOException {
+        long lines = 3L * LogGenerator.BLOCK_LINES + 123;
+        Path single = tempDir.resolve("single.log");
+        Path parallel = tempDir.resolve("parallel.log");
+        Path otherSeed = tempDir.resolve("other.log");
+
+        LogGenerator.Result result = new LogGenerator(7).withMalformedFraction(0.05).withThreads(1).writeLines(single, lines);
+        new LogGenerator(7).withMalformedFraction(0.05).withThreads(3).writeLines(parallel, lines);
+        new LogGenerator(8).withMalformedFraction(0.05).withThreads(3).writeLines(otherSeed, lines);
+
+        assertEquals(lines, result.getLineCount());
+        assertEquals(Files.size(single), result.getByteCount());
+        assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(parallel));
+        assertFalse(Arrays.equals(Files.readAllBytes(single), Files.readAllBytes(otherSeed)));
+    }
+
+    @Test
+    void testWriteLines_ShouldProduceLinesTheHandlersParse() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        new LogGenerator(1).withMix(1, 1, 2).withRoutes(25).withHosts(4).writeLines(file, 40_000);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.exact());
+        LogHandler handler = aggregators.buildDispatcher(Diagnostics.silent());
+        for (String line : lines) {
+            assertTrue(handler.handle(line), line);
+        }
+
+        assertEquals(40_000, lines.size());
+        assertEquals(25, aggregators.getRequestAggregator().getRequestResults().size());
+        long requests = lines.stream().filter(line -> line.contains(" request_url=")).count();
+        long apm = lines.stream().filter(line -> line.contains(" metric=")).count();
+        assertEquals(20_000, requests, 500);
+        assertEquals(10_000, apm, 500);
+        assertTrue(lines.stream().allMatch(line -> line.matches(".* host=webserver[1-4]( .*)?")));
+        assertTrue(lines.get(0).startsWith("timestamp=2024-11-24T10:00:00Z "));
+    }
+
+    @Test
+    void testMalformedFraction_ShouldBeRejectedOrReported() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        new LogGenerator(3).withMalformedFraction(0.1).writeLines(file, 20_000);
+
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.exact());
+        Diagnostics diagnostics = new Diagnostics(null, 0, 0);
+        LogHandler handler = aggregators.buildDispatcher(diagnostics);
+        long rejected = Files.readAllLines(file, StandardCharsets.UTF_8).stream().filter(line -> !handler.handle(line)).count();
+
+        assertEquals(2_000, rejected, 150);
+        // Two of the five kinds of bad line pass the field checks and are reported as malformed
+        assertEquals(800, diagnostics.getMalformedCount("Request"), 100);
+        assertEquals(diagnostics.getMalformedCount(), diagnostics.getMalformedCount("Request"));
+    }
+
+    @Test
+    void testWriteBytes_ShouldStopAfterTheLineReachingTheSize() throws IOException {
+        Path file = tempDir.resolve("app.log");
+
+        LogGenerator.Result result = new LogGenerator(5).writeBytes(file, 100_000);
+
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals(result.getByteCount(), bytes.length);
+        assertTrue(bytes.length >= 100_000 && bytes.length < 100_000 + 200, "Cut within one line of the size.");
+        assertEquals('\n', bytes[bytes.length - 1]);
+        assertEquals(result.getLineCount(), Files.readAllLines(file).size());
+        // A prefix of the same generator's output
+        Path longer = tempDir.resolve("longer.log");
+        new LogGenerator(5).writeLines(longer, result.getLineCount() + 10);
+        assertArrayEquals(bytes, Arrays.copyOf(Files.readAllBytes(longer), bytes.length));
+    }
+
+    @Test
+    void testLatency_ShouldParseEachDistribution() {
+        SplittableRandom random = new SplittableRandom(1);
+
+        assertEquals(40, LogGenerator.Latency.parse("fixed:40").sample(random));
+        int uniform = LogGenerator.Latency.parse("uniform:10,20").sample(random);
+        assertTrue(uniform >= 10 && uniform <= 20);
+        assertTrue(LogGenerator.Latency.parse("exponential:100").sample(random) >= 0);
+        assertTrue(LogGenerator.Latency.parse("lognormal:120,0.5").sample(random) >= 0);
+        assertThrows(IllegalArgumentException.class, () -> LogGenerator.Latency.parse("normal:100"));
+        assertThrows(IllegalArgumentException.class, () -> LogGenerator.Latency.parse("uniform:20,10"));
+        assertThrows(IllegalArgumentException.class, () -> LogGenerator.Latency.parse("lognormal:abc,1"));
+    }
+}
@@ -0,0 +1,114 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogLineTokenizerTest {
+
+    private LogLineTokenizer tokenizer;
+
+    @BeforeEach
+    void setUp() {
+        tokenizer = new LogLineTokenizer();
+    }
+
+    @Test
+    void testReset_PlainAndQuotedValues() {
+        tokenizer.reset("timestamp=2024-11-24T10:02:55Z level=ERROR message=\"File not found\" file_path=\"/var/app/config.yml\" host=webserver2");
+
+        assertEquals(5, tokenizer.fieldCount());
+        assertEquals("2024-11-24T10:02:55Z", tokenizer.value("timestamp"));
+        assertEquals("ERROR", tokenizer.value("level"));
+        assertEquals("File not found", tokenizer.value("message"));
+        assertEquals("/var/app/config.yml", tokenizer.value("file_path"));
+        assertEquals("webserver2", tokenizer.value("host"));
+        assertTrue(tokenizer.isQuoted(tokenizer.indexOf("message")));
+        assertFalse(tokenizer.isQuoted(tokenizer.indexOf("level")));
+    }
+
+    @Test
+    void testReset_KeysInsideQuotedValuesAreNotFields() {
+        tokenizer.reset("level=DEBUG message=\"metric=cpu value=5\" host=server1");
+
+        assertFalse(tokenizer.has("metric"));
+        assertFalse(tokenizer.has("value"));
+        assertEquals("server1", tokenizer.value("host"));
+    }
+
+    @Test
+    void testReset_TokensWithoutEqualsAreSkipped() {
+        tokenizer.reset("timestamp=... request_url=\"/api/data\" ... =orphan response_status=200");
+
+        assertEquals(3, tokenizer.fieldCount());
+        assertEquals("/api/data", tokenizer.value("request_url"));
+        assertEquals("200", tokenizer.value("response_status"));
+        assertNull(tokenizer.value("missing"));
+    }
+
+    @Test
+    void testReset_UnterminatedQuoteIsNotQuoted() {
+        tokenizer.reset("request_url=\"/api/data response_status=200");
+
+        int url = tokenizer.indexOf("request_url");
+        assertEquals("/api/data response_status=200", tokenizer.value(url));
+        assertFalse(tokenizer.isQuoted(url));
+    }
+
+    @Test
+    void testReset_EmptyLineHasNoFields() {
+        tokenizer.reset("   ");
+        assertEquals(0, tokenizer.fieldCount());
+    }
+
+    @Test
+    void testReset_ManyFieldsGrowStorage() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            line.append("k").append(i).append('=').append(i).append(' ');
+        }
+        tokenizer.reset(line);
+
+        assertEquals(40, tokenizer.fieldCount());
+        assertEquals(39, tokenizer.parseInt(tokenizer.indexOf("k39")));
+    }
+
+    @Test
+    void testNumericChecksAndParsing() {
+        tokenizer.reset("a=72 b=72.5 c=72. d=high e=-5 f=99999999999 g=");
+
+        assertTrue(tokenizer.isDecimal(tokenizer.indexOf("a")));
+        assertTrue(tokenizer.isDecimal(tokenizer.indexOf("b")));
+        assertFalse(tokenizer.isDecimal(tokenizer.indexOf("c")));
+        assertFalse(tokenizer.isDecimal(tokenizer.indexOf("d")));
+        assertFalse(tokenizer.isDigits(tokenizer.indexOf("e")));
+        assertFalse(tokenizer.isDigits(tokenizer.indexOf("g")));
+
+        assertEquals(72, tokenizer.parseInt(tokenizer.indexOf("a")));
+        assertEquals(72.5, tokenizer.parseDouble(tokenizer.indexOf("b")), 0.0);
+        assertEquals(99999999999.0, tokenizer.parseDouble(tokenizer.indexOf("f")), 0.0);
+        assertThrows(NumberFormatException.class, () -> tokenizer.parseInt(tokenizer.indexOf("f")));
+        assertThrows(NumberFormatException.class, () -> tokenizer.parseInt(tokenizer.indexOf("d")));
+    }
+
+    @Test
+    void testValueEqualsIgnoreCase() {
+        tokenizer.reset("level=Warning");
+        int level = tokenizer.indexOf("level");
+
+        assertTrue(tokenizer.valueEqualsIgnoreCase(level, "WARNING"));
+        assertFalse(tokenizer.valueEqualsIgnoreCase(level, "WARN"));
+    }
+
+    @Test
+    void testValueWithSymbols_ShouldReuseTheCanonicalString() {
+        SymbolTable symbols = new SymbolTable(10);
+        LogLineTokenizer first = new LogLineTokenizer().reset("metric=cpu_usage_percent value=1");
+        String name = first.value(0, symbols);
+        LogLineTokenizer second = new LogLineTokenizer().reset("timestamp=x metric=cpu_usage_percent value=2");
+
+        assertEquals("cpu_usage_percent", name);
+        assertSame(name, second.value(1, symbols));
+    }
+}
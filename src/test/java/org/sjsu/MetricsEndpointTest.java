@@ -0,0 +1,95 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsEndpointTest {
+
+    private MetricsEndpoint endpoint;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        endpoint = new MetricsEndpoint(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.close();
+    }
+
+    @Test
+    void testScrape_ShouldServeThePublishedTotals() throws Exception {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.approximate(0.01));
+        LogHandler handler = aggregators.buildDispatcher(Diagnostics.silent());
+        handler.handle("timestamp=2024-11-24T10:00:00Z metric=cpu_usage_percent host=web1 value=72.5");
+        handler.handle("timestamp=2024-11-24T10:00:01Z level=ERROR message=\"down\" host=web1");
+        handler.handle("timestamp=2024-11-24T10:00:02Z request_method=GET request_url=\"/api/status\" "
+                + "response_status=200 response_time_ms=40 host=web1");
+        handler.handle("timestamp=2024-11-24T10:00:03Z request_method=GET request_url=\"/api/status\" "
+                + "response_status=503 response_time_ms=700 host=web1");
+        PrometheusOutput out = new PrometheusOutput();
+        aggregators.writePrometheus(out);
+        endpoint.publish(out.toString());
+
+        HttpResponse<String> response = get(MetricsEndpoint.PATH);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(PrometheusOutput.CONTENT_TYPE, response.headers().firstValue("Content-Type").orElse(null));
+        String page = response.body();
+        assertTrue(page.contains("# TYPE log_processor_request_duration_seconds histogram\n"));
+        assertTrue(page.contains("log_processor_request_duration_seconds_bucket{route=\"/api/status\",le=\"0.025\"} 0\n"));
+        assertTrue(page.contains("log_processor_request_duration_seconds_bucket{route=\"/api/status\",le=\"0.05\"} 1\n"));
+        assertTrue(page.contains("log_processor_request_duration_seconds_bucket{route=\"/api/status\",le=\"+Inf\"} 2\n"));
+        assertTrue(page.contains("log_processor_request_duration_seconds_count{route=\"/api/status\"} 2\n"));
+        assertTrue(page.contains("log_processor_request_duration_seconds_sum{route=\"/api/status\"} 0.74\n"));
+        assertTrue(page.contains("log_processor_requests_total{route=\"/api/status\",status=\"5XX\"} 1\n"));
+        assertTrue(page.contains("log_processor_application_logs_total{level=\"ERROR\"} 1\n"));
+        assertTrue(page.contains("log_processor_apm_value_max{metric=\"cpu_usage_percent\"} 72.5\n"));
+    }
+
+    @Test
+    void testScrape_NothingPublished_ShouldServeEmptyPage() throws Exception {
+        HttpResponse<String> response = get(MetricsEndpoint.PATH);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("", response.body());
+    }
+
+    @Test
+    void testScrape_OtherPathOrMethod_ShouldBeRejected() throws Exception {
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri(MetricsEndpoint.PATH))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, post.statusCode());
+        assertEquals(404, get("/metrics/extra").statusCode());
+    }
+
+    @Test
+    void testLabelValues_ShouldBeEscaped() {
+        PrometheusOutput out = new PrometheusOutput();
+        out.sample("requests_total", 3, "route", "/a\"b\\c\nd");
+
+        assertEquals("log_processor_requests_total{route=\"/a\\\"b\\\\c\\nd\"} 3\n", out.toString());
+        assertEquals("0.25", PrometheusOutput.formatValue(0.25));
+        assertEquals("+Inf", PrometheusOutput.formatValue(Double.POSITIVE_INFINITY));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + endpoint.getPort() + path);
+    }
+}
@@ -0,0 +1,105 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiFileProcessorTest {
+
+    private static final String[] SAMPLE_LINES = {
+            "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94",
+            "timestamp=2024-11-24T10:02:55Z level=ERROR message=\"File not found\" file_path=\"/var/app/config.yml\" host=webserver2",
+            "timestamp=2024-11-24T10:01:25Z request_method=PUT request_url=\"/api/update\" response_status=503 response_time_ms=61 host=webserver1",
+            "",
+            "timestamp=2024-11-24T10:03:40Z level=info message=\"Scheduled task completed\" task_id=501 host=webserver2"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testProcess_SeveralFiles_ShouldMatchReadingThemOneAfterAnother() throws IOException {
+        AggregatorSet expected = new AggregatorSet();
+        LogHandler expectedChain = expected.buildChain();
+        List<Path> files = new ArrayList<>();
+        for (int f = 0; f < 5; f++) {
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                String line = SAMPLE_LINES[i % SAMPLE_LINES.length]
+                        .replace("value=94", "value=" + (f * 100 + i) % 89)
+                        .replace("response_time_ms=61", "response_time_ms=" + (f * 7 + i) % 53);
+                content.append(line).append('\n');
+                if (!line.trim().isEmpty()) {
+                    expectedChain.handle(line);
+                }
+            }
+            Path file = tempDir.resolve("app-" + f + ".log");
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+
+        AggregatorSet actual = new AggregatorSet();
+        MultiFileProcessor.Result result = new MultiFileProcessor().process(files, actual);
+
+        assertEquals(5, result.getFileCount());
+        assertEquals(500, result.getLineCount());
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+
+        // Fewer threads than files: the rest wait for a free thread
+        AggregatorSet twoThreads = new AggregatorSet();
+        new MultiFileProcessor(2).process(files, twoThreads);
+        assertEquals(expected.getApmAggregator().getApmJson(), twoThreads.getApmAggregator().getApmJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), twoThreads.getRequestAggregator().getRequestJson());
+    }
+
+    @Test
+    void testProcess_GroupLimit_ShouldKeepTheGroupsOfTheFirstFilesOnEveryRun() throws IOException {
+        AggregatorConfig config = AggregatorConfig.DEFAULT.withDimensions(List.of("host"), 2);
+        AggregatorSet expected = new AggregatorSet(config);
+        LogHandler expectedDispatcher = expected.buildDispatcher(Diagnostics.silent());
+        List<Path> files = new ArrayList<>();
+        for (int f = 0; f < 4; f++) {
+            // The first file is the largest, so it tends to finish last
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < (f == 0 ? 20_000 : 50); i++) {
+                String line = SAMPLE_LINES[i % SAMPLE_LINES.length].replace("webserver1", "host" + f)
+                        .replace("webserver2", "host" + f);
+                content.append(line).append('\n');
+                if (!line.trim().isEmpty()) {
+                    expectedDispatcher.handle(line);
+                }
+            }
+            Path file = tempDir.resolve("host-" + f + ".log");
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+
+        for (int run = 0; run < 5; run++) {
+            AggregatorSet actual = new AggregatorSet(config);
+            new MultiFileProcessor(4).withDiagnostics(Diagnostics.silent()).process(files, actual);
+
+            assertEquals(expected.getBreakdown().getBreakdownJson(), actual.getBreakdown().getBreakdownJson(),
+                    "Run " + run + " kept other hosts.");
+        }
+    }
+
+    @Test
+    void testProcess_MissingFile_ShouldThrow() throws IOException {
+        Path present = tempDir.resolve("present.log");
+        Files.write(present, SAMPLE_LINES[0].getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(NoSuchFileException.class, () -> new MultiFileProcessor()
+                .process(List.of(present, tempDir.resolve("gone.log")), new AggregatorSet()));
+    }
+}
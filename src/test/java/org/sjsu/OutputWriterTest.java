@@ -0,0 +1,101 @@
+package org.sjsu;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Enough routes and metrics for the parallel streams to actually split
+    private static AggregatorSet fill(AggregatorConfig config) {
+        AggregatorSet aggregators = new AggregatorSet(config);
+        LogHandler handler = aggregators.buildDispatcher(Diagnostics.silent());
+        for (int i = 0; i < 5_000; i++) {
+            String timestamp = "timestamp=2024-11-24T10:0" + (i % 10) + ":00Z";
+            handler.handle(timestamp + " metric=metric_" + (i % 37) + " host=web" + (i % 3) + " value=" + (i % 101));
+            handler.handle(timestamp + " level=" + (i % 2 == 0 ? "INFO" : "ERROR") + " message=\"m\" host=web" + (i % 3));
+            handler.handle(timestamp + " request_method=GET request_url=\"/api/route" + (i % 211) + "\" host=web" + (i % 3)
+                    + " response_status=" + (200 + (i % 4) * 100) + " response_time_ms=" + (i % 997));
+        }
+        return aggregators;
+    }
+
+    @Test
+    void testWriteAll_ShouldMatchSequentialJson() throws IOException {
+        AggregatorSet aggregators = fill(AggregatorConfig.exact());
+        // Computed before writing, on this thread; finalizing again must give the same content
+        String apm = aggregators.getApmAggregator().getApmJson();
+        String application = aggregators.getApplicationAggregator().getApplicationJson();
+        String request = aggregators.getRequestAggregator().getRequestJson();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertTrue(OutputWriter.writeAll(aggregators, tempDir, pool, false));
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(apm, read(OutputWriter.APM_FILE));
+        assertEquals(application, read(OutputWriter.APPLICATION_FILE));
+        assertEquals(request, read(OutputWriter.REQUEST_FILE));
+        assertFalse(Files.exists(tempDir.resolve(OutputWriter.TIMESERIES_FILE)));
+    }
+
+    @Test
+    void testWriteAll_WithWindowsAndGroups_ShouldWriteEveryFile() throws IOException {
+        AggregatorSet aggregators = fill(AggregatorConfig.exact().withWindows(60, 10).withDimensions(List.of("host"), 10));
+        String timeSeries = aggregators.getTimeWindows().getTimeSeriesJson();
+        String breakdown = aggregators.getBreakdown().getBreakdownJson();
+
+        assertTrue(OutputWriter.writeAll(aggregators, tempDir));
+
+        assertEquals(timeSeries, read(OutputWriter.TIMESERIES_FILE));
+        assertEquals(breakdown, read(OutputWriter.BREAKDOWN_FILE));
+    }
+
+    @Test
+    void testStreamedJson_ShouldMatchGsonOfTheResults() throws IOException {
+        AggregatorSet aggregators = fill(AggregatorConfig.exact());
+        // More routes than one chunk, with characters Gson escapes
+        for (int i = 0; i < 3 * JsonOutput.CHUNK_SIZE; i++) {
+            aggregators.getRequestAggregator().addRequestData("/api/item?id=" + i + "&x=<y>", 200, i % 50);
+        }
+        Gson pretty = new GsonBuilder().setPrettyPrinting().create();
+        Gson compact = new Gson();
+
+        assertEquals(pretty.toJson(aggregators.getRequestAggregator().getRequestResults()),
+                aggregators.getRequestAggregator().getRequestJson());
+        assertEquals(pretty.toJson(aggregators.getApmAggregator().getApmResults()),
+                aggregators.getApmAggregator().getApmJson());
+
+        assertTrue(OutputWriter.writeAll(aggregators, tempDir, ForkJoinPool.commonPool(), true));
+
+        assertEquals(compact.toJson(aggregators.getRequestAggregator().getRequestResults()), read(OutputWriter.REQUEST_FILE));
+        assertEquals(compact.toJson(aggregators.getApplicationAggregator().getLevelCounts()),
+                read(OutputWriter.APPLICATION_FILE));
+    }
+
+    @Test
+    void testWriteAll_MissingDirectory_ShouldReportFailure() {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.exact());
+
+        assertFalse(OutputWriter.writeAll(aggregators, tempDir.resolve("missing")));
+    }
+
+    private String read(String file) throws IOException {
+        return new String(Files.readAllBytes(tempDir.resolve(file)), StandardCharsets.UTF_8);
+    }
+}
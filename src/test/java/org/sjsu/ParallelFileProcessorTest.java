@@ -0,0 +1,150 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelFileProcessorTest {
+
+    private static final String[] SAMPLE_LINES = {
+            "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94",
+            "timestamp=2024-11-24T10:02:55Z level=ERROR message=\"File not found\" file_path=\"/var/app/config.yml\" host=webserver2",
+            "timestamp=2024-11-24T10:01:25Z request_method=PUT request_url=\"/api/update\" response_status=503 response_time_ms=61 host=webserver1",
+            "timestamp=2024-11-24T10:01:35Z metric=memory_usage_percent host=webserver2 value=31.5",
+            "",
+            "timestamp=2024-11-24T10:01:45Z event=ACCESS_DENIED user_id=125 resource=\"/admin\" host=webserver2",
+            "timestamp=2024-11-24T10:02:20Z request_method=GET request_url=\"/api/status\" response_status=200 response_time_ms=140 host=webserver2",
+            "timestamp=2024-11-24T10:03:40Z level=info message=\"Scheduled task completed\" task_id=501 host=webserver2"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testProcess_SmallChunks_ShouldMatchSequentialOutput() throws IOException {
+        StringBuilder content = new StringBuilder();
+        AggregatorSet expected = new AggregatorSet();
+        LogHandler expectedChain = expected.buildChain();
+        for (int i = 0; i < 500; i++) {
+            String line = SAMPLE_LINES[i % SAMPLE_LINES.length].replace("value=94", "value=" + (i % 97));
+            content.append(line).append(i % 7 == 0 ? "\r\n" : "\n");
+            if (!line.trim().isEmpty()) {
+                expectedChain.handle(line);
+            }
+        }
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        AggregatorSet actual = new AggregatorSet();
+        ParallelFileProcessor.Result result = new ParallelFileProcessor(4, 1024).process(file, actual);
+
+        assertEquals(500, result.getLineCount());
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+    }
+
+    @Test
+    void testProcess_LastLineWithoutNewline_ShouldStillBeCounted() throws IOException {
+        Path file = tempDir.resolve("no_trailing_newline.txt");
+        Files.write(file, (SAMPLE_LINES[0] + "\n" + SAMPLE_LINES[2]).getBytes(StandardCharsets.UTF_8));
+
+        AggregatorSet actual = new AggregatorSet();
+        ParallelFileProcessor.Result result = new ParallelFileProcessor(2, 16).process(file, actual);
+
+        assertEquals(2, result.getLineCount());
+        assertTrue(actual.getRequestAggregator().getRequestJson().contains("/api/update"));
+    }
+
+    @Test
+    void testProcess_EmptyFile_ShouldProduceEmptyOutput() throws IOException {
+        Path file = tempDir.resolve("empty.txt");
+        Files.createFile(file);
+
+        AggregatorSet actual = new AggregatorSet();
+        ParallelFileProcessor.Result result = new ParallelFileProcessor(2).process(file, actual);
+
+        assertEquals(0, result.getLineCount());
+        assertEquals("{}", actual.getApmAggregator().getApmJson());
+    }
+
+    @Test
+    void testSplitChunks_BoundariesShouldFollowNewlines() throws IOException {
+        Path file = tempDir.resolve("chunks.txt");
+        Files.write(file, String.join("\n", SAMPLE_LINES).getBytes(StandardCharsets.UTF_8));
+        byte[] bytes = Files.readAllBytes(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> chunks = new ParallelFileProcessor(1, 50).splitChunks(channel, channel.size());
+
+            assertEquals(0, chunks.get(0)[0]);
+            assertEquals(bytes.length, chunks.get(chunks.size() - 1)[1]);
+            for (int i = 1; i < chunks.size(); i++) {
+                assertEquals(chunks.get(i - 1)[1], chunks.get(i)[0], "Chunks should be contiguous.");
+                assertEquals('\n', bytes[(int) chunks.get(i)[0] - 1], "Chunks should start right after a newline.");
+            }
+        }
+    }
+
+    @Test
+    void testSplitRanges_ShouldCoverFileOnLineBoundaries() throws IOException {
+        Path file = tempDir.resolve("ranges.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            content.append(SAMPLE_LINES[i % SAMPLE_LINES.length]).append('\n');
+        }
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] bytes = Files.readAllBytes(file);
+
+        List<long[]> ranges = ParallelFileProcessor.splitRanges(file, 3);
+
+        assertEquals(3, ranges.size());
+        assertEquals(0, ranges.get(0)[0]);
+        assertEquals(bytes.length, ranges.get(2)[1]);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1)[1], ranges.get(i)[0], "Ranges should be contiguous.");
+            assertEquals('\n', bytes[(int) ranges.get(i)[0] - 1], "Ranges should start right after a newline.");
+        }
+        // A single line cannot be split
+        Files.write(file, SAMPLE_LINES[0].getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, ParallelFileProcessor.splitRanges(file, 4).size());
+    }
+
+    @Test
+    void testEndOfLastLine_ShouldSkipUnfinishedLine() throws IOException {
+        Path file = tempDir.resolve("growing.txt");
+        String complete = SAMPLE_LINES[0] + "\n" + SAMPLE_LINES[1] + "\n";
+        Files.write(file, (complete + "timestamp=2024-11-24T10:0").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(complete.length(), ParallelFileProcessor.endOfLastLine(file));
+
+        Files.write(file, "no newline yet".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, ParallelFileProcessor.endOfLastLine(file));
+    }
+
+    @Test
+    void testProcessRange_ShouldOnlyParseRangeAndNumberLinesFromWholeFile() throws IOException {
+        Path file = tempDir.resolve("range.txt");
+        String head = SAMPLE_LINES[0] + "\n" + SAMPLE_LINES[1] + "\n";
+        Files.write(file, (head + SAMPLE_LINES[2] + "\n").getBytes(StandardCharsets.UTF_8));
+
+        AggregatorSet actual = new AggregatorSet();
+        ParallelFileProcessor.Result result = new ParallelFileProcessor(1)
+                .processRange(file, actual, head.length(), Files.size(file), 2);
+
+        assertEquals(1, result.getLineCount());
+        assertEquals("{}", actual.getApmAggregator().getApmJson(), "Lines before the range should be skipped.");
+        assertTrue(actual.getRequestAggregator().getRequestJson().contains("/api/update"));
+        assertThrows(IOException.class,
+                () -> new ParallelFileProcessor(1).processRange(file, actual, 0, Files.size(file) + 1, 0));
+    }
+}
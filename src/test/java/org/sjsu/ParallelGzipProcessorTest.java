@@ -0,0 +1,154 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelGzipProcessorTest {
+
+    private static final String[] SAMPLE_LINES = {
+            "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94",
+            "timestamp=2024-11-24T10:02:55Z level=ERROR message=\"File not found\" file_path=\"/var/app/config.yml\" host=webserver2",
+            "timestamp=2024-11-24T10:01:25Z request_method=PUT request_url=\"/api/update\" response_status=503 response_time_ms=61 host=webserver1",
+            "",
+            "timestamp=2024-11-24T10:03:40Z level=info message=\"Scheduled task completed\" task_id=501 host=webserver2"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testProcess_MembersSplitMidLine_ShouldMatchPlainFile() throws IOException {
+        String content = sampleContent(2000);
+        // Cut members at arbitrary byte positions, so lines continue from one member into the next
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        int[] cuts = {0, 1, 7_001, 7_050, 52_345, 90_000, content.length()};
+        for (int i = 1; i < cuts.length; i++) {
+            concatenated.write(CompressedInputTest.gzip(content.substring(cuts[i - 1], cuts[i])));
+        }
+        Path gz = tempDir.resolve("input.log.gz");
+        Files.write(gz, concatenated.toByteArray());
+
+        assertSameAsPlain(content, gz, 2000);
+    }
+
+    @Test
+    void testProcess_SingleMember_ShouldMatchPlainFile() throws IOException {
+        String content = sampleContent(500);
+        Path gz = tempDir.resolve("single.gz");
+        Files.write(gz, CompressedInputTest.gzip(content));
+
+        assertSameAsPlain(content, gz, 500);
+    }
+
+    @Test
+    void testProcess_TrailingGarbage_ShouldFallBackToStreaming() throws IOException {
+        String content = sampleContent(300);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(CompressedInputTest.gzip(content.substring(0, 1000)));
+        bytes.write(CompressedInputTest.gzip(content.substring(1000)));
+        bytes.write(new byte[]{0, 0, 0, 0});
+        Path gz = tempDir.resolve("padded.gz");
+        Files.write(gz, bytes.toByteArray());
+
+        assertSameAsPlain(content, gz, 300);
+    }
+
+    @Test
+    void testProcess_TrailingGarbage_ShouldReportEachProblemOnce() throws IOException {
+        // A malformed line is not aggregated either, so it also counts as unmatched
+        String member = "not a log line\n"
+                + "timestamp=2024-11-24T10:01:25Z request_method=PUT request_url=\"/api/update\" response_status=503"
+                + " response_time_ms=99999999999 host=webserver1\n"
+                + SAMPLE_LINES[0] + "\n";
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            bytes.write(CompressedInputTest.gzip(member));
+        }
+        bytes.write(new byte[]{0, 0, 0, 0});
+        Path gz = tempDir.resolve("padded.gz");
+        Files.write(gz, bytes.toByteArray());
+        Diagnostics diagnostics = new Diagnostics(null, 0, 0);
+
+        // The members are decompressed in parallel before the garbage is found, then the file is streamed
+        new ParallelGzipProcessor(3).withDiagnostics(diagnostics).process(gz, new AggregatorSet());
+        diagnostics.close();
+
+        assertEquals(6, diagnostics.getUnmatchedCount());
+        assertEquals(3, diagnostics.getMalformedCount());
+    }
+
+    @Test
+    void testProcess_WindowsSmallerThanFile_ShouldMapMembersWindowByWindow() throws IOException {
+        String content = sampleContent(3000);
+        ByteArrayOutputStream concatenated = new ByteArrayOutputStream();
+        for (int start = 0; start < content.length(); start += 20_011) {
+            concatenated.write(CompressedInputTest.gzip(content.substring(start, Math.min(content.length(), start + 20_011))));
+        }
+        Path gz = tempDir.resolve("windows.gz");
+        Files.write(gz, concatenated.toByteArray());
+        Path plain = tempDir.resolve("plain.log");
+        Files.write(plain, content.getBytes(StandardCharsets.UTF_8));
+        AggregatorSet expected = new AggregatorSet();
+        new ParallelFileProcessor(1).process(plain, expected);
+
+        // Each window holds a few members and ends inside the next one
+        AggregatorSet actual = new AggregatorSet();
+        ParallelFileProcessor.Result result = new ParallelGzipProcessor(3)
+                .withWindowSize(concatenated.size() / 4).process(gz, actual);
+
+        assertEquals(3000, result.getLineCount());
+        assertTrue(result.toString().endsWith("on 3 worker thread(s)"), "Members were decompressed in parallel.");
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+
+        // A member larger than a window is left to the streaming decompressor
+        AggregatorSet streamed = new AggregatorSet();
+        ParallelFileProcessor.Result streamedResult = new ParallelGzipProcessor(3).withWindowSize(64).process(gz, streamed);
+        assertEquals(3000, streamedResult.getLineCount());
+        assertTrue(streamedResult.toString().endsWith("on 1 worker thread(s)"));
+        assertEquals(expected.getRequestAggregator().getRequestJson(), streamed.getRequestAggregator().getRequestJson());
+    }
+
+    @Test
+    void testFindCandidates_ShouldReturnEveryHeaderPosition() {
+        ByteBuffer bytes = ByteBuffer.wrap(new byte[]{0x1f, (byte) 0x8b, 8, 0, 0x1f, (byte) 0x8b, 8, 0x1f, (byte) 0x8b});
+
+        assertEquals(List.of(0, 4), ParallelGzipProcessor.findCandidates(bytes));
+    }
+
+    private void assertSameAsPlain(String content, Path gz, long expectedLines) throws IOException {
+        Path plain = tempDir.resolve("plain.log");
+        Files.write(plain, content.getBytes(StandardCharsets.UTF_8));
+        AggregatorSet expected = new AggregatorSet();
+        new ParallelFileProcessor(1).process(plain, expected);
+
+        AggregatorSet actual = new AggregatorSet();
+        ParallelFileProcessor.Result result = new ParallelGzipProcessor(3).process(gz, actual);
+
+        assertEquals(expectedLines, result.getLineCount());
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+    }
+
+    private static String sampleContent(int lines) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            content.append(SAMPLE_LINES[i % SAMPLE_LINES.length]
+                            .replace("value=94", "value=" + i % 89)
+                            .replace("response_time_ms=61", "response_time_ms=" + i % 131))
+                    .append(i % 9 == 0 ? "\r\n" : "\n");
+        }
+        return content.toString();
+    }
+}
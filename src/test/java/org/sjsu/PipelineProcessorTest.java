@@ -0,0 +1,120 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelineProcessorTest {
+
+    private static final String[] SAMPLE_LINES = {
+            "timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94",
+            "timestamp=2024-11-24T10:02:55Z level=ERROR message=\"File not found\" file_path=\"/var/app/config.yml\" host=webserver2",
+            "timestamp=2024-11-24T10:01:25Z request_method=PUT request_url=\"/api/update\" response_status=503 response_time_ms=61 host=webserver1",
+            "",
+            "timestamp=2024-11-24T10:01:45Z event=ACCESS_DENIED user_id=125 resource=\"/admin\" host=webserver2",
+            "timestamp=2024-11-24T10:02:20Z request_method=GET request_url=\"/api/status\" response_status=200 response_time_ms=140 host=webserver2"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testProcess_SmallBatchesAndQueue_ShouldMatchSequentialOutput() throws IOException {
+        StringBuilder content = new StringBuilder();
+        AggregatorSet expected = new AggregatorSet();
+        LogHandler expectedChain = expected.buildChain();
+        for (int i = 0; i < 1000; i++) {
+            String line = SAMPLE_LINES[i % SAMPLE_LINES.length]
+                    .replace("value=94", "value=" + (i % 97))
+                    .replace("response_time_ms=61", "response_time_ms=" + (i % 131));
+            content.append(line).append('\n');
+            if (!line.trim().isEmpty()) {
+                expectedChain.handle(line);
+            }
+        }
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        AggregatorSet actual = new AggregatorSet();
+        PipelineProcessor.Result result = new PipelineProcessor(3, 7, 2).process(file, actual);
+
+        assertEquals(1000, result.getLineCount());
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+    }
+
+    @Test
+    void testProcess_ShouldReportEveryStage() throws IOException {
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, String.join("\n", SAMPLE_LINES).getBytes(StandardCharsets.UTF_8));
+
+        PipelineProcessor.Result result = new PipelineProcessor(2, 2, 1).process(file, new AggregatorSet());
+
+        assertEquals(3, result.getStages().size(), "One reader stage plus one stage per parser.");
+        PipelineProcessor.StageStats reader = result.getStages().get(0);
+        assertEquals("reader", reader.getName());
+        assertEquals(3, reader.getBatches());
+        assertEquals(SAMPLE_LINES.length, reader.getLines());
+        long parsedLines = result.getStages().get(1).getLines() + result.getStages().get(2).getLines();
+        assertEquals(SAMPLE_LINES.length, parsedLines);
+        assertTrue(reader.getMaxQueueDepth() <= 1, "The queue should never hold more than its capacity.");
+    }
+
+    @Test
+    void testProcess_UnmatchedLines_ShouldBeReportedInFileOrder() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 50; i++) {
+            content.append(i % 5 == 0 ? "unknown line " + i : SAMPLE_LINES[0]).append('\n');
+        }
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+        try {
+            new PipelineProcessor(4, 3, 2).process(file, new AggregatorSet());
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String[] warnings = captured.toString(StandardCharsets.UTF_8).trim().split("\\R");
+        assertEquals(10, warnings.length);
+        for (int i = 0; i < warnings.length; i++) {
+            int lineNum = (i + 1) * 5;
+            assertTrue(warnings[i].startsWith("Warning: Line " + lineNum + " "), warnings[i]);
+        }
+    }
+
+    @Test
+    void testProcess_FailingParser_ShouldThrowInsteadOfHanging() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append(SAMPLE_LINES[0]).append('\n');
+        }
+        Path file = tempDir.resolve("input.txt");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        PipelineProcessor processor = new PipelineProcessor(2, 4, 1).withHandlerFactory((shard, diagnostics) -> new LogHandler() {
+            @Override
+            public void setNext(LogHandler nextHandler) {
+            }
+
+            @Override
+            public boolean handle(String logLine) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertThrows(IOException.class, () -> processor.process(file, new AggregatorSet()));
+    }
+}
@@ -0,0 +1,106 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+
+    @Test
+    void testQuantile_ShouldStayWithinRelativeError() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        Random random = new Random(42);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Long-tailed latencies between 1ms and a few seconds
+            values[i] = Math.floor(Math.exp(random.nextGaussian() + 5)) + 1;
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : QUANTILES) {
+            double expected = exactR7(values, q);
+            assertEquals(expected, sketch.quantile(q), expected * 0.01 + 1e-9, "Quantile " + q);
+        }
+        assertEquals(values.length, sketch.getCount());
+    }
+
+    @Test
+    void testQuantile_SingleValue() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        sketch.add(150);
+
+        assertEquals(150.0, sketch.quantile(0.5), 1.5);
+        assertEquals(150.0, sketch.quantile(0.99), 1.5);
+    }
+
+    @Test
+    void testQuantile_ZerosAreExact() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(100);
+
+        assertEquals(0.0, sketch.quantile(0.5), 0.0);
+    }
+
+    @Test
+    void testQuantile_EmptySketch_ShouldThrow() {
+        assertThrows(IllegalStateException.class, () -> new QuantileSketch().quantile(0.5));
+    }
+
+    @Test
+    void testAdd_NegativeValue_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().add(-1));
+    }
+
+    @Test
+    void testAdd_WideRange_ShouldKeepMemoryBounded() {
+        QuantileSketch sketch = new QuantileSketch(0.01, 128);
+        for (int i = 0; i < 60; i++) {
+            sketch.add(Math.pow(2, i));
+        }
+
+        assertTrue(sketch.allocatedBuckets() <= 128, "Buckets should be capped: " + sketch);
+        // The highest quantiles stay accurate, only the lowest buckets were collapsed
+        assertEquals(Math.pow(2, 59), sketch.quantile(1.0), Math.pow(2, 59) * 0.01);
+    }
+
+    @Test
+    void testMerge_ShouldEqualSingleSketch() {
+        QuantileSketch single = new QuantileSketch(0.02);
+        QuantileSketch shardA = new QuantileSketch(0.02);
+        QuantileSketch shardB = new QuantileSketch(0.02);
+        for (int i = 1; i <= 1000; i++) {
+            single.add(i);
+            (i % 3 == 0 ? shardA : shardB).add(i);
+        }
+
+        shardA.merge(shardB);
+
+        assertEquals(single.getCount(), shardA.getCount());
+        for (double q : QUANTILES) {
+            assertEquals(single.quantile(q), shardA.quantile(q), 0.0);
+        }
+    }
+
+    @Test
+    void testMerge_DifferentRelativeError_ShouldThrow() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.02)));
+    }
+
+    private static double exactR7(double[] sorted, double q) {
+        double position = q * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        if (lower + 1 >= sorted.length) {
+            return sorted[sorted.length - 1];
+        }
+        return sorted[lower] + (position - lower) * (sorted[lower + 1] - sorted[lower]);
+    }
+}
@@ -5,6 +5,11 @@ import com.google.gson.reflect.TypeToken;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -128,4 +133,44 @@ public class RequestAggregatorTest {
         Map<String, Double> healthStatusCodes = (Map<String, Double>) healthData.get("status_codes");
         assertEquals(1.0, healthStatusCodes.get("2XX").doubleValue(), 0.001);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testMerge_ShardsShouldMatchSingleAggregator() {
+        RequestAggregator shardA = new RequestAggregator();
+        RequestAggregator shardB = new RequestAggregator();
+        String[] routes = {"/api/user", "/api/ping", "/api/user", "/api/health", "/api/user", "/api/ping"};
+        int[] statuses = {201, 200, 404, 503, 200, 500};
+        int[] times = {100, 10, 50, 15, 120, 20};
+        for (int i = 0; i < routes.length; i++) {
+            requestAggregator.addRequestData(routes[i], statuses[i], times[i]);
+            (i % 2 == 0 ? shardA : shardB).addRequestData(routes[i], statuses[i], times[i]);
+        }
+
+        shardA.merge(shardB);
+
+        assertEquals(requestAggregator.getRequestJson(), shardA.getRequestJson(), "Merged shards should give byte-identical JSON.");
+    }
+
+    @Test
+    void testMerge_ShouldAddTheShardsEvictedRoutes() throws IOException {
+        AggregatorConfig config = AggregatorConfig.exact().withRoutes(RouteNormalizer.RAW, 1, RouteTable.Eviction.LRU);
+        RequestAggregator target = new RequestAggregator(config);
+        RequestAggregator shard = new RequestAggregator(config);
+        target.addRequestData("/api/user", 200, 10);
+        shard.addRequestData("/api/user", 200, 10);
+        shard.addRequestData("/api/ping", 200, 10); // Evicts /api/user into __other__
+
+        target.merge(shard);
+
+        // Merging /api/ping evicts the target's /api/user too
+        assertEquals(2, target.getEvictedRoutes());
+
+        // And they survive a state file
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        target.writeState(new DataOutputStream(bytes));
+        RequestAggregator restored = new RequestAggregator(config);
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(2, restored.getEvictedRoutes());
+        assertEquals(target.getRequestJson(), restored.getRequestJson());
+    }
+}
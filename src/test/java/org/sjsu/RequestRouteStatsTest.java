@@ -3,6 +3,11 @@ package org.sjsu;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -116,4 +121,130 @@ public class RequestRouteStatsTest {
         assertEquals(3, codeCounts.get("4XX"));
         assertEquals(0, codeCounts.get("5XX"));
     }
-}
\ No newline at end of file
+
+    // --- Merge Tests ---
+
+    @Test
+    void testMerge_ShouldCombineSamplesAndStatusCodes() {
+        RequestRouteStats other = new RequestRouteStats();
+        stats.addResponseTime(100);
+        stats.addStatusCode(200);
+        other.addResponseTime(50);
+        other.addResponseTime(250);
+        other.addStatusCode(404);
+        other.addStatusCode(503);
+
+        stats.merge(other);
+
+        Map<String, Object> timeStats = stats.getResponseTimeStats();
+        assertEquals(50, timeStats.get("min"));
+        assertEquals(250, timeStats.get("max"));
+        assertEquals(100.0, (Double) timeStats.get("50_percentile"), 0.001);
+
+        Map<String, Integer> codeCounts = stats.getStatusCodeCategoryCounts();
+        assertEquals(1, codeCounts.get("2XX"));
+        assertEquals(1, codeCounts.get("4XX"));
+        assertEquals(1, codeCounts.get("5XX"));
+    }
+
+    @Test
+    void testConfiguredPercentiles_ShouldReplaceTheDefaultKeys() {
+        RequestRouteStats custom = new RequestRouteStats(AggregatorConfig.exact().withPercentiles(75, 99.9));
+        for (int time = 1; time <= 1000; time++) {
+            custom.addResponseTime(time);
+        }
+
+        Map<String, Object> timeStats = custom.getResponseTimeStats();
+
+        assertEquals(750.25, (Double) timeStats.get("75_percentile"), 1e-9);
+        assertEquals(999.001, (Double) timeStats.get("99.9_percentile"), 1e-9);
+        assertEquals(1, timeStats.get("min"));
+        assertEquals(1000, timeStats.get("max"));
+        assertFalse(timeStats.containsKey("50_percentile"));
+    }
+
+    @Test
+    void testWithPercentiles_Invalid_ShouldThrow() {
+        AggregatorConfig config = AggregatorConfig.exact();
+        assertThrows(IllegalArgumentException.class, () -> config.withPercentiles());
+        assertThrows(IllegalArgumentException.class, () -> config.withPercentiles(0));
+        assertThrows(IllegalArgumentException.class, () -> config.withPercentiles(100.5));
+        assertThrows(IllegalArgumentException.class, () -> config.withPercentiles(90, 90));
+    }
+
+    // --- Approximate Mode Tests ---
+
+    @Test
+    void testApproximateMode_ShouldKeepOutputKeysAndTypes() {
+        RequestRouteStats approximate = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        for (int time : new int[]{100, 200, 50, 150, 250, 120, 180, 90, 210, 160}) {
+            approximate.addResponseTime(time);
+        }
+
+        Map<String, Object> timeStats = approximate.getResponseTimeStats();
+
+        assertEquals(50, timeStats.get("min"));
+        assertEquals(250, timeStats.get("max"));
+        assertEquals(155.0, (Double) timeStats.get("50_percentile"), 155.0 * 0.01);
+        assertEquals(214.0, (Double) timeStats.get("90_percentile"), 214.0 * 0.01);
+        assertEquals(232.0, (Double) timeStats.get("95_percentile"), 232.0 * 0.01);
+        assertEquals(246.4, (Double) timeStats.get("99_percentile"), 246.4 * 0.01);
+    }
+
+    @Test
+    void testApproximateMode_Empty() {
+        RequestRouteStats approximate = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        Map<String, Object> timeStats = approximate.getResponseTimeStats();
+
+        assertEquals(0, timeStats.get("min"));
+        assertEquals(0, timeStats.get("99_percentile"));
+    }
+
+    @Test
+    void testMerge_ExactWithApproximate_ShouldThrow() {
+        RequestRouteStats approximate = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        assertThrows(IllegalArgumentException.class, () -> stats.merge(approximate));
+    }
+
+    @Test
+    void testCumulativeCounts_ShouldCountTimesAtOrBelowEachBound() {
+        for (int time : new int[]{3, 5, 7, 10, 40, 250, 9000}) {
+            stats.addResponseTime(time);
+        }
+
+        assertArrayEquals(new long[]{0, 2, 4, 5, 7}, stats.cumulativeCounts(new double[]{2, 5, 10, 100}));
+        assertEquals(9315, stats.getResponseTimeSum());
+        assertEquals(9000, stats.getResponseTimeStats().get("max"), "Counting must not disturb the samples.");
+    }
+
+    @Test
+    void testCumulativeCounts_ApproximateMode_ShouldStayWithinRelativeError() {
+        RequestRouteStats approximate = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        for (int time = 1; time <= 1000; time++) {
+            approximate.addResponseTime(time);
+        }
+
+        long[] counts = approximate.cumulativeCounts(new double[]{100, 500});
+        assertEquals(100, counts[0], 1);
+        assertEquals(500, counts[1], 5);
+        assertEquals(1000, counts[2]);
+        assertEquals(500_500, approximate.getResponseTimeSum(), "The sum is kept exactly, not from the sketch.");
+    }
+
+    @Test
+    void testResponseTimeSum_ShouldSurviveMergeAndState() throws IOException {
+        RequestRouteStats approximate = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        approximate.addResponseTime(40);
+        RequestRouteStats other = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        other.addResponseTime(700);
+        approximate.merge(other);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        approximate.writeState(new DataOutputStream(bytes));
+        RequestRouteStats restored = new RequestRouteStats(AggregatorConfig.approximate(0.01));
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(740, approximate.getResponseTimeSum());
+        assertEquals(740, restored.getResponseTimeSum());
+    }
+}
@@ -0,0 +1,58 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteNormalizerTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "/api/users/123?x=1, /api/users/{id}",
+            "/api/users/123/orders/9, /api/users/{id}/orders/{id}",
+            "/api/status, /api/status",
+            "/api/status?verbose=true#top, /api/status",
+            "/files/3f2b8c1e-9d4a-4b6f-8e2d-1a2b3c4d5e6f, /files/{id}",
+            "/blobs/deadbeef00112233aa, /blobs/{id}",
+            "/blobs/deadbeefcafe, /blobs/deadbeefcafe",
+            "/api/v2/items/, /api/v2/items/",
+            "/, /",
+            "/42, /{id}"})
+    void testTemplated_ShouldStripQueriesAndReplaceIds(String url, String route) {
+        assertEquals(route, RouteNormalizer.templated().normalize(url));
+    }
+
+    @Test
+    void testTemplated_UnchangedUrl_ShouldReturnTheSameString() {
+        String url = "/api/status";
+        assertSame(url, RouteNormalizer.templated().normalize(url));
+    }
+
+    @Test
+    void testTemplates_MatchingUrlShouldBecomeTheTemplate() {
+        RouteNormalizer normalizer = RouteNormalizer.templated(
+                List.of("/api/orders/{order}/items", "/users/{name}"));
+
+        assertEquals("/api/orders/{order}/items", normalizer.normalize("/api/orders/A-17/items?page=2"));
+        assertEquals("/users/{name}", normalizer.normalize("/users/alice"));
+        // Different segment counts or literals fall back to id replacement
+        assertEquals("/users/alice/profile", normalizer.normalize("/users/alice/profile"));
+        assertEquals("/api/orders/{id}", normalizer.normalize("/api/orders/17"));
+        assertEquals("/users/", normalizer.normalize("/users/"));
+    }
+
+    @Test
+    void testRaw_ShouldKeepUrlsAsLogged() {
+        assertTrue(RouteNormalizer.RAW.isRaw());
+        assertEquals("/api/users/123?x=1", RouteNormalizer.RAW.normalize("/api/users/123?x=1"));
+    }
+
+    @Test
+    void testTemplates_ShouldBeAbsolutePaths() {
+        assertThrows(IllegalArgumentException.class, () -> RouteNormalizer.templated(List.of("api/{id}")));
+    }
+}
@@ -0,0 +1,110 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteTableTest {
+
+    @Test
+    void testUnbounded_ShouldKeepEveryRoute() {
+        RouteTable table = new RouteTable(AggregatorConfig.exact());
+        for (int i = 0; i < 100; i++) {
+            table.statsFor("/r" + i).addResponseTime(i);
+        }
+
+        assertEquals(100, table.size());
+        assertFalse(table.snapshot().containsKey(RouteTable.OTHER));
+    }
+
+    @Test
+    void testOverflow_NewRoutesShouldGoToOther() {
+        RouteTable table = new RouteTable(bounded(2, RouteTable.Eviction.OVERFLOW));
+        add(table, "/a", 1);
+        add(table, "/b", 1);
+        add(table, "/c", 3);
+        add(table, "/a", 1);
+
+        Map<String, RequestRouteStats> routes = table.snapshot();
+        assertEquals(List.of("/a", "/b", RouteTable.OTHER), List.copyOf(routes.keySet()));
+        assertEquals(2, routes.get("/a").getCount());
+        assertEquals(3, routes.get(RouteTable.OTHER).getCount());
+        assertEquals(0, table.getEvictedRoutes());
+    }
+
+    @Test
+    void testLru_LeastRecentlyUsedRouteShouldBeFoldedIntoOther() {
+        RouteTable table = new RouteTable(bounded(2, RouteTable.Eviction.LRU));
+        add(table, "/a", 5);
+        add(table, "/b", 1);
+        add(table, "/a", 1); // /b is now the least recently used
+        add(table, "/c", 1);
+
+        Map<String, RequestRouteStats> routes = table.snapshot();
+        assertEquals(List.of("/a", "/c", RouteTable.OTHER), List.copyOf(routes.keySet()));
+        assertEquals(1, routes.get(RouteTable.OTHER).getCount());
+        assertEquals(1, table.getEvictedRoutes());
+    }
+
+    @Test
+    void testLfu_LeastFrequentlyUsedRoutesShouldBeFoldedIntoOther() {
+        RouteTable table = new RouteTable(bounded(20, RouteTable.Eviction.LFU));
+        for (int i = 0; i < 20; i++) {
+            add(table, "/r" + i, i == 3 || i == 7 ? 1 : 10);
+        }
+        add(table, "/new", 1);
+
+        Map<String, RequestRouteStats> routes = table.snapshot();
+        assertEquals(19, table.size());
+        assertFalse(routes.containsKey("/r3"));
+        assertFalse(routes.containsKey("/r7"));
+        assertTrue(routes.containsKey("/new"));
+        assertEquals(2, routes.get(RouteTable.OTHER).getCount());
+        assertEquals(2, table.getEvictedRoutes());
+    }
+
+    @Test
+    void testAggregator_ShouldNormalizeBoundAndKeepTotals() {
+        RequestAggregator aggregator = new RequestAggregator(AggregatorConfig.exact()
+                .withRoutes(RouteNormalizer.templated(), 2, RouteTable.Eviction.OVERFLOW));
+        aggregator.addRequestData("/api/users/1?x=1", 200, 10);
+        aggregator.addRequestData("/api/users/2", 404, 20);
+        aggregator.addRequestData("/home", 200, 30);
+        aggregator.addRequestData("/about", 500, 40);
+
+        Map<String, Map<String, Object>> results = aggregator.getRequestResults();
+        assertEquals(List.of("/api/users/{id}", "/home", RouteTable.OTHER), List.copyOf(results.keySet()));
+        assertEquals(1, ((Map<?, ?>) results.get(RouteTable.OTHER).get("status_codes")).get("5XX"));
+    }
+
+    @Test
+    void testMerge_OtherShouldStayOther() {
+        AggregatorConfig config = bounded(1, RouteTable.Eviction.OVERFLOW);
+        RequestAggregator first = new RequestAggregator(config);
+        RequestAggregator second = new RequestAggregator(config);
+        first.addRequestData("/a", 200, 1);
+        second.addRequestData("/b", 200, 2);
+        second.addRequestData("/c", 200, 3);
+
+        first.merge(second);
+
+        Map<String, Map<String, Object>> results = first.getRequestResults();
+        assertEquals(List.of("/a", RouteTable.OTHER), List.copyOf(results.keySet()));
+        assertEquals(2, ((Map<?, ?>) results.get(RouteTable.OTHER).get("status_codes")).get("2XX"));
+    }
+
+    private static AggregatorConfig bounded(int maxRoutes, RouteTable.Eviction eviction) {
+        return AggregatorConfig.exact().withRoutes(RouteNormalizer.RAW, maxRoutes, eviction);
+    }
+
+    private static void add(RouteTable table, String route, int times) {
+        for (int i = 0; i < times; i++) {
+            RequestRouteStats stats = table.statsFor(route);
+            stats.addResponseTime(100);
+            stats.addStatusCode(200);
+        }
+    }
+}
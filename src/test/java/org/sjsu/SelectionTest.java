@@ -0,0 +1,107 @@
+package org.sjsu;
+
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SelectionTest {
+
+    @Test
+    void testSelect_ShouldMatchSortedOrder() {
+        Random random = new Random(7);
+        for (int size : new int[]{1, 2, 15, 16, 17, 100, 1001}) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(50); // Plenty of duplicates
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            for (int k : new int[]{0, size / 2, size - 1}) {
+                double[] work = values.clone();
+                assertEquals(sorted[k], Selection.select(work, 0, size, k), 0.0, "size=" + size + " k=" + k);
+                for (int i = 0; i < k; i++) {
+                    assertTrue(work[i] <= work[k], "Elements before k should not be greater");
+                }
+                for (int i = k + 1; i < size; i++) {
+                    assertTrue(work[i] >= work[k], "Elements after k should not be smaller");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSelect_AllEqualValues() {
+        double[] values = new double[10_000];
+        Arrays.fill(values, 3.0);
+
+        assertEquals(3.0, Selection.select(values, 0, values.length, 5_000), 0.0);
+    }
+
+    @Test
+    void testSelect_KOutsideRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Selection.select(new double[]{1, 2}, 0, 2, 2));
+    }
+
+    @Test
+    void testSelectAll_ShouldPlaceEveryRank() {
+        Random random = new Random(11);
+        for (int size : new int[]{1, 2, 16, 17, 100, 5000}) {
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(size < 100 ? 10 : 1000);
+            }
+            int[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int[] ranks = {0, size / 3, size / 3, size / 2, size - 1};
+
+            Selection.selectAll(values, 0, size, ranks);
+
+            for (int rank : ranks) {
+                assertEquals(sorted[rank], values[rank], "size=" + size + " rank=" + rank);
+            }
+            Arrays.sort(values);
+            assertArrayEquals(sorted, values, "Selection should only reorder the values");
+        }
+    }
+
+    @Test
+    void testSelectAll_UnsortedRanks_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Selection.selectAll(new int[]{3, 1, 2}, 0, 3, new int[]{2, 1}));
+        assertThrows(IllegalArgumentException.class, () -> Selection.selectAll(new int[]{3, 1, 2}, 0, 3, new int[]{3}));
+    }
+
+    @Test
+    void testPercentiles_ShouldMatchCommonsMathR7Exactly() {
+        double[] percentiles = {0.1, 1, 25, 50, 75, 90, 95, 99, 99.9, 100};
+        Percentile r7 = new Percentile().withEstimationType(Percentile.EstimationType.R_7);
+        Random random = new Random(3);
+        for (int size : new int[]{1, 2, 3, 10, 17, 1000, 12345}) {
+            int[] values = new int[size];
+            double[] doubles = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextInt(5000);
+                doubles[i] = values[i];
+            }
+
+            double[] results = Selection.percentiles(values, 0, size, percentiles);
+
+            for (int i = 0; i < percentiles.length; i++) {
+                // Bit-for-bit, not within a tolerance
+                assertEquals(r7.evaluate(doubles, percentiles[i]), results[i], 0.0,
+                        "size=" + size + " p=" + percentiles[i]);
+            }
+        }
+    }
+
+    @Test
+    void testPercentiles_OutOfRange_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> Selection.percentiles(new int[]{1}, 0, 1, new double[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> Selection.percentiles(new int[]{1}, 0, 1, new double[]{101}));
+        assertThrows(IllegalArgumentException.class, () -> Selection.percentiles(new int[0], 0, 0, new double[]{50}));
+    }
+}
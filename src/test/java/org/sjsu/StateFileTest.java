@@ -0,0 +1,121 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWriteAndRead_ExactState_ShouldProduceSameOutput() throws IOException {
+        assertRoundTrip(AggregatorConfig.exact());
+    }
+
+    @Test
+    void testWriteAndRead_ApproximateState_ShouldProduceSameOutput() throws IOException {
+        assertRoundTrip(AggregatorConfig.approximate(0.02));
+    }
+
+    @Test
+    void testMerge_PerHostStates_ShouldMatchSingleRun() throws IOException {
+        AggregatorSet web1 = fill(AggregatorConfig.exact(), 0, 300);
+        AggregatorSet web2 = fill(AggregatorConfig.exact(), 300, 700);
+        AggregatorSet web3 = fill(AggregatorConfig.exact(), 700, 800);
+        StateFile.write(tempDir.resolve("web1.state"), web1);
+        StateFile.write(tempDir.resolve("web2.state"), web2);
+        StateFile.write(tempDir.resolve("web3.state"), web3);
+
+        AggregatorSet merged = StateFile.merge(List.of(tempDir.resolve("web1.state"), tempDir.resolve("web2.state"),
+                tempDir.resolve("web3.state")), AggregatorConfig.exact());
+
+        assertSameOutput(fill(AggregatorConfig.exact(), 0, 800), merged);
+    }
+
+    @Test
+    void testMerge_ShouldUseTheGivenPercentiles() throws IOException {
+        StateFile.write(tempDir.resolve("a.state"), fill(AggregatorConfig.exact(), 0, 100));
+
+        AggregatorSet merged = StateFile.read(tempDir.resolve("a.state"), AggregatorConfig.exact().withPercentiles(75));
+
+        assertTrue(merged.getRequestAggregator().getRequestJson().contains("\"75_percentile\""));
+        assertFalse(merged.getRequestAggregator().getRequestJson().contains("\"99_percentile\""));
+    }
+
+    @Test
+    void testMerge_DifferentRelativeErrors_ShouldThrow() throws IOException {
+        StateFile.write(tempDir.resolve("exact.state"), fill(AggregatorConfig.exact(), 0, 100));
+        StateFile.write(tempDir.resolve("approximate.state"), fill(AggregatorConfig.approximate(0.01), 100, 200));
+
+        assertThrows(IOException.class, () -> StateFile.merge(
+                List.of(tempDir.resolve("exact.state"), tempDir.resolve("approximate.state")), AggregatorConfig.exact()));
+    }
+
+    @Test
+    void testRead_TruncatedOrForeignFile_ShouldThrow() throws IOException {
+        Path stateFile = tempDir.resolve("a.state");
+        StateFile.write(stateFile, fill(AggregatorConfig.exact(), 0, 100));
+        byte[] bytes = Files.readAllBytes(stateFile);
+
+        Files.write(stateFile, Arrays.copyOf(bytes, bytes.length - 12));
+        assertThrows(IOException.class, () -> StateFile.read(stateFile, AggregatorConfig.exact()));
+
+        Files.write(stateFile, "not a state file".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> StateFile.read(stateFile, AggregatorConfig.exact()));
+    }
+
+    @Test
+    void testWrite_WithTimeWindows_ShouldThrow() {
+        AggregatorSet aggregators = new AggregatorSet(AggregatorConfig.exact().withWindows(60, 10));
+
+        assertThrows(IllegalArgumentException.class, () -> StateFile.write(tempDir.resolve("a.state"), aggregators));
+    }
+
+    private void assertRoundTrip(AggregatorConfig config) throws IOException {
+        AggregatorSet aggregators = fill(config, 0, 500);
+        Path stateFile = tempDir.resolve("run.state");
+
+        StateFile.write(stateFile, aggregators);
+        AggregatorSet restored = StateFile.read(stateFile, AggregatorConfig.exact());
+
+        assertEquals(config.getRelativeError(), restored.getConfig().getRelativeError());
+        assertSameOutput(aggregators, restored);
+    }
+
+    private static AggregatorSet fill(AggregatorConfig config, int from, int to) {
+        AggregatorSet aggregators = new AggregatorSet(config);
+        LogHandler handler = aggregators.buildDispatcher(Diagnostics.silent());
+        for (int i = from; i < to; i++) {
+            switch (i % 3) {
+                case 0:
+                    handler.handle("timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=web1 value=" + (i % 89 + 0.5));
+                    break;
+                case 1:
+                    handler.handle("timestamp=2024-11-24T10:02:55Z level=" + (i % 2 == 0 ? "ERROR" : "INFO")
+                            + " message=\"File not found\" host=web2");
+                    break;
+                default:
+                    handler.handle("timestamp=2024-11-24T10:01:25Z request_method=GET request_url=\"/api/route" + (i % 7)
+                            + "\" response_status=" + (200 + i % 4 * 100) + " response_time_ms=" + (i % 113));
+                    break;
+            }
+        }
+        return aggregators;
+    }
+
+    private static void assertSameOutput(AggregatorSet expected, AggregatorSet actual) {
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+    }
+}
@@ -0,0 +1,70 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    void testIntern_ShouldReturnDenseIdsInFirstSeenOrder() {
+        SymbolTable table = new SymbolTable(100);
+        String line = "host=webserver1 other=webserver2 again=webserver1";
+
+        int first = table.intern(line, 5, 15);
+        int second = table.intern(line, 22, 32);
+        int again = table.intern(line, 39, 49);
+
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(first, again);
+        assertEquals("webserver1", table.symbol(first));
+        assertEquals("webserver2", table.symbol(second));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testIntern_ManySymbols_ShouldSurviveRehashing() {
+        SymbolTable table = new SymbolTable(10_000);
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(i, table.intern("route-" + i));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(i, table.intern(new StringBuilder("route-").append(i)));
+            assertEquals("route-" + i, table.symbol(i));
+        }
+        assertNotEquals(table.intern("Aa"), table.intern("BB")); // Same String.hashCode()
+    }
+
+    @Test
+    void testIntern_WhenFull_ShouldOnlyResolveKnownSymbols() {
+        SymbolTable table = new SymbolTable(2);
+        assertEquals(0, table.intern("a"));
+        assertEquals(1, table.intern("b"));
+
+        assertEquals(SymbolTable.FULL, table.intern("c"));
+        assertEquals(1, table.intern("b"));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testSymbol_UnknownId_ShouldThrow() {
+        SymbolTable table = new SymbolTable(2);
+        table.intern("a");
+        assertThrows(IndexOutOfBoundsException.class, () -> table.symbol(1));
+        assertThrows(IllegalArgumentException.class, () -> new SymbolTable(0));
+    }
+
+    @Test
+    void testCanonical_ShouldReturnTheSameInstanceUntilFull() {
+        SymbolTable table = new SymbolTable(1);
+        String first = table.canonical("metric=cpu", 7, 10);
+        String second = table.canonical(new StringBuilder("metric=cpu"), 7, 10);
+        String other = table.canonical("metric=mem", 7, 10);
+
+        assertEquals("cpu", first);
+        assertSame(first, second);
+        assertEquals("mem", other);
+        assertNotSame(other, table.canonical("metric=mem", 7, 10)); // Table full, so copied every time
+    }
+}
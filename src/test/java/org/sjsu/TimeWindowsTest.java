@@ -0,0 +1,182 @@
+package org.sjsu;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeWindowsTest {
+
+    private static final AggregatorConfig ONE_MINUTE = AggregatorConfig.exact().withWindows(60, 3);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testDispatcher_ShouldAggregateTotalsAndEachWindow() {
+        AggregatorSet aggregators = new AggregatorSet(ONE_MINUTE);
+        LogHandler handler = aggregators.buildDispatcher();
+        feed(handler);
+
+        assertTotalsAndWindows(aggregators);
+    }
+
+    @Test
+    void testChain_ShouldAggregateTotalsAndEachWindow() {
+        AggregatorSet aggregators = new AggregatorSet(ONE_MINUTE);
+        LogHandler handler = aggregators.buildChain();
+        feed(handler);
+
+        assertTotalsAndWindows(aggregators);
+    }
+
+    @Test
+    void testRing_OldWindowsShouldBeEvictedAndTheirLinesCountedAsLate() {
+        AggregatorSet aggregators = new AggregatorSet(ONE_MINUTE);
+        LogHandler handler = aggregators.buildDispatcher();
+        for (int minute = 0; minute < 10; minute++) {
+            assertTrue(handler.handle(String.format("timestamp=2024-11-24T10:%02d:00Z level=INFO", minute)));
+        }
+        assertTrue(handler.handle("timestamp=2024-11-24T10:01:00Z level=INFO")); // Long evicted
+        assertTrue(handler.handle("timestamp=2024-11-24T10:07:30Z level=INFO")); // Oldest window still held
+
+        TimeWindows windows = aggregators.getTimeWindows();
+        assertEquals(List.of(epoch("2024-11-24T10:07:00Z"), epoch("2024-11-24T10:08:00Z"), epoch("2024-11-24T10:09:00Z")),
+                windows.getWindowStarts());
+        assertEquals(7, windows.getEvictedWindows());
+        assertEquals(1, windows.getLateLines());
+        assertEquals(2, windows.windowAt(epoch("2024-11-24T10:07:00Z")).getApplicationAggregator().getLevelCounts().get("INFO"));
+        // Totals include every line
+        assertEquals(12, aggregators.getApplicationAggregator().getLevelCounts().get("INFO"));
+    }
+
+    @Test
+    void testRing_GapShouldEvictEveryWindowOutOfRange() {
+        TimeWindows windows = new TimeWindows(ONE_MINUTE);
+        windows.windowAt(epoch("2024-11-24T10:00:00Z"));
+        windows.windowAt(epoch("2024-11-24T10:02:00Z"));
+        windows.windowAt(epoch("2024-11-24T11:00:00Z"));
+
+        assertEquals(List.of(epoch("2024-11-24T11:00:00Z")), windows.getWindowStarts());
+        assertEquals(2, windows.getEvictedWindows());
+        assertNull(windows.windowAt(epoch("2024-11-24T10:57:59Z")));
+        assertNotNull(windows.windowAt(epoch("2024-11-24T10:58:00Z")));
+    }
+
+    @Test
+    void testMerge_ShardsShouldMatchASingleSet() {
+        String[] lines = {
+                "timestamp=2024-11-24T10:00:10Z metric=cpu_usage_percent host=webserver1 value=72",
+                "timestamp=2024-11-24T10:00:20Z request_method=GET request_url=\"/home\" response_status=200 response_time_ms=100",
+                "timestamp=2024-11-24T10:01:10Z metric=cpu_usage_percent host=webserver1 value=90",
+                "timestamp=2024-11-24T10:02:10Z level=ERROR",
+                "timestamp=2024-11-24T10:03:10Z level=ERROR",
+                "timestamp=2024-11-24T10:03:20Z request_method=GET request_url=\"/home\" response_status=500 response_time_ms=300"};
+        AggregatorSet single = new AggregatorSet(ONE_MINUTE);
+        LogHandler singleHandler = single.buildDispatcher();
+        AggregatorSet first = single.newShard();
+        AggregatorSet second = single.newShard();
+        for (int i = 0; i < lines.length; i++) {
+            singleHandler.handle(lines[i]);
+            (i < 3 ? first : second).buildDispatcher().handle(lines[i]);
+        }
+        first.merge(second);
+
+        assertEquals(single.getTimeWindows().getTimeSeriesJson(), first.getTimeWindows().getTimeSeriesJson());
+        assertEquals(single.getTimeWindows().getEvictedWindows(), first.getTimeWindows().getEvictedWindows());
+    }
+
+    @Test
+    void testMerge_OutOfOrderTimestamps_ParallelShouldHoldTheSameWindowsAsSequential() throws IOException {
+        // Timestamps drift forward but jump back up to five minutes, past the three windows held
+        StringBuilder content = new StringBuilder();
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            long second = epoch("2024-11-24T10:00:00Z") + i * 3L - random.nextInt(300);
+            content.append("timestamp=").append(Instant.ofEpochSecond(second))
+                    .append(i % 2 == 0 ? " level=INFO" : " request_method=GET request_url=\"/home\" response_status=200"
+                            + " response_time_ms=" + i % 97)
+                    .append('\n');
+        }
+        Path file = tempDir.resolve("drifting.log");
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        AggregatorSet sequential = new AggregatorSet(ONE_MINUTE);
+        Main.processSequential(file.toString(), sequential.buildDispatcher(Diagnostics.silent()), Diagnostics.silent());
+        AggregatorSet parallel = new AggregatorSet(ONE_MINUTE);
+        new ParallelFileProcessor(4, 16 * 1024).withDiagnostics(Diagnostics.silent()).process(file, parallel);
+
+        // Only windows within reach of the newest one overall are kept, whatever the shards saw
+        JsonObject expected = JsonParser.parseString(sequential.getTimeWindows().getTimeSeriesJson()).getAsJsonObject();
+        JsonObject actual = JsonParser.parseString(parallel.getTimeWindows().getTimeSeriesJson()).getAsJsonObject();
+        assertEquals(3, expected.getAsJsonArray("windows").size());
+        assertEquals(expected.get("windows"), actual.get("windows"));
+        // The late and evicted counts are per shard, so they only approximate the sequential ones
+        assertTrue(expected.get("late_lines").getAsLong() > 0);
+        assertTrue(actual.get("late_lines").getAsLong() + actual.get("evicted_windows").getAsLong() > 0);
+    }
+
+    @Test
+    void testLineWithoutTimestamp_ShouldOnlyCountTowardsTheTotals() {
+        AggregatorSet aggregators = new AggregatorSet(ONE_MINUTE);
+        LogHandler handler = aggregators.buildDispatcher();
+        assertTrue(handler.handle("level=INFO message=\"no time\""));
+        assertTrue(handler.handle("timestamp=soon level=INFO"));
+
+        assertEquals(2, aggregators.getTimeWindows().getUntimedLines());
+        assertTrue(aggregators.getTimeWindows().getWindowStarts().isEmpty());
+        assertEquals(2, aggregators.getApplicationAggregator().getLevelCounts().get("INFO"));
+    }
+
+    @Test
+    void testWithoutWindows_ShouldHaveNoTimeWindows() {
+        assertNull(new AggregatorSet().getTimeWindows());
+        assertThrows(IllegalArgumentException.class, () -> new TimeWindows(AggregatorConfig.exact()));
+        assertThrows(IllegalArgumentException.class, () -> AggregatorConfig.exact().withWindows(0, 10));
+    }
+
+    private static void feed(LogHandler handler) {
+        handler.handle("timestamp=2024-11-24T10:00:50Z level=INFO message=\"User updated profile\" host=webserver3");
+        handler.handle("timestamp=2024-11-24T10:00:57Z request_method=PUT request_url=\"/api/status\" response_status=201 response_time_ms=117 host=webserver1");
+        handler.handle("timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=webserver1 value=94");
+        handler.handle("timestamp=2024-11-24T10:01:35Z level=INFO message=\"Second minute\" host=webserver3");
+        handler.handle("timestamp=2024-11-24T10:01:45Z event=ACCESS_DENIED user_id=125 resource=\"/admin\" host=webserver2");
+    }
+
+    private static void assertTotalsAndWindows(AggregatorSet aggregators) {
+        assertEquals(2, aggregators.getApplicationAggregator().getLevelCounts().get("INFO"));
+
+        JsonObject series = JsonParser.parseString(aggregators.getTimeWindows().getTimeSeriesJson()).getAsJsonObject();
+        assertEquals(60, series.get("window_seconds").getAsInt());
+        assertEquals(0, series.get("untimed_lines").getAsInt());
+        JsonArray windows = series.getAsJsonArray("windows");
+        assertEquals(2, windows.size());
+
+        JsonObject first = windows.get(0).getAsJsonObject();
+        assertEquals("2024-11-24T10:00:00Z", first.get("start").getAsString());
+        assertEquals("2024-11-24T10:01:00Z", first.get("end").getAsString());
+        assertEquals(1, first.getAsJsonObject("application").get("INFO").getAsInt());
+        assertTrue(first.getAsJsonObject("request").has("/api/status"));
+        assertEquals(0, first.getAsJsonObject("apm").size());
+
+        JsonObject second = windows.get(1).getAsJsonObject();
+        assertEquals("2024-11-24T10:01:00Z", second.get("start").getAsString());
+        assertEquals(1, second.getAsJsonObject("application").get("INFO").getAsInt());
+        assertEquals(94.0, second.getAsJsonObject("apm").getAsJsonObject("cpu_usage_percent").get("max").getAsDouble());
+        assertEquals(0, second.getAsJsonObject("request").size());
+    }
+
+    private static long epoch(String timestamp) {
+        return Instant.parse(timestamp).getEpochSecond();
+    }
+}
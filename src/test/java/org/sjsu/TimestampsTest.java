@@ -0,0 +1,69 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimestampsTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2024-11-24T10:00:50Z",
+            "1970-01-01T00:00:00Z",
+            "1969-12-31T23:59:59Z",
+            "2000-02-29T12:34:56Z",
+            "2100-03-01T00:00:00Z",
+            "1601-01-01T00:00:00Z"})
+    void testParseEpochSeconds_Utc_ShouldMatchInstantParse(String timestamp) {
+        assertEquals(Instant.parse(timestamp).getEpochSecond(), Timestamps.parseEpochSeconds(timestamp));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2024-11-24T10:00:50+02:00", "2024-11-24T10:00:50-05:30", "2024-01-01T00:30:00+01:00"})
+    void testParseEpochSeconds_Offset_ShouldMatchOffsetDateTime(String timestamp) {
+        assertEquals(OffsetDateTime.parse(timestamp).toEpochSecond(), Timestamps.parseEpochSeconds(timestamp));
+    }
+
+    @Test
+    void testParseEpochSeconds_FractionCompactOffsetAndNoZone_ShouldBeAccepted() {
+        long expected = Instant.parse("2024-11-24T10:00:50Z").getEpochSecond();
+        assertEquals(expected, Timestamps.parseEpochSeconds("2024-11-24T10:00:50.123456Z"));
+        assertEquals(expected, Timestamps.parseEpochSeconds("2024-11-24T10:00:50"));
+        assertEquals(expected, Timestamps.parseEpochSeconds("2024-11-24 10:00:50"));
+        assertEquals(expected - 3_600, Timestamps.parseEpochSeconds("2024-11-24T10:00:50+0100"));
+    }
+
+    @Test
+    void testParseEpochSeconds_Range_ShouldOnlyReadThatPart() {
+        String line = "timestamp=2024-11-24T10:00:50Z level=INFO";
+        assertEquals(Instant.parse("2024-11-24T10:00:50Z").getEpochSecond(),
+                Timestamps.parseEpochSeconds(line, 10, 30));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "yesterday", "2024-11-24", "2024-13-01T00:00:00Z", "2023-02-29T00:00:00Z",
+            "2024-04-31T00:00:00Z", "2024-11-24T24:00:00Z", "2024-11-24T10:60:00Z", "2024-11-24X10:00:50Z",
+            "2024-11-24T10:00:50ZZ", "2024-11-24T10:00:50.Z", "2024-11-24T10:00:50+2", "2024/11/24T10:00:50Z"})
+    void testParseEpochSeconds_NotATimestamp_ShouldReturnInvalid(String text) {
+        assertEquals(Timestamps.INVALID, Timestamps.parseEpochSeconds(text));
+    }
+
+    @Test
+    void testEpochDay_ShouldMatchLocalDate() {
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2102; date = date.plusDays(17)) {
+            assertEquals(date.toEpochDay(), Timestamps.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()),
+                    date.toString());
+        }
+    }
+
+    @Test
+    void testFormat() {
+        assertEquals("2024-11-24T10:00:00Z", Timestamps.format(Instant.parse("2024-11-24T10:00:00Z").getEpochSecond()));
+    }
+}
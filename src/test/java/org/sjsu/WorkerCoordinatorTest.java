@@ -0,0 +1,107 @@
+package org.sjsu;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkerCoordinatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Starts real worker JVMs on this machine
+    @Test
+    void testProcess_ShouldMatchSingleRun() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            switch (i % 3) {
+                case 0:
+                    content.append("timestamp=2024-11-24T10:01:30Z metric=cpu_usage_percent host=web1 value=").append(i % 89 + 0.5);
+                    break;
+                case 1:
+                    content.append("timestamp=2024-11-24T10:02:55Z level=").append(i % 2 == 0 ? "ERROR" : "INFO")
+                            .append(" message=\"File not found\" host=web2");
+                    break;
+                default:
+                    content.append("timestamp=2024-11-24T10:01:25Z request_method=GET request_url=\"/api/route").append(i % 7)
+                            .append("\" response_status=").append(200 + i % 4 * 100).append(" response_time_ms=").append(i % 113);
+                    break;
+            }
+            content.append('\n');
+        }
+        content.append("not a log line\n");
+        Files.write(input, content.toString().getBytes(StandardCharsets.UTF_8));
+        AggregatorSet expected = new AggregatorSet();
+        new ParallelFileProcessor(1).withDiagnostics(Diagnostics.silent()).process(input, expected);
+
+        Path diagnostics = tempDir.resolve("diagnostics.log");
+        WorkerCoordinator.Result result = new WorkerCoordinator(3)
+                .withJavaOptions(List.of("-Xmx64m"))
+                .withDiagnosticsFile(diagnostics)
+                .process(input, AggregatorConfig.exact());
+
+        assertEquals(3, result.getWorkers());
+        assertEquals(3, result.getWorkerDiagnostics().size());
+        AggregatorSet actual = result.getAggregators();
+        assertEquals(expected.getApmAggregator().getApmJson(), actual.getApmAggregator().getApmJson());
+        assertEquals(expected.getApplicationAggregator().getApplicationJson(), actual.getApplicationAggregator().getApplicationJson());
+        assertEquals(expected.getRequestAggregator().getRequestJson(), actual.getRequestAggregator().getRequestJson());
+        // The last line belongs to the last worker, whose range ends at the end of the file
+        String samples = new String(Files.readAllBytes(diagnostics), StandardCharsets.UTF_8);
+        assertTrue(samples.matches("\\d+-" + Files.size(input) + "\tunmatched\t\\d+\tnot a log line\\R"), samples);
+    }
+
+    @Test
+    void testProcess_SampleLimit_ShouldBeSharedBetweenWorkers() throws IOException {
+        Path input = tempDir.resolve("noise.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            content.append("not a log line ").append(i).append('\n');
+        }
+        Files.write(input, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        Path diagnostics = tempDir.resolve("diagnostics.log");
+        WorkerCoordinator.Result result = new WorkerCoordinator(3)
+                .withJavaOptions(List.of("-Xmx64m"))
+                .withWorkerArguments(List.of("--console-rate", "0"))
+                .withDiagnosticsFile(diagnostics)
+                .withSampleLimit(4)
+                .process(input, AggregatorConfig.exact());
+
+        assertEquals(4, Files.readAllLines(diagnostics).size(), "Two samples from the first worker, one each from the others.");
+        for (String summary : result.getWorkerDiagnostics()) {
+            // The workers' own sample files are gone with the work directory
+            assertTrue(summary.contains("sampled to " + diagnostics), summary);
+        }
+    }
+
+    @Test
+    void testProcess_FailingWorker_ShouldThrowWithItsOutput() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, "level=INFO message=\"x\"\n".getBytes(StandardCharsets.UTF_8));
+
+        IOException e = assertThrows(IOException.class, () -> new WorkerCoordinator(1)
+                .withWorkerArguments(List.of("--approximate", "2"))
+                .process(input, AggregatorConfig.exact()));
+        assertTrue(e.getMessage().contains("--approximate"), e.getMessage());
+    }
+
+    @Test
+    void testProcess_EmptyFile_ShouldNotStartWorkers() throws IOException {
+        Path input = tempDir.resolve("empty.txt");
+        Files.createFile(input);
+
+        WorkerCoordinator.Result result = new WorkerCoordinator(2).process(input, AggregatorConfig.exact());
+
+        assertEquals(0, result.getWorkers());
+        assertEquals("{}", result.getAggregators().getRequestAggregator().getRequestJson());
+    }
+}